@@ -1,7 +1,16 @@
 import algorithms.*;
+import benchmark.Measurement;
 import graph.*;
+import model.GomoryHuTree;
+import monitoring.GraphLoadEvent;
+import preprocess.GraphReducer;
+import preprocess.GraphReorderer;
+import preprocess.ReducedGraph;
+import preprocess.ReorderedGraph;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class executes Ford-Fulkerson, Scaling-Ford-Fulkerson and Preflow-Push algorithms on a given graph file.
@@ -11,51 +20,111 @@ public class AlgorithmExecutor {
 	/**
 	 * Executes Ford-Fulkerson, Scaling-Ford-Fulkerson and Preflow-Push algorithms on the specified file path.
 	 *
-	 * @param filePath The path of the file containing the graph data.
+	 * @param filePath     The path of the file containing the graph data.
+	 * @param options      Options controlling how the graph is prepared.
+	 * @param measurements The list the measurements of the algorithms are added to.
 	 * @throws Exception If there's an issue while executing the algorithms.
 	 */
-	private static void executeAlgorithm(String filePath) throws Exception {
+	private static void executeAlgorithm(String filePath, ExecutorOptions options, List<Measurement> measurements)
+			throws Exception {
 		SimpleGraph graph = new SimpleGraph();
+		GraphLoadEvent loadEvent = GraphLoadEvent.isRecorded() ? new GraphLoadEvent() : null;
+		if (loadEvent != null) {
+			loadEvent.begin();
+		}
+		long load_startTime = System.nanoTime();
 		GraphInput.LoadSimpleGraph(graph, filePath);
+		long loadNanos = System.nanoTime() - load_startTime;
+		if (loadEvent != null && loadEvent.shouldCommit()) {
+			loadEvent.setGraph(filePath, graph.numVertices(), graph.numEdges());
+			loadEvent.commit();
+		}
+		String graphName = new File(filePath).getName();
 		System.out.println(filePath);
 		System.out.println("Vertices: " + graph.numVertices());
 		System.out.println("Edges: " + graph.numEdges());
 
+		ReducedGraph reducedGraph = null;
+		if (options.reduce) {
+			reducedGraph = new GraphReducer().reduce(graph);
+			graph = reducedGraph.getGraph();
+			System.out.println("Reduced to vertices: " + graph.numVertices() + ", edges: " + graph.numEdges()
+					+ " (pruned " + reducedGraph.getPrunedVertices() + ", contracted "
+					+ reducedGraph.getContractedVertices() + ", merged " + reducedGraph.getMergedEdges() + ")");
+		}
+		if (options.ordering != null) {
+			ReorderedGraph reorderedGraph = new GraphReorderer().reorder(graph, options.ordering);
+			graph = reorderedGraph.getGraph();
+			System.out.println("Reordered vertices (" + options.ordering + "), average edge span "
+					+ reorderedGraph.getOriginalEdgeSpan() + " -> " + reorderedGraph.getEdgeSpan());
+		}
+
+		if (options.cutTree) {
+			GomoryHuTreeBuilder treeBuilder = new GomoryHuTreeBuilder();
+			long tree_startTime = System.currentTimeMillis();
+			GomoryHuTree cutTree = treeBuilder.build(graph);
+			long tree_endTime = System.currentTimeMillis();
+			long tree_duration = tree_endTime - tree_startTime;
+			cutTree.save(filePath + ".cuttree");
+			System.out.println("Cut tree written to " + filePath + ".cuttree computed in " + tree_duration + " ms ("
+					+ treeBuilder.getRecomputedFlows() + " flows recomputed)");
+		}
+
+		if (options.portfolio) {
+			System.out.println("Executing portfolio");
+			PortfolioSolver portfolioSolver = new PortfolioSolver();
+			long portfolio_startTime = System.currentTimeMillis();
+			double portfolio_maxFlow = portfolioSolver.getMaxFlow(graph);
+			long portfolio_endTime = System.currentTimeMillis();
+			long portfolio_duration = portfolio_endTime - portfolio_startTime;
+			System.out.println(" Winner: " + portfolioSolver.getWinner() + " in " + portfolioSolver.getWinnerTime()
+				+ " ms");
+			System.out.println(
+				" Max flow value is: " + portfolio_maxFlow + " computed in " + portfolio_duration + " ms");
+			return;
+		}
+
+		if (options.auto) {
+			System.out.println("Executing selected algorithm");
+			SolverSelector solverSelector = new SolverSelector();
+			long auto_startTime = System.currentTimeMillis();
+			double auto_maxFlow = solverSelector.getMaxFlow(graph);
+			long auto_endTime = System.currentTimeMillis();
+			long auto_duration = auto_endTime - auto_startTime;
+			System.out.println(" Graph profile: " + solverSelector.getProfile());
+			System.out.println(" Selected " + solverSelector.getSelected() + " (" + solverSelector.getReason() + ")");
+			System.out.println(" Max flow value is: " + auto_maxFlow + " computed in " + auto_duration + " ms");
+			return;
+		}
+
 		System.out.println("Executing Ford Fulkerson");
-		FordFulkerson fordFulkerson = new FordFulkerson();
-		long ff_startTime = System.currentTimeMillis();
-		double ff_maxFlow = fordFulkerson.getMaxFlow(graph);
-		long ff_endTime = System.currentTimeMillis();
-		long ff_duration = ff_endTime - ff_startTime;
-		System.out.println(" Max flow value is: " + ff_maxFlow + " computed in " + ff_duration + " ms");
+		measurements.add(options.measure(graphName, graph, reducedGraph, loadNanos,
+				SolverSelector.FORD_FULKERSON, System.out));
 
 		System.out.println("Executing Scaling Ford Fulkerson");
-		ScalingFordFulkerson scalingFordFulkerson = new ScalingFordFulkerson();
-		long sff_startTime = System.currentTimeMillis();
-		double sff_maxFlow = scalingFordFulkerson.getMaxFlow(graph);
-		long sff_endTime = System.currentTimeMillis();
-		long sff_duration = sff_endTime - sff_startTime;
-		System.out.println(" Max flow value is: " + sff_maxFlow + " computed in " + sff_duration + " ms");
+		measurements.add(options.measure(graphName, graph, reducedGraph, loadNanos,
+				SolverSelector.SCALING_FORD_FULKERSON, System.out));
 		
 		System.out.println("Executing PreFlowPush");
-		PreFlowPush preFlowPush = new PreFlowPush();
-		long pfp_startTime = System.currentTimeMillis();
-		double pfp_maxFlow = preFlowPush.calculateMaxFlow(graph);
-		long pfp_endTime = System.currentTimeMillis();
-		long pfp_duration = pfp_endTime - pfp_startTime;
-		System.out.println(" Max flow value is: " + pfp_maxFlow + " computed in " + pfp_duration + " ms");
+		measurements.add(options.measure(graphName, graph, reducedGraph, loadNanos,
+				SolverSelector.PREFLOW_PUSH, System.out));
 	}
 
 	/**
 	 * Main method that executes the algorithms based on the input file path.
 	 *
-	 * @param args Command-line arguments. Expects the file path as the first argument.
+	 * @param args Command-line arguments. Expects the file path as the first argument,
+	 *             optionally followed by the options described in {@link ExecutorOptions}.
 	 * @throws Exception If there's an issue while executing the algorithms.
 	 */
 	public static void main(String[] args) throws Exception {
 		String filePath = args[0];
+		ExecutorOptions options = ExecutorOptions.parse(args, 1);
 		if(null!= filePath){
-			executeAlgorithm(filePath);
+			options.startProgressLog();
+			List<Measurement> measurements = new ArrayList<>();
+			executeAlgorithm(filePath, options, measurements);
+			options.writeMeasurements(measurements);
 		}else{
 			System.err.println("please enter filePath");
 		}
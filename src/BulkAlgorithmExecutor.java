@@ -1,10 +1,26 @@
-import algorithms.FordFulkerson;
-import algorithms.PreFlowPush;
-import algorithms.ScalingFordFulkerson;
+import algorithms.GomoryHuTreeBuilder;
+import algorithms.PortfolioSolver;
+import algorithms.SolverSelector;
+import benchmark.Measurement;
 import graph.GraphInput;
 import graph.SimpleGraph;
+import model.GomoryHuTree;
+import monitoring.GraphLoadEvent;
+import preprocess.GraphReducer;
+import preprocess.GraphReorderer;
+import preprocess.ReducedGraph;
+import preprocess.ReorderedGraph;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * This class is responsible for executing Ford-Fulkerson, Scaling-Ford-Fulkerson and Preflow-Push algorithms on multiple .txt files
@@ -12,69 +28,221 @@ import java.io.File;
  */
 public class BulkAlgorithmExecutor {
     /**
-     * Recursively searches for .txt files within the specified folder and executes
-     * algorithms on each file found.
+     * Estimated heap bytes needed per byte of a graph file while it is solved: the graph, one residual graph and
+     * headroom for the work of the algorithms.
+     */
+    private static final int HEAP_BYTES_PER_FILE_BYTE = 40;
+
+    /**
+     * Recursively searches for .txt files within the specified folder.
      *
-     * @param folder The folder to search for .txt files.
-     * @throws Exception If there's an issue while executing the algorithms.
+     * @param folder   The folder to search for .txt files.
+     * @param txtFiles The list the files found are added to.
      */
-    private static void searchTxtFiles(File folder) throws Exception {
+    private static void searchTxtFiles(File folder, List<File> txtFiles) {
         File[] files = folder.listFiles();
         if (files != null) {
             for (File file : files) {
                 if (file.isDirectory()) {
-                    searchTxtFiles(file); // Recursively search subfolders
+                    searchTxtFiles(file, txtFiles); // Recursively search subfolders
                 } else if (file.isFile() && file.getName().toLowerCase().endsWith(".txt")) {
-                    executeAlgorithm(file.getAbsolutePath());
+                    txtFiles.add(file);
                 }
             }
         }
     }
 
+    /**
+     * Executes the algorithms on all files as a pipeline: one thread parses the files in order while a pool of
+     * workers solves the graphs already parsed. A file is only parsed once the heap estimated for it is free, so
+     * several large graphs are never in memory together beyond the memory limit. The output of every file is
+     * printed as a whole and in the order of the files, and the measurements are written in the same order.
+     *
+     * @param folder  The folder the files were found in; graphs are named by their path within it.
+     * @param files   The graph files.
+     * @param options Options controlling how each graph is prepared and how many workers solve graphs.
+     * @throws Exception If there's an issue while executing the algorithms.
+     */
+    private static void executeAlgorithms(File folder, List<File> files, ExecutorOptions options) throws Exception {
+        long memoryLimit = options.memoryLimit > 0 ? options.memoryLimit * 1024 * 1024
+                : Runtime.getRuntime().maxMemory() / 4 * 3;
+        int totalKilobytes = (int) Math.min(Integer.MAX_VALUE, memoryLimit / 1024);
+        Semaphore memory = new Semaphore(totalKilobytes, true);
+
+        ExecutorService parser = Executors.newSingleThreadExecutor();
+        ExecutorService workers = Executors.newFixedThreadPool(options.workers);
+        try {
+            List<Future<Future<FileRun>>> runs = new ArrayList<>();
+            for (File file : files) {
+                long estimate = file.length() * HEAP_BYTES_PER_FILE_BYTE / 1024 + 1;
+                int kilobytes = (int) Math.min(totalKilobytes, estimate);
+                String graphName = folder.toPath().relativize(file.toPath()).toString();
+                runs.add(parser.submit(() -> {
+                    memory.acquire(kilobytes);
+                    try {
+                        SimpleGraph graph = new SimpleGraph();
+                        GraphLoadEvent loadEvent = GraphLoadEvent.isRecorded() ? new GraphLoadEvent() : null;
+                        if (loadEvent != null) {
+                            loadEvent.begin();
+                        }
+                        long load_startTime = System.nanoTime();
+                        GraphInput.LoadSimpleGraph(graph, file.getAbsolutePath());
+                        long loadNanos = System.nanoTime() - load_startTime;
+                        if (loadEvent != null && loadEvent.shouldCommit()) {
+                            loadEvent.setGraph(file.getAbsolutePath(), graph.numVertices(), graph.numEdges());
+                            loadEvent.commit();
+                        }
+                        return workers.submit(() -> {
+                            try {
+                                FileRun run = new FileRun();
+                                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                                executeAlgorithm(file.getAbsolutePath(), graphName, graph, loadNanos, options,
+                                        new PrintStream(output, true), run.measurements);
+                                run.output = output.toString();
+                                return run;
+                            } finally {
+                                memory.release(kilobytes);
+                            }
+                        });
+                    } catch (Exception e) {
+                        memory.release(kilobytes);
+                        throw e;
+                    }
+                }));
+            }
+
+            List<Measurement> measurements = new ArrayList<>();
+            for (Future<Future<FileRun>> run : runs) {
+                FileRun fileRun = await(await(run));
+                System.out.print(fileRun.output);
+                measurements.addAll(fileRun.measurements);
+            }
+            options.writeMeasurements(measurements);
+        } finally {
+            parser.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the result of a pipeline stage.
+     *
+     * @param future The result of the stage.
+     * @param <T>    The type of the result.
+     * @return The result.
+     * @throws Exception The exception the stage failed with.
+     */
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
     /**
      * Executes Ford-Fulkerson, Scaling-Ford-Fulkerson and Preflow-Push algorithms on the specified file path.
      *
-     * @param filePath The path of the file containing the graph data.
+     * @param filePath     The path of the file containing the graph data.
+     * @param graphName    The name of the graph in the measurements.
+     * @param graph        The graph loaded from the file.
+     * @param loadNanos    The time it took to load the graph in nanoseconds.
+     * @param options      Options controlling how the graph is prepared.
+     * @param out          The stream the results are printed to.
+     * @param measurements The list the measurements of the algorithms are added to.
      * @throws Exception If there's an issue while executing the algorithms.
      */
-    private static void executeAlgorithm(String filePath) throws Exception {
-        SimpleGraph graph = new SimpleGraph();
-        GraphInput.LoadSimpleGraph(graph, filePath);
-        System.out.println(filePath);
-        System.out.println("Vertices: " + graph.numVertices());
-        System.out.println("Edges: " + graph.numEdges());
-
-
-        System.out.println("Executing Ford Fulkerson");
-        FordFulkerson fordFulkerson = new FordFulkerson();
-        long ff_startTime = System.currentTimeMillis();
-        double ff_maxFlow = fordFulkerson.getMaxFlow(graph);
-        long ff_endTime = System.currentTimeMillis();
-        long ff_duration = ff_endTime - ff_startTime;
-        System.out.println(" Max flow value is: " + ff_maxFlow + " computed in " + ff_duration + " ms");
-
-        System.out.println("Executing Scaling Ford Fulkerson");
-        ScalingFordFulkerson scalingFordFulkerson = new ScalingFordFulkerson();
-        long sff_startTime = System.currentTimeMillis();
-        double sff_maxFlow = scalingFordFulkerson.getMaxFlow(graph);
-        long sff_endTime = System.currentTimeMillis();
-        long sff_duration = sff_endTime - sff_startTime;
-        System.out.println(" Max flow value is: " + sff_maxFlow + " computed in " + sff_duration + " ms");
+    private static void executeAlgorithm(String filePath, String graphName, SimpleGraph graph, long loadNanos,
+            ExecutorOptions options, PrintStream out, List<Measurement> measurements) throws Exception {
+        out.println(filePath);
+        out.println("Vertices: " + graph.numVertices());
+        out.println("Edges: " + graph.numEdges());
+
+        ReducedGraph reducedGraph = null;
+        if (options.reduce) {
+            reducedGraph = new GraphReducer().reduce(graph);
+            graph = reducedGraph.getGraph();
+            out.println("Reduced to vertices: " + graph.numVertices() + ", edges: " + graph.numEdges()
+                    + " (pruned " + reducedGraph.getPrunedVertices() + ", contracted "
+                    + reducedGraph.getContractedVertices() + ", merged " + reducedGraph.getMergedEdges() + ")");
+        }
+        if (options.ordering != null) {
+            ReorderedGraph reorderedGraph = new GraphReorderer().reorder(graph, options.ordering);
+            graph = reorderedGraph.getGraph();
+            out.println("Reordered vertices (" + options.ordering + "), average edge span "
+                    + reorderedGraph.getOriginalEdgeSpan() + " -> " + reorderedGraph.getEdgeSpan());
+        }
+
+
+        if (options.cutTree) {
+            GomoryHuTreeBuilder treeBuilder = new GomoryHuTreeBuilder();
+            long tree_startTime = System.currentTimeMillis();
+            GomoryHuTree cutTree = treeBuilder.build(graph);
+            long tree_endTime = System.currentTimeMillis();
+            long tree_duration = tree_endTime - tree_startTime;
+            cutTree.save(filePath + ".cuttree");
+            out.println("Cut tree written to " + filePath + ".cuttree computed in " + tree_duration + " ms ("
+                    + treeBuilder.getRecomputedFlows() + " flows recomputed)");
+        }
+
+        if (options.portfolio) {
+            out.println("Executing portfolio");
+            PortfolioSolver portfolioSolver = new PortfolioSolver();
+            long portfolio_startTime = System.currentTimeMillis();
+            double portfolio_maxFlow = portfolioSolver.getMaxFlow(graph);
+            long portfolio_endTime = System.currentTimeMillis();
+            long portfolio_duration = portfolio_endTime - portfolio_startTime;
+            out.println(" Winner: " + portfolioSolver.getWinner() + " in " + portfolioSolver.getWinnerTime()
+                + " ms");
+            out.println(
+                " Max flow value is: " + portfolio_maxFlow + " computed in " + portfolio_duration + " ms");
+            return;
+        }
+
+        if (options.auto) {
+            out.println("Executing selected algorithm");
+            SolverSelector solverSelector = new SolverSelector();
+            long auto_startTime = System.currentTimeMillis();
+            double auto_maxFlow = solverSelector.getMaxFlow(graph);
+            long auto_endTime = System.currentTimeMillis();
+            long auto_duration = auto_endTime - auto_startTime;
+            out.println(" Graph profile: " + solverSelector.getProfile());
+            out.println(" Selected " + solverSelector.getSelected() + " (" + solverSelector.getReason() + ")");
+            out.println(" Max flow value is: " + auto_maxFlow + " computed in " + auto_duration + " ms");
+            return;
+        }
+
+        out.println("Executing Ford Fulkerson");
+        measurements.add(options.measure(graphName, graph, reducedGraph, loadNanos,
+                SolverSelector.FORD_FULKERSON, out));
+
+        out.println("Executing Scaling Ford Fulkerson");
+        measurements.add(options.measure(graphName, graph, reducedGraph, loadNanos,
+                SolverSelector.SCALING_FORD_FULKERSON, out));
         
-		System.out.println("Executing PreFlowPush");
-		PreFlowPush preFlowPush = new PreFlowPush();
-		long pfp_startTime = System.currentTimeMillis();
-		double pfp_maxFlow = preFlowPush.calculateMaxFlow(graph);
-		long pfp_endTime = System.currentTimeMillis();
-		long pfp_duration = pfp_endTime - pfp_startTime;
-		System.out.println(" Max flow value is: " + pfp_maxFlow + " computed in " + pfp_duration + " ms");
+		out.println("Executing PreFlowPush");
+		measurements.add(options.measure(graphName, graph, reducedGraph, loadNanos,
+				SolverSelector.PREFLOW_PUSH, out));
 
     }
+
+    /**
+     * The printed output and the measurements of one file.
+     */
+    private static class FileRun {
+        String output;
+        List<Measurement> measurements = new ArrayList<>();
+    }
+
     public static void main(String[] args) throws Exception {
         String folderPath = args[0];
+        ExecutorOptions options = ExecutorOptions.parse(args, 1);
         File folder = new File(folderPath);
         if(folder.exists() && folder.isDirectory()){
-            searchTxtFiles(folder);
+            List<File> files = new ArrayList<>();
+            searchTxtFiles(folder, files);
+            options.startProgressLog();
+            executeAlgorithms(folder, files, options);
         }else{
             System.err.println("folder path is invalid: "+folderPath);
         }
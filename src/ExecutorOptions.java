@@ -0,0 +1,292 @@
+import algorithms.MaxFlowSolver;
+import algorithms.ScalingFordFulkerson;
+import algorithms.SolveBudget;
+import algorithms.SolverSelector;
+import benchmark.Measurement;
+import benchmark.ResultWriter;
+import graph.SimpleGraph;
+import model.FlowResult;
+import model.FlowVerifier;
+import monitoring.SolveMonitor;
+import preprocess.ReducedGraph;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Options shared by {@link AlgorithmExecutor} and {@link BulkAlgorithmExecutor}, given on the command line
+ * after the file or folder path.
+ */
+public class ExecutorOptions {
+	/** Whether to reduce the graph before running the algorithms. */
+	boolean reduce;
+
+	/** Vertex ordering applied before running the algorithms, or null to keep the input order. */
+	String ordering;
+
+	/** Whether to run only the algorithm picked by {@link algorithms.SolverSelector}. */
+	boolean auto;
+
+	/** Whether to race all algorithms with {@link algorithms.PortfolioSolver} and report the first result. */
+	boolean portfolio;
+
+	/** Time each algorithm may take in milliseconds, or 0 for no limit. */
+	long timeLimit;
+
+	/** Number of augmentations, pushes or relabels each algorithm may take, or 0 for no limit. */
+	long maxWork;
+
+	/** Relative error allowed in the Scaling Ford-Fulkerson result, or 0 for the exact maximum flow. */
+	double tolerance;
+
+	/** Whether to print the counters and timings of every algorithm run. */
+	boolean statistics;
+
+	/** Number of runs of every algorithm before the measured runs. */
+	int warmup;
+
+	/** Number of measured runs of every algorithm. */
+	int runs = 1;
+
+	/** Whether to measure the retained size of every algorithm's graph representation and its peak heap. */
+	boolean heap;
+
+	/** File the measurements are written to as CSV, or null. */
+	String csvPath;
+
+	/** File the measurements are written to as JSON, or null. */
+	String jsonPath;
+
+	/** Number of graphs {@link BulkAlgorithmExecutor} solves at the same time. */
+	int workers = 1;
+
+	/**
+	 * Heap in megabytes {@link BulkAlgorithmExecutor} may fill with graphs, or 0 for three quarters of the maximum
+	 * heap.
+	 */
+	long memoryLimit;
+
+	/** Whether to build the Gomory-Hu cut tree of the graph and write it next to the input file. */
+	boolean cutTree;
+
+	/** Whether to check the flow every algorithm finds, and the cut proving it maximum. */
+	boolean verify;
+
+	/** Seconds between two progress reports of the running algorithms, or 0 for none. */
+	long progressSeconds;
+
+	/**
+	 * Parses the options starting at the given position of the command-line arguments.
+	 * <ul>
+	 * <li>-reduce: reduce the graph before solving</li>
+	 * <li>-order bfs|rcm: renumber the vertices before solving</li>
+	 * <li>-auto: run only the algorithm that is likely to be fastest on the graph</li>
+	 * <li>-portfolio: run all algorithms at the same time and keep the first result</li>
+	 * <li>-timelimit ms: stop each algorithm after the given time and report the bounds it reached</li>
+	 * <li>-maxwork steps: stop each algorithm after the given number of steps and report the bounds it reached</li>
+	 * <li>-approx fraction: let Scaling Ford-Fulkerson stop once its flow is within the fraction of the maximum</li>
+	 * <li>-stats: print the counters and timings of every algorithm run</li>
+	 * <li>-verify: check the flow of every algorithm and the cut that proves it maximum</li>
+	 * <li>-cuttree: build the cut tree of the graph and write it to the input path followed by .cuttree</li>
+	 * <li>-warmup n: run every algorithm n times before measuring</li>
+	 * <li>-runs n: measure n runs of every algorithm and report the minimum, median and 95th percentile</li>
+	 * <li>-heap: measure the retained size of the graph representation and the peak heap of every algorithm</li>
+	 * <li>-csv path: write the measurements to a CSV file</li>
+	 * <li>-json path: write the measurements to a JSON file</li>
+	 * <li>-workers n: solve up to n graphs at the same time (folders only)</li>
+	 * <li>-memory mb: heap the graphs being parsed and solved may take (folders only)</li>
+	 * <li>-progress seconds: print the progress of the running algorithms to the error output periodically</li>
+	 * </ul>
+	 *
+	 * @param args  Command-line arguments.
+	 * @param start Position of the first option.
+	 * @return The parsed options.
+	 * @throws Exception If an option is unknown or misses its value.
+	 */
+	static ExecutorOptions parse(String[] args, int start) throws Exception {
+		ExecutorOptions options = new ExecutorOptions();
+		for (int i = start; i < args.length; i++) {
+			if (args[i].equals("-reduce")) {
+				options.reduce = true;
+			} else if (args[i].equals("-auto")) {
+				options.auto = true;
+			} else if (args[i].equals("-portfolio")) {
+				options.portfolio = true;
+			} else if (args[i].equals("-stats")) {
+				options.statistics = true;
+			} else if (args[i].equals("-heap")) {
+				options.heap = true;
+			} else if (args[i].equals("-verify")) {
+				options.verify = true;
+			} else if (args[i].equals("-cuttree")) {
+				options.cutTree = true;
+			} else if (args[i].equals("-timelimit") && i + 1 < args.length) {
+				options.timeLimit = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-maxwork") && i + 1 < args.length) {
+				options.maxWork = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-approx") && i + 1 < args.length) {
+				options.tolerance = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-warmup") && i + 1 < args.length) {
+				options.warmup = Math.max(0, Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-runs") && i + 1 < args.length) {
+				options.runs = Math.max(1, Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-csv") && i + 1 < args.length) {
+				options.csvPath = args[++i];
+			} else if (args[i].equals("-json") && i + 1 < args.length) {
+				options.jsonPath = args[++i];
+			} else if (args[i].equals("-workers") && i + 1 < args.length) {
+				options.workers = Math.max(1, Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-memory") && i + 1 < args.length) {
+				options.memoryLimit = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-progress") && i + 1 < args.length) {
+				options.progressSeconds = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-order") && i + 1 < args.length) {
+				options.ordering = args[++i];
+			} else {
+				throw new Exception("Unknown option: " + args[i]);
+			}
+		}
+		return options;
+	}
+
+	/**
+	 * Starts the periodic progress report of the running algorithms, if one was
+	 * requested.
+	 */
+	void startProgressLog() {
+		if (this.progressSeconds > 0) {
+			SolveMonitor.startLogging(this.progressSeconds * 1000, System.err);
+		}
+	}
+
+	/**
+	 * Creates the budget for one run of an algorithm.
+	 *
+	 * @return A new budget with the time and work limits, or null if there are none.
+	 */
+	SolveBudget createBudget() {
+		if (this.timeLimit <= 0 && this.maxWork <= 0) {
+			return null;
+		}
+		return new SolveBudget(this.timeLimit, this.maxWork);
+	}
+
+	/**
+	 * Creates an algorithm with the configured tolerance, recording the flow on every edge if it is to be verified.
+	 * Every run gets its own instance.
+	 *
+	 * @param algorithm The name of the algorithm, as defined by {@link SolverSelector}.
+	 * @return The algorithm.
+	 * @throws Exception If the algorithm is unknown.
+	 */
+	MaxFlowSolver createSolver(String algorithm) throws Exception {
+		MaxFlowSolver solver = SolverSelector.createSolver(algorithm);
+		if (solver instanceof ScalingFordFulkerson) {
+			((ScalingFordFulkerson) solver).setTolerance(this.tolerance);
+		}
+		solver.setRecordEdgeFlows(this.verify);
+		return solver;
+	}
+
+	/**
+	 * Runs an algorithm with the configured warmup and measured runs and prints its result, the median time of a
+	 * run and, if asked for, the spread of the times, the memory use, the statistics of the algorithm and the
+	 * verification of its flow.
+	 *
+	 * @param graphName Name of the graph in the measurements.
+	 * @param graph     The graph.
+	 * @param loadNanos Time it took to read the graph file in nanoseconds.
+	 * @param algorithm The name of the algorithm, as defined by {@link SolverSelector}.
+	 * @param out       The stream the result is printed to.
+	 * @return The measurement of the runs.
+	 * @throws Exception If the algorithm is unknown or a run fails.
+	 */
+	Measurement measure(String graphName, SimpleGraph graph, long loadNanos, String algorithm, PrintStream out)
+			throws Exception {
+		return measure(graphName, graph, null, loadNanos, algorithm, out);
+	}
+
+	/**
+	 * Runs an algorithm on a graph that may have been reduced, and verifies its flow, if asked for, on the original
+	 * graph after mapping it back to the original edges.
+	 *
+	 * @param graphName    Name of the graph in the measurements.
+	 * @param graph        The graph the algorithm runs on.
+	 * @param reducedGraph The reduction the graph comes from, or null if it was not reduced.
+	 * @param loadNanos    Time it took to read the graph file in nanoseconds.
+	 * @param algorithm    The name of the algorithm, as defined by {@link SolverSelector}.
+	 * @param out          The stream the result is printed to.
+	 * @return The measurement of the runs.
+	 * @throws Exception If the algorithm is unknown or a run fails.
+	 */
+	Measurement measure(String graphName, SimpleGraph graph, ReducedGraph reducedGraph, long loadNanos,
+			String algorithm, PrintStream out) throws Exception {
+		Measurement measurement = Measurement.measure(graphName, graph, loadNanos, () -> createSolver(algorithm),
+				this::createBudget, this.warmup, this.runs, this.heap);
+		out.println(" Max flow value is: " + measurement.getResult() + " computed in "
+				+ measurement.getTotalNanos(50) / 1000000 + " ms");
+		if (this.runs > 1) {
+			out.println(" " + measurement);
+		}
+		if (this.heap) {
+			out.println(String.format(" allocated %.1f MB per run, representation retains %.1f MB, peak heap %.1f MB",
+					measurement.getAllocatedBytes(50) / 1048576.0, measurement.getRetainedBytes() / 1048576.0,
+					measurement.getPeakHeapBytes() / 1048576.0));
+		}
+		if (this.statistics) {
+			out.println(" " + measurement.getStatistics());
+		}
+		if (this.verify) {
+			verify(graph, reducedGraph, measurement.getResult(), out);
+		}
+		return measurement;
+	}
+
+	/**
+	 * Checks the flow an algorithm found on every edge and, if it claims to be maximum, the cut that proves it, and
+	 * prints the outcome. The flow on a reduced graph is mapped back and checked on the original graph. A wrong
+	 * flow is reported without stopping the other algorithms and graphs.
+	 *
+	 * @param graph        The graph the algorithm ran on.
+	 * @param reducedGraph The reduction the graph comes from, or null if it was not reduced.
+	 * @param result       The result of the algorithm, with the flow on every edge.
+	 * @param out          The stream the outcome is printed to.
+	 */
+	private void verify(SimpleGraph graph, ReducedGraph reducedGraph, FlowResult result, PrintStream out) {
+		long startTime = System.nanoTime();
+		try {
+			double[] flows = result.getEdgeFlows();
+			if (reducedGraph != null) {
+				flows = reducedGraph.expandFlow(graph, flows);
+				graph = reducedGraph.getOriginalGraph();
+			}
+			double cut = FlowVerifier.create(graph).verify(flows, result.getFlow(), result.isPreflow(),
+					result.isOptimal());
+			long duration = (System.nanoTime() - startTime) / 1000000;
+			String target = reducedGraph != null ? " on the original graph" : "";
+			if (result.isOptimal()) {
+				out.println(" Verified maximum flow" + target + " against a cut of capacity " + cut + " in "
+						+ duration + " ms");
+			} else {
+				out.println(" Verified feasible flow" + target + " in " + duration + " ms");
+			}
+		} catch (Exception e) {
+			out.println(" Verification FAILED: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the measurements to the CSV and JSON files that were asked for.
+	 *
+	 * @param measurements The measurements of all algorithms and graphs.
+	 * @throws Exception If a file cannot be written.
+	 */
+	void writeMeasurements(List<Measurement> measurements) throws Exception {
+		if (this.csvPath != null) {
+			ResultWriter.writeCsv(measurements, this.csvPath);
+		}
+		if (this.jsonPath != null) {
+			ResultWriter.writeJson(measurements, this.jsonPath);
+		}
+	}
+}
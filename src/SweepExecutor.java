@@ -0,0 +1,218 @@
+import Common.BlockWriter;
+import algorithms.SolverSelector;
+import benchmark.GraphFamilies;
+import benchmark.Measurement;
+import graph.SimpleGraph;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the algorithms on a grid of generated graphs without going through files. Every graph is generated by
+ * {@link GraphFamilies} with the generator of its family in src/graph-generation straight into a
+ * {@link SimpleGraph}, the same graph that reading the file the generator writes with the same parameters and seed
+ * would give, and optionally also written to a file. The time it took to generate the graph is reported where the
+ * executors report the time to read the file.
+ * <p>
+ * Besides the Random, Bipartite, FixedDegree and Mesh families, the sweep covers the stress families that slow the algorithms down:
+ * power-law RMat graphs, long Layered networks, AK networks that are hard for push-relabel and Trap networks that are
+ * hard for Ford-Fulkerson.
+ * <p>
+ * Usage: java -Xss64m -cp .:graph-generation SweepExecutor [sweep options] [options]
+ * <ul>
+ * <li>-families Random,Bipartite,FixedDegree,Mesh,RMat,Layered,AK,Trap: generator families, all by default</li>
+ * <li>-vertices 100,200: number of vertices including the source and the sink</li>
+ * <li>-density 10,50: chance in percent that a pair of vertices is connected; for FixedDegree, Layered and Trap
+ * the share of the vertices of the next layer or of the trap every vertex reaches, and not used by Mesh and AK</li>
+ * <li>-capacity 1-100,1-1000: ranges of the capacities, of the trap for Trap, and not used by AK</li>
+ * <li>-seed n: seed of the graphs, 543 by default</li>
+ * <li>-threads n: threads generating a graph, all processors by default</li>
+ * <li>-solvers names: algorithms to run, as named by {@link SolverSelector}, all by default</li>
+ * <li>-write folder: also write every graph to a file in the folder</li>
+ * </ul>
+ * followed by the options of {@link ExecutorOptions} that measure, check and record the algorithms.
+ */
+public class SweepExecutor {
+	private List<String> families = Arrays.asList(GraphFamilies.RANDOM, GraphFamilies.BIPARTITE,
+			GraphFamilies.FIXED_DEGREE, GraphFamilies.MESH, GraphFamilies.RMAT, GraphFamilies.LAYERED,
+			GraphFamilies.AK, GraphFamilies.TRAP);
+	private int[] vertices = { 100, 200 };
+	private double[] densities = { 10, 50 };
+	private int[][] capacities = { { 1, 100 } };
+	private long seed = 543;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private List<String> solvers = Arrays.asList(SolverSelector.FORD_FULKERSON,
+			SolverSelector.SCALING_FORD_FULKERSON, SolverSelector.PREFLOW_PUSH, SolverSelector.NETWORK_PREFLOW_PUSH);
+	private File folder;
+	private ExecutorOptions options;
+
+	/**
+	 * Main method that runs the algorithms on every graph of the grid.
+	 *
+	 * @param args Command-line arguments: the sweep options followed by the options described in
+	 *             {@link ExecutorOptions}.
+	 * @throws Exception If a graph cannot be generated or an algorithm fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		SweepExecutor sweep = new SweepExecutor();
+		sweep.parse(args);
+		sweep.options.startProgressLog();
+		List<Measurement> measurements = new ArrayList<>();
+		sweep.run(measurements);
+		sweep.options.writeMeasurements(measurements);
+	}
+
+	/**
+	 * Parses the sweep options and passes the others on to {@link ExecutorOptions}.
+	 *
+	 * @param args Command-line arguments.
+	 * @throws Exception If an option is unknown, misses its value or prepares the graphs, which the sweep does not
+	 *                   support.
+	 */
+	private void parse(String[] args) throws Exception {
+		List<String> rest = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			boolean sweepOption = Arrays.asList("-families", "-vertices", "-density", "-capacity", "-seed", "-threads",
+					"-solvers", "-write").contains(option);
+			if (!sweepOption) {
+				rest.add(option);
+				continue;
+			}
+			if (i + 1 >= args.length) {
+				throw new Exception("Option " + option + " needs a value");
+			}
+			String value = args[++i];
+			if (option.equals("-families")) {
+				this.families = Arrays.asList(value.split(","));
+			} else if (option.equals("-vertices")) {
+				this.vertices = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+			} else if (option.equals("-density")) {
+				this.densities = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+			} else if (option.equals("-capacity")) {
+				String[] ranges = value.split(",");
+				this.capacities = new int[ranges.length][];
+				for (int r = 0; r < ranges.length; r++) {
+					String[] bounds = ranges[r].split("-");
+					if (bounds.length != 2 || Integer.parseInt(bounds[1]) < Integer.parseInt(bounds[0])) {
+						throw new Exception("Capacity range " + ranges[r] + " is not of the form min-max");
+					}
+					this.capacities[r] = new int[] { Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) };
+				}
+			} else if (option.equals("-seed")) {
+				this.seed = Long.parseLong(value);
+			} else if (option.equals("-threads")) {
+				this.threads = BlockWriter.parseThreads(value);
+			} else if (option.equals("-solvers")) {
+				this.solvers = Arrays.asList(value.split(","));
+			} else {
+				this.folder = new File(value);
+				if (!this.folder.isDirectory() && !this.folder.mkdirs()) {
+					throw new Exception("Cannot create the folder " + value);
+				}
+			}
+		}
+		this.options = ExecutorOptions.parse(rest.toArray(new String[0]), 0);
+		if (this.options.reduce || this.options.ordering != null || this.options.auto || this.options.portfolio
+				|| this.options.cutTree) {
+			throw new Exception("The sweep only measures the algorithms; -reduce, -order, -auto, -portfolio and"
+					+ " -cuttree need a graph file");
+		}
+		for (int size : this.vertices) {
+			if (size < 4) {
+				throw new Exception("Graphs of the sweep need at least 4 vertices but got " + size);
+			}
+		}
+	}
+
+	/**
+	 * Generates every graph of the grid and runs the algorithms on it.
+	 *
+	 * @param measurements The list the measurements of the algorithms are added to.
+	 * @throws Exception If a graph cannot be generated or an algorithm fails.
+	 */
+	private void run(List<Measurement> measurements) throws Exception {
+		for (String family : this.families) {
+			// Meshes and AK networks have no density and AK networks no capacities, so they are generated once for
+			// all of them
+			boolean density = !family.equals(GraphFamilies.MESH) && !family.equals(GraphFamilies.AK);
+			boolean capacity = !family.equals(GraphFamilies.AK);
+			double[] familyDensities = density ? this.densities : new double[] { 0 };
+			int[][] familyCapacities = capacity ? this.capacities : new int[][] { { 0, 0 } };
+			for (int size : this.vertices) {
+				for (double d : familyDensities) {
+					for (int[] c : familyCapacities) {
+						String name = family + "-v" + size + (density ? "-d" + formatNumber(d) : "")
+								+ (capacity ? "-c" + c[0] + "-" + c[1] : "");
+						solveGraph(name, family, size, d, c[0], c[1], measurements);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generates one graph of the grid and runs the algorithms on it.
+	 *
+	 * @param name         The name of the graph.
+	 * @param family       The generator family.
+	 * @param size         Number of vertices including the source and the sink.
+	 * @param density      Chance in percent that a pair of vertices is connected.
+	 * @param minCapacity  Lower bound on the capacities.
+	 * @param maxCapacity  Upper bound on the capacities.
+	 * @param measurements The list the measurements of the algorithms are added to.
+	 * @throws Exception If the graph cannot be generated or an algorithm fails.
+	 */
+	private void solveGraph(String name, String family, int size, double density, int minCapacity, int maxCapacity,
+			List<Measurement> measurements) throws Exception {
+		long generate_startTime = System.nanoTime();
+		SimpleGraph graph = generate(name, family, size, density, minCapacity, maxCapacity);
+		long generateNanos = System.nanoTime() - generate_startTime;
+		System.out.println(name);
+		System.out.println("Vertices: " + graph.numVertices());
+		System.out.println("Edges: " + graph.numEdges());
+		System.out.println("Generated in " + generateNanos / 1000000 + " ms"
+				+ (this.folder == null ? "" : " and written to " + new File(this.folder, name + ".txt")));
+
+		for (String solverName : this.solvers) {
+			System.out.println("Executing " + solverName);
+			measurements.add(this.options.measure(name, graph, generateNanos, solverName, System.out));
+		}
+	}
+
+	/**
+	 * Generates a graph with the generator of its family, in memory and, if a folder was given, also to a file.
+	 *
+	 * @param name        The name of the graph, used for its file.
+	 * @param family      The generator family.
+	 * @param size        Number of vertices including the source and the sink.
+	 * @param density     Chance in percent that a pair of vertices is connected.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @return The graph.
+	 * @throws Exception If the family is unknown or the file cannot be written.
+	 */
+	private SimpleGraph generate(String name, String family, int size, double density, int minCapacity,
+			int maxCapacity) throws Exception {
+		if (this.folder == null) {
+			return GraphFamilies.create(family, size, density, minCapacity, maxCapacity, this.seed, this.threads, null);
+		}
+		try (OutputStream output = BlockWriter.open(new File(this.folder, name + ".txt").getPath())) {
+			return GraphFamilies.create(family, size, density, minCapacity, maxCapacity, this.seed, this.threads,
+					output);
+		}
+	}
+
+	/**
+	 * Formats a number for a graph name, without a fraction if it is whole.
+	 *
+	 * @param value The number.
+	 * @return The formatted number.
+	 */
+	private static String formatNumber(double value) {
+		return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+	}
+}
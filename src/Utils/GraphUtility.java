@@ -3,7 +3,10 @@ package Utils;
 import model.ResidualEdge;
 import model.ResidualGraph;
 import model.ResidualVertex;
+import model.SolverStatistics;
 
+import java.util.ArrayDeque;
+import java.util.Hashtable;
 import java.util.LinkedList;
 
 /**
@@ -42,6 +45,27 @@ public class GraphUtility {
 	 */
 	public static LinkedList<ResidualEdge> findPathToSink(ResidualGraph graph, ResidualVertex source,
 			boolean isScalingFF, double minimumResidualCapacity) {
+		return findPathToSink(graph, source, isScalingFF, minimumResidualCapacity, null);
+	}
+
+	/**
+	 * Finds a path from the given source vertex to the sink vertex in the
+	 * ResidualGraph, counting the edges looked at.
+	 *
+	 * @param graph                   The ResidualGraph
+	 * @param source                  The source ResidualVertex from which path
+	 *                                needs to be found
+	 * @param isScalingFF             A boolean flag indicating if it's using
+	 *                                scaling Ford-Fulkerson algorithm
+	 * @param minimumResidualCapacity The minimum residual capacity for edges in the
+	 *                                path (for scaling FF)
+	 * @param statistics              The statistics in which the scanned edges are
+	 *                                counted, or null
+	 * @return A LinkedList of ResidualEdges representing the found path, or null if
+	 *         no path exists from the source to the sink
+	 */
+	public static LinkedList<ResidualEdge> findPathToSink(ResidualGraph graph, ResidualVertex source,
+			boolean isScalingFF, double minimumResidualCapacity, SolverStatistics statistics) {
 		// Mark the source vertex as visited to avoid revisiting
 		source.markVisited();
 
@@ -54,6 +78,9 @@ public class GraphUtility {
 
 		// Iterate through edges of the source vertex
 		for (ResidualEdge edge : source.getEdges()) {
+			if (statistics != null) {
+				statistics.countArcsScanned(1);
+			}
 			double residualCapacity = edge.getResidualCapacity();
 			ResidualVertex destination = edge.getDestination();
 
@@ -62,7 +89,7 @@ public class GraphUtility {
 				// visited
 				if (residualCapacity > 0 && !destination.isVisited()) {
 					// Recursively find a path to the sink starting from the destination vertex
-					LinkedList<ResidualEdge> path = findPathToSink(graph, destination, false, 0);
+					LinkedList<ResidualEdge> path = findPathToSink(graph, destination, false, 0, statistics);
 					// If a path is found, add the current edge to the path and return it
 					if (path != null) {
 						path.addFirst(edge);
@@ -83,7 +110,7 @@ public class GraphUtility {
 						// If the destination is not the sink and hasn't been visited yet
 						// Recursively find a path to the sink starting from the destination vertex
 						LinkedList<ResidualEdge> path = findPathToSink(graph, destination, true,
-								minimumResidualCapacity);
+								minimumResidualCapacity, statistics);
 
 						// If a path is found, add the current edge to the path and return it
 						if (path != null) {
@@ -149,4 +176,112 @@ public class GraphUtility {
 	public static void resetGraphVisitedStatus(ResidualGraph residualGraph) {
 		residualGraph.clearVisitedStatus();
 	}
+
+	/**
+	 * Calculates an upper bound on the maximum flow from the capacities alone. It
+	 * is the smallest of four cut bounds:
+	 * <ul>
+	 * <li>the total capacity leaving the source,</li>
+	 * <li>the total capacity entering the sink,</li>
+	 * <li>the sum over the neighbors v of the source of min(c(s, v), capacity
+	 * leaving v), since the flow on (s, v) must leave v again,</li>
+	 * <li>the sum over the neighbors u of the sink of min(c(u, t), capacity
+	 * entering u).</li>
+	 * </ul>
+	 * Augmenting path algorithms can stop as soon as their flow reaches the bound
+	 * and skip the final search that fails to find a path.
+	 *
+	 * @param graph The ResidualGraph before any flow is sent
+	 * @return Upper bound on the value of the maximum flow
+	 */
+	public static double calculateFlowUpperBound(ResidualGraph graph) {
+		ResidualVertex source = graph.getSource();
+		ResidualVertex sink = graph.getSink();
+
+		// Capacity entering and leaving every vertex, in one pass over the edges
+		Hashtable<ResidualVertex, Double> incoming = new Hashtable<>();
+		Hashtable<ResidualVertex, Double> outgoing = new Hashtable<>();
+		for (ResidualEdge edge : graph.getEdges()) {
+			incoming.merge(edge.getDestination(), edge.getCapacity(), Double::sum);
+			outgoing.merge(edge.getSource(), edge.getCapacity(), Double::sum);
+		}
+
+		double sourceBound = 0;
+		double sinkBound = 0;
+		double sourceLayerBound = 0;
+		double sinkLayerBound = 0;
+		for (ResidualEdge edge : graph.getEdges()) {
+			if (edge.getSource() == source) {
+				sourceBound += edge.getCapacity();
+				ResidualVertex next = edge.getDestination();
+				sourceLayerBound += next == sink ? edge.getCapacity()
+						: Math.min(edge.getCapacity(), outgoing.getOrDefault(next, 0.0));
+			}
+			if (edge.getDestination() == sink) {
+				sinkBound += edge.getCapacity();
+				ResidualVertex previous = edge.getSource();
+				sinkLayerBound += previous == source ? edge.getCapacity()
+						: Math.min(edge.getCapacity(), incoming.getOrDefault(previous, 0.0));
+			}
+		}
+
+		return Math.min(Math.min(sourceBound, sinkBound), Math.min(sourceLayerBound, sinkLayerBound));
+	}
+
+	/**
+	 * Calculates the capacity of the cut around the vertices the source reaches in
+	 * the residual graph. While the current flow is not maximum the sink may be
+	 * reachable; there is no cut then and the given bound is returned.
+	 *
+	 * @param graph      The ResidualGraph holding the current flow or preflow
+	 * @param knownBound An upper bound known beforehand, such as the one from
+	 *                   {@link #calculateFlowUpperBound(ResidualGraph)}
+	 * @return The smaller of the cut capacity and the known bound
+	 */
+	public static double calculateCutUpperBound(ResidualGraph graph, double knownBound) {
+		return calculateCutUpperBound(graph, knownBound, 0);
+	}
+
+	/**
+	 * Calculates the capacity of the cut around the vertices the source reaches in
+	 * the residual graph over edges with at least the given residual capacity. At
+	 * the end of a phase of scaling Ford-Fulkerson the sink is not reachable that
+	 * way, so this gives an upper bound on the maximum flow after every phase.
+	 *
+	 * @param graph                   The ResidualGraph holding the current flow or
+	 *                                preflow
+	 * @param knownBound              An upper bound known beforehand
+	 * @param minimumResidualCapacity The smallest residual capacity of the edges
+	 *                                followed, or 0 to follow every edge with
+	 *                                residual capacity
+	 * @return The smaller of the cut capacity and the known bound
+	 */
+	public static double calculateCutUpperBound(ResidualGraph graph, double knownBound,
+			double minimumResidualCapacity) {
+		ArrayDeque<ResidualVertex> queue = new ArrayDeque<>();
+		graph.getSource().markVisited();
+		queue.add(graph.getSource());
+		while (!queue.isEmpty()) {
+			for (ResidualEdge edge : queue.poll().getEdges()) {
+				double residualCapacity = edge.getResidualCapacity();
+				if (residualCapacity > 0 && residualCapacity >= minimumResidualCapacity
+						&& !edge.getDestination().isVisited()) {
+					edge.getDestination().markVisited();
+					queue.add(edge.getDestination());
+				}
+			}
+		}
+
+		double cut = knownBound;
+		if (!graph.getSink().isVisited()) {
+			cut = 0;
+			for (ResidualEdge edge : graph.getEdges()) {
+				if (edge.getSource().isVisited() && !edge.getDestination().isVisited()) {
+					cut += edge.getCapacity();
+				}
+			}
+		}
+		resetGraphVisitedStatus(graph);
+		return Math.min(cut, knownBound);
+	}
 }
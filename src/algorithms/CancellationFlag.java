@@ -0,0 +1,38 @@
+package algorithms;
+
+/**
+ * A flag that asks running max flow computations to stop. Solvers that are
+ * given a flag check it between augmentations or pushes and give up with an
+ * exception once it is set, so the thread running them becomes free again.
+ */
+public class CancellationFlag {
+	private volatile boolean cancelled;
+
+	/**
+	 * Asks the computations watching this flag to stop.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+	}
+
+	/**
+	 * Whether the computations watching this flag were asked to stop.
+	 *
+	 * @return True if the flag is set.
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Stops the calling computation if the flag is set.
+	 *
+	 * @param solver The name of the calling algorithm, for the message.
+	 * @throws Exception If the flag is set.
+	 */
+	public void check(String solver) throws Exception {
+		if (this.cancelled) {
+			throw new Exception(solver + " was cancelled");
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package algorithms;
+
+import model.FlowNetwork;
+import model.FlowQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Answers many max flow queries against one {@link FlowNetwork} at the same
+ * time. The network is shared by all queries; each query only allocates the
+ * arrays of its own computation in {@link NetworkPreFlowPush}.
+ */
+public class FlowQueryExecutor {
+	private int threads;
+
+	/**
+	 * Constructor to create an executor that uses all available processors.
+	 */
+	public FlowQueryExecutor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor to create an executor with the given number of threads.
+	 *
+	 * @param threads Number of queries answered at the same time.
+	 */
+	public FlowQueryExecutor(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Computes the maximum flow of every query.
+	 *
+	 * @param network The flow network shared by the queries.
+	 * @param queries The queries to answer.
+	 * @return Maximum flow value of every query, in the order of the queries.
+	 * @throws Exception If a query fails or the computation is interrupted.
+	 */
+	public double[] calculateMaxFlows(FlowNetwork network, List<FlowQuery> queries) throws Exception {
+		NetworkPreFlowPush solver = new NetworkPreFlowPush();
+		List<Callable<Double>> tasks = new ArrayList<>();
+		for (FlowQuery query : queries) {
+			tasks.add(() -> solver.calculateMaxFlow(network, query.getSource(), query.getSink(),
+					query.getEdgeCapacities()));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, Math.max(1, queries.size())));
+		try {
+			List<Future<Double>> results = executor.invokeAll(tasks);
+			double[] flows = new double[results.size()];
+			for (int i = 0; i < flows.length; i++) {
+				try {
+					flows[i] = results.get(i).get();
+				} catch (ExecutionException e) {
+					throw new Exception("Query " + i + " failed: " + e.getCause().getMessage(), e.getCause());
+				}
+			}
+			return flows;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -5,6 +5,10 @@ import java.util.LinkedList;
 import Utils.GraphUtility;
 import graph.SimpleGraph;
 import model.*;
+import monitoring.AugmentationRecorder;
+import monitoring.RepresentationBuildEvent;
+import monitoring.SolveMonitor;
+import monitoring.SolveProgress;
 
 /**
  * This class implements the Ford-Fulkerson algorithm for calculating the
@@ -15,7 +19,53 @@ import model.*;
  *
  * @author Shriya Hireholi
  */
-public class FordFulkerson {
+public class FordFulkerson implements MaxFlowSolver {
+
+	private CancellationFlag cancellation;
+	private boolean recordEdgeFlows;
+
+	/**
+	 * Set the flag that is checked before every augmentation to stop the
+	 * computation early.
+	 *
+	 * @param cancellation The flag, or null to always run to the end.
+	 */
+	@Override
+	public void setCancellation(CancellationFlag cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	@Override
+	public void setRecordEdgeFlows(boolean recordEdgeFlows) {
+		this.recordEdgeFlows = recordEdgeFlows;
+	}
+
+	@Override
+	public String getName() {
+		return SolverSelector.FORD_FULKERSON;
+	}
+
+	@Override
+	public FlowResult solve(SimpleGraph graph, SolveBudget budget) throws Exception {
+		RepresentationBuildEvent buildEvent = RepresentationBuildEvent.isRecorded() ? new RepresentationBuildEvent()
+				: null;
+		if (buildEvent != null) {
+			buildEvent.begin();
+		}
+		long startTime = System.nanoTime();
+		ResidualGraph residualGraph = new ResidualGraph(graph);
+		long buildTime = System.nanoTime() - startTime;
+		if (buildEvent != null && buildEvent.shouldCommit()) {
+			buildEvent.setGraph(getName(), graph.numVertices(), graph.numEdges());
+			buildEvent.commit();
+		}
+		FlowResult result = getMaxFlow(residualGraph, budget);
+		if (this.recordEdgeFlows) {
+			result.setEdgeFlows(residualGraph.getEdgeFlows(), false);
+		}
+		result.getStatistics().setBuildTimeNanos(buildTime);
+		return result;
+	}
 
 	/**
 	 * This method computes the maximum flow associated with a flow network
@@ -28,12 +78,86 @@ public class FordFulkerson {
 	 * @throws Exception
 	 */
 	public double getMaxFlow(SimpleGraph graph) throws Exception {
-		ResidualGraph residualGraph = new ResidualGraph(graph);
+		return getMaxFlow(new ResidualGraph(graph));
+	}
+
+	/**
+	 * This method computes the maximum flow on an already built residual graph.
+	 * The flow found is left on the edges of the residual graph so that callers
+	 * can inspect it once the method returns. The search stops early once the
+	 * flow reaches the upper bound given by the capacities around the source and
+	 * sink, since no augmenting path can be left at that point.
+	 *
+	 * @param residualGraph - residual graph of the flow network
+	 * @return max flow value associated with the given residual graph
+	 *
+	 * @throws Exception
+	 */
+	public double getMaxFlow(ResidualGraph residualGraph) throws Exception {
+		return getMaxFlow(residualGraph, null).getFlow();
+	}
+
+	/**
+	 * This method computes the maximum flow on an already built residual graph
+	 * within the given budget. When the budget runs out the flow found so far is
+	 * returned together with the best cut capacity known as an upper bound.
+	 *
+	 * @param residualGraph - residual graph of the flow network
+	 * @param budget        - limit on the time and the number of augmentations,
+	 *                      or null for no limit
+	 * @return the flow found and an upper bound on the max flow value
+	 *
+	 * @throws Exception
+	 */
+	public FlowResult getMaxFlow(ResidualGraph residualGraph, SolveBudget budget) throws Exception {
+		SolveProgress progress = SolveMonitor.start(getName(), residualGraph.numberOfVertices(),
+				residualGraph.getEdges().size());
+		try {
+			return getMaxFlow(residualGraph, budget, progress);
+		} finally {
+			SolveMonitor.finish(progress);
+		}
+	}
+
+	/**
+	 * This method computes the maximum flow within the given budget and publishes
+	 * every augmentation to the progress of the computation.
+	 *
+	 * @param residualGraph - residual graph of the flow network
+	 * @param budget        - limit on the time and the number of augmentations,
+	 *                      or null for no limit
+	 * @param progress      - live progress of the computation
+	 * @return the flow found and an upper bound on the max flow value
+	 *
+	 * @throws Exception
+	 */
+	private FlowResult getMaxFlow(ResidualGraph residualGraph, SolveBudget budget, SolveProgress progress)
+			throws Exception {
+		long startTime = System.nanoTime();
+		SolverStatistics statistics = new SolverStatistics(getName());
 		ResidualVertex source = residualGraph.getSource();
+		double upperBound = GraphUtility.calculateFlowUpperBound(residualGraph);
+		progress.setUpperBound(upperBound);
+		double flow = 0;
+		if (budget != null) {
+			budget.start();
+		}
+		AugmentationRecorder augmentations = new AugmentationRecorder(getName(), residualGraph.numberOfVertices(),
+				residualGraph.getEdges().size(), statistics);
 		LinkedList<ResidualEdge> path;
-		// Iterate until a path from source to destination no longer exists
+		// Iterate until a path from source to destination no longer exists or the
+		// flow cannot grow any further
 		do {
-			path = GraphUtility.findPathToSink(residualGraph, source, false, 0);
+			if (this.cancellation != null) {
+				this.cancellation.check("FordFulkerson");
+			}
+			if (budget != null && budget.isExhausted()) {
+				double cut = GraphUtility.calculateCutUpperBound(residualGraph, upperBound);
+				augmentations.end(statistics);
+				statistics.setSolveTimeNanos(System.nanoTime() - startTime);
+				return new FlowResult(flow, cut, statistics.getAugmentingPaths(), statistics);
+			}
+			path = GraphUtility.findPathToSink(residualGraph, source, false, 0, statistics);
 			GraphUtility.resetGraphVisitedStatus(residualGraph);
 
 			if (path != null) {
@@ -42,10 +166,20 @@ public class FordFulkerson {
 
 				// Update the flow on the path with the bottleneck value
 				GraphUtility.updateFlowOnPath(path, bottleneck);
+				flow += bottleneck;
+				statistics.countAugmentingPath();
+				augmentations.augment(statistics, bottleneck);
+				progress.augment(bottleneck, statistics);
+				if (budget != null) {
+					budget.addWork(1);
+				}
 			}
-		} while (path != null);
+		} while (path != null && flow < upperBound);
 
 		// Return the outgoing flow from the source vertex
-		return source.calculateTotalOutgoingFlow();
+		double maxFlow = source.calculateTotalOutgoingFlow();
+		augmentations.end(statistics);
+		statistics.setSolveTimeNanos(System.nanoTime() - startTime);
+		return new FlowResult(maxFlow, maxFlow, statistics.getAugmentingPaths(), statistics);
 	}
 }
@@ -0,0 +1,238 @@
+package algorithms;
+
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+import model.FlowNetwork;
+import model.GomoryHuTree;
+import model.ResidualEdge;
+import model.ResidualGraph;
+import model.ResidualVertex;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a {@link GomoryHuTree} of a network with Gusfield's algorithm, which
+ * needs n - 1 max flow computations instead of one per pair of vertices. Cuts
+ * are symmetric only in undirected networks, so the tree is built for the
+ * network in which every edge can be used in both directions with its capacity.
+ * <p>
+ * Flow i is computed between vertex i and its current parent p(i); committing
+ * it moves the later vertices on the side of i that still point to p(i) under
+ * i. Since a flow only changes the parents of later vertices, the flows of the
+ * next vertices are computed speculatively in parallel with their current
+ * parents and committed in order; a flow whose parent changed in the meantime
+ * is computed again.
+ */
+public class GomoryHuTreeBuilder {
+	private String solver;
+	private int threads;
+	private int recomputedFlows;
+
+	/**
+	 * Constructor to create a builder that uses Network Preflow-Push, the fastest
+	 * algorithm on every kind of graph (see {@link SolverSelector}), on all
+	 * available processors. Its network is built once and shared by all flows.
+	 */
+	public GomoryHuTreeBuilder() {
+		this(SolverSelector.NETWORK_PREFLOW_PUSH, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor to create a builder with the given max flow algorithm and
+	 * number of threads.
+	 *
+	 * @param solver  One of the algorithm names defined by {@link SolverSelector}.
+	 * @param threads Number of flows computed at the same time.
+	 */
+	public GomoryHuTreeBuilder(String solver, int threads) {
+		this.solver = solver;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Get the number of flows of the last build that were computed again because
+	 * the parent of their vertex changed while they were running.
+	 *
+	 * @return Number of recomputed flows.
+	 */
+	public int getRecomputedFlows() {
+		return this.recomputedFlows;
+	}
+
+	/**
+	 * Builds the cut tree of the given network.
+	 *
+	 * @param graph The network; edge directions are ignored.
+	 * @return The cut tree of the network.
+	 * @throws Exception If a max flow computation fails.
+	 */
+	public GomoryHuTree build(SimpleGraph graph) throws Exception {
+		SimpleGraph undirected = symmetrize(graph);
+		int n = undirected.numVertices();
+		String[] names = new String[n];
+		Iterator vertexIterator = undirected.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			names[i] = (String) ((Vertex) vertexIterator.next()).getName();
+		}
+		Hashtable<String, Integer> index = new Hashtable<>();
+		for (int i = 0; i < n; i++) {
+			index.put(names[i], i);
+		}
+
+		// The network numbers the vertices in the order of the graph, like the names
+		FlowNetwork network = this.solver.equals(SolverSelector.NETWORK_PREFLOW_PUSH) ? new FlowNetwork(undirected)
+				: null;
+		int[] parent = new int[n];
+		double[] weight = new double[n];
+		this.recomputedFlows = 0;
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+		try {
+			HashMap<Integer, Future<MinCut>> running = new HashMap<>();
+			int next = 1;
+			while (next < n) {
+				// Keep the next vertices busy with flows to their current parents
+				for (int v = next; v < n && v < next + this.threads; v++) {
+					if (!running.containsKey(v)) {
+						int source = v;
+						int sink = parent[v];
+						running.put(v,
+								executor.submit(() -> calculateMinCut(undirected, network, names, index, source, sink)));
+					}
+				}
+
+				MinCut cut = running.remove(next).get();
+				if (cut.sink != parent[next]) {
+					this.recomputedFlows++;
+					continue;
+				}
+
+				weight[next] = cut.value;
+				for (int v = next + 1; v < n; v++) {
+					if (cut.sourceSide[v] && parent[v] == cut.sink) {
+						parent[v] = next;
+					}
+				}
+				next++;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return new GomoryHuTree(names, parent, weight);
+	}
+
+	/**
+	 * Computes a minimum cut between two vertices of the network.
+	 *
+	 * @param graph   The undirected network.
+	 * @param network The undirected network in the form of Network Preflow-Push,
+	 *                or null for the other algorithms.
+	 * @param names   The names of the vertices.
+	 * @param index   The position of every vertex name.
+	 * @param source  Position of the source vertex.
+	 * @param sink    Position of the sink vertex.
+	 * @return The value and the source side of the cut.
+	 * @throws Exception If the max flow computation fails.
+	 */
+	private MinCut calculateMinCut(SimpleGraph graph, FlowNetwork network, String[] names,
+			Hashtable<String, Integer> index, int source, int sink) throws Exception {
+		MinCut cut = new MinCut();
+		cut.sink = sink;
+		cut.sourceSide = new boolean[names.length];
+		if (network != null) {
+			cut.value = new NetworkPreFlowPush().calculateMinCut(network, source, sink, cut.sourceSide);
+			return cut;
+		}
+
+		ResidualGraph residualGraph = new ResidualGraph(graph, names[source], names[sink]);
+		if (this.solver.equals(SolverSelector.FORD_FULKERSON)) {
+			cut.value = new FordFulkerson().getMaxFlow(residualGraph);
+		} else if (this.solver.equals(SolverSelector.PREFLOW_PUSH)) {
+			cut.value = new PreFlowPush().calculateMaxFlow(residualGraph);
+		} else {
+			cut.value = new ScalingFordFulkerson().getMaxFlow(residualGraph);
+		}
+
+		// The source side of the cut is what the source still reaches in the residual
+		// graph of a maximum flow
+		cut.sourceSide[source] = true;
+		ArrayDeque<ResidualVertex> queue = new ArrayDeque<>();
+		queue.add(residualGraph.getSource());
+		while (!queue.isEmpty()) {
+			for (ResidualEdge edge : queue.poll().getEdges()) {
+				int head = index.get(edge.getDestination().getIdentifier());
+				if (edge.getResidualCapacity() > 0 && !cut.sourceSide[head]) {
+					cut.sourceSide[head] = true;
+					queue.add(edge.getDestination());
+				}
+			}
+		}
+		return cut;
+	}
+
+	/**
+	 * Creates the undirected version of a network as a directed network with both
+	 * directions of every edge. Edges between the same two vertices, in either
+	 * direction, are merged by adding their capacities; self loops are dropped.
+	 *
+	 * @param graph The network.
+	 * @return The network with one edge in each direction between adjacent
+	 *         vertices.
+	 */
+	private static SimpleGraph symmetrize(SimpleGraph graph) {
+		SimpleGraph undirected = new SimpleGraph();
+		Hashtable<Vertex, Integer> index = new Hashtable<>();
+		Vertex[] vertices = new Vertex[graph.numVertices()];
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			Vertex vertex = (Vertex) vertexIterator.next();
+			index.put(vertex, i);
+			vertices[i] = undirected.insertVertex(null, vertex.getName());
+		}
+
+		// Capacity between every pair of adjacent vertices, keyed by the smaller
+		// position times n plus the larger one, in order of first appearance
+		long n = vertices.length;
+		LinkedHashMap<Long, Double> capacities = new LinkedHashMap<>();
+		Iterator edgeIterator = graph.edges();
+		while (edgeIterator.hasNext()) {
+			Edge edge = (Edge) edgeIterator.next();
+			int tail = index.get(edge.getFirstEndpoint());
+			int head = index.get(edge.getSecondEndpoint());
+			if (tail == head) {
+				continue;
+			}
+			long key = Math.min(tail, head) * n + Math.max(tail, head);
+			capacities.merge(key, (double) edge.getData(), Double::sum);
+		}
+
+		for (Map.Entry<Long, Double> pair : capacities.entrySet()) {
+			Vertex first = vertices[(int) (pair.getKey() / n)];
+			Vertex second = vertices[(int) (pair.getKey() % n)];
+			double capacity = pair.getValue();
+			undirected.insertEdge(first, second, capacity, null);
+			undirected.insertEdge(second, first, capacity, null);
+		}
+		return undirected;
+	}
+
+	/**
+	 * A minimum cut between a vertex and the parent it had when the cut was
+	 * computed.
+	 */
+	private static class MinCut {
+		int sink;
+		double value;
+		boolean[] sourceSide;
+	}
+}
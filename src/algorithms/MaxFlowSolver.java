@@ -0,0 +1,47 @@
+package algorithms;
+
+import graph.SimpleGraph;
+import model.FlowResult;
+
+/**
+ * A max flow algorithm. Implementations build their own representation of the
+ * graph, compute the flow from the vertex "s" to the vertex "t" and report the
+ * time spent on each phase and the work done in the
+ * {@link model.SolverStatistics} of the result.
+ */
+public interface MaxFlowSolver {
+
+	/**
+	 * Get the name of the algorithm, as defined by {@link SolverSelector}.
+	 *
+	 * @return The name of the algorithm.
+	 */
+	String getName();
+
+	/**
+	 * Set the flag that stops the computation early.
+	 *
+	 * @param cancellation The flag, or null to always run to the end.
+	 */
+	void setCancellation(CancellationFlag cancellation);
+
+	/**
+	 * Set whether results carry the flow on every edge, for example to verify it
+	 * with {@link model.FlowVerifier}.
+	 *
+	 * @param recordEdgeFlows True to record the flow on every edge.
+	 */
+	void setRecordEdgeFlows(boolean recordEdgeFlows);
+
+	/**
+	 * Computes the maximum flow of the graph within the given budget.
+	 *
+	 * @param graph  Input graph representing the flow network.
+	 * @param budget Limit on the time and work of the computation, or null for no
+	 *               limit.
+	 * @return The flow found, an upper bound on the maximum flow value and the
+	 *         statistics of the computation.
+	 * @throws Exception If an error occurs during the computation.
+	 */
+	FlowResult solve(SimpleGraph graph, SolveBudget budget) throws Exception;
+}
@@ -0,0 +1,518 @@
+package algorithms;
+
+import graph.SimpleGraph;
+import model.FlowNetwork;
+import model.FlowResult;
+import model.SolverStatistics;
+import monitoring.GapEvent;
+import monitoring.GlobalRelabelEvent;
+import monitoring.RepresentationBuildEvent;
+import monitoring.SolveMonitor;
+import monitoring.SolveProgress;
+
+import java.util.Arrays;
+
+/**
+ * Implements the Preflow Push algorithm on a shared {@link FlowNetwork}. All
+ * the state of a computation (residual capacities, excesses, heights and the
+ * queue of active vertices) lives in arrays allocated for that computation, so
+ * one instance can answer any number of queries with different sources, sinks
+ * and capacities at the same time.
+ * <p>
+ * Active vertices are processed in FIFO order. Two heuristics keep the number
+ * of relabels down: the heights are periodically reset to the exact residual
+ * distances to the sink (global relabeling), and when no vertex is left at
+ * some height, the vertices above it are cut off from the sink (gap
+ * heuristic). Vertices that cannot reach the sink any more are not processed,
+ * so the computation ends with a maximum preflow whose value, the excess of the
+ * sink, is the maximum flow value.
+ */
+public class NetworkPreFlowPush implements MaxFlowSolver {
+	private CancellationFlag cancellation;
+	private boolean recordEdgeFlows;
+
+	/**
+	 * Set the flag that is checked before every discharge of a vertex to stop the
+	 * computation early.
+	 *
+	 * @param cancellation The flag, or null to always run to the end.
+	 */
+	@Override
+	public void setCancellation(CancellationFlag cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	@Override
+	public void setRecordEdgeFlows(boolean recordEdgeFlows) {
+		this.recordEdgeFlows = recordEdgeFlows;
+	}
+
+	@Override
+	public String getName() {
+		return SolverSelector.NETWORK_PREFLOW_PUSH;
+	}
+
+	@Override
+	public FlowResult solve(SimpleGraph graph, SolveBudget budget) throws Exception {
+		RepresentationBuildEvent buildEvent = RepresentationBuildEvent.isRecorded() ? new RepresentationBuildEvent()
+				: null;
+		if (buildEvent != null) {
+			buildEvent.begin();
+		}
+		long startTime = System.nanoTime();
+		FlowNetwork network = new FlowNetwork(graph);
+		long buildTime = System.nanoTime() - startTime;
+		if (buildEvent != null && buildEvent.shouldCommit()) {
+			buildEvent.setGraph(getName(), graph.numVertices(), graph.numEdges());
+			buildEvent.commit();
+		}
+		FlowResult result = calculateMaxFlow(network, network.getVertexId("s"), network.getVertexId("t"), null,
+				budget);
+		result.getStatistics().setBuildTimeNanos(buildTime);
+		return result;
+	}
+
+	/**
+	 * Calculates the maximum flow between two vertices of the network.
+	 *
+	 * @param network The flow network.
+	 * @param source  The id of the source vertex.
+	 * @param sink    The id of the sink vertex.
+	 * @return Maximum flow value from the source to the sink.
+	 * @throws Exception If the source and sink are the same vertex.
+	 */
+	public double calculateMaxFlow(FlowNetwork network, int source, int sink) throws Exception {
+		return calculateMaxFlow(network, source, sink, null);
+	}
+
+	/**
+	 * Calculates the maximum flow between two vertices of the network with the
+	 * capacities of its edges replaced by the given ones.
+	 *
+	 * @param network        The flow network.
+	 * @param source         The id of the source vertex.
+	 * @param sink           The id of the sink vertex.
+	 * @param edgeCapacities Capacity of every edge of the original graph, or null
+	 *                       to use the capacities of the network.
+	 * @return Maximum flow value from the source to the sink.
+	 * @throws Exception If the source and sink are the same vertex or the
+	 *                   capacities do not match the edges.
+	 */
+	public double calculateMaxFlow(FlowNetwork network, int source, int sink, double[] edgeCapacities)
+			throws Exception {
+		return calculateMaxFlow(network, source, sink, edgeCapacities, null).getFlow();
+	}
+
+	/**
+	 * Calculates the maximum flow between two vertices of the network within the
+	 * given budget. When the budget runs out, the excess that has reached the sink
+	 * is returned as the flow, and the cut around the vertices the source reaches
+	 * in the residual network as the upper bound.
+	 *
+	 * @param network        The flow network.
+	 * @param source         The id of the source vertex.
+	 * @param sink           The id of the sink vertex.
+	 * @param edgeCapacities Capacity of every edge of the original graph, or null
+	 *                       to use the capacities of the network.
+	 * @param budget         Limit on the time and the number of pushes and
+	 *                       relabels, or null for no limit.
+	 * @return The flow found and an upper bound on the maximum flow value.
+	 * @throws Exception If the source and sink are the same vertex or the
+	 *                   capacities do not match the edges.
+	 */
+	public FlowResult calculateMaxFlow(FlowNetwork network, int source, int sink, double[] edgeCapacities,
+			SolveBudget budget) throws Exception {
+		return calculateMaxFlow(network, source, sink, edgeCapacities, budget, null);
+	}
+
+	/**
+	 * Calculates a minimum cut between two vertices of the network. When no
+	 * vertex with excess can reach the sink any more, the vertices that cannot
+	 * reach the sink in the residual network are the source side of a minimum
+	 * cut: every edge into the others is saturated, no flow leaves them and none
+	 * is left at them, so the cut carries exactly the flow that reached the sink.
+	 * The vertices the source reaches are not enough, since flow stranded at
+	 * vertices it does not reach would cross their cut as well.
+	 *
+	 * @param network    The flow network.
+	 * @param source     The id of the source vertex.
+	 * @param sink       The id of the sink vertex.
+	 * @param sourceSide One entry per vertex, set to true for the vertices on
+	 *                   the source side of the cut.
+	 * @return Capacity of the cut, the maximum flow value from the source to the
+	 *         sink.
+	 * @throws Exception If the source and sink are the same vertex.
+	 */
+	public double calculateMinCut(FlowNetwork network, int source, int sink, boolean[] sourceSide)
+			throws Exception {
+		return calculateMaxFlow(network, source, sink, null, null, sourceSide).getFlow();
+	}
+
+	/**
+	 * Calculates the maximum flow between two vertices of the network within the
+	 * given budget, and optionally the source side of the cut it leaves.
+	 *
+	 * @param network        The flow network.
+	 * @param source         The id of the source vertex.
+	 * @param sink           The id of the sink vertex.
+	 * @param edgeCapacities Capacity of every edge of the original graph, or null
+	 *                       to use the capacities of the network.
+	 * @param budget         Limit on the time and the number of pushes and
+	 *                       relabels, or null for no limit.
+	 * @param sourceSide     Set to true for the vertices that cannot reach the
+	 *                       sink in the residual network at the end, or null.
+	 * @return The flow found and an upper bound on the maximum flow value.
+	 * @throws Exception If the source and sink are the same vertex or the
+	 *                   capacities do not match the edges.
+	 */
+	private FlowResult calculateMaxFlow(FlowNetwork network, int source, int sink, double[] edgeCapacities,
+			SolveBudget budget, boolean[] sourceSide) throws Exception {
+		if (source == sink) {
+			throw new Exception("Source and sink are the same vertex " + network.getVertexName(source));
+		}
+		long startTime = System.nanoTime();
+		SolveProgress progress = SolveMonitor.start(getName(), network.numberOfVertices(), network.numberOfEdges());
+		try {
+			Computation computation = new Computation(network, source, sink,
+					network.createResidualCapacities(edgeCapacities), this.cancellation, budget, progress);
+			FlowResult result = computation.run();
+			if (sourceSide != null) {
+				computation.markSourceSide(sourceSide);
+			}
+			if (this.recordEdgeFlows) {
+				result.setEdgeFlows(computation.getEdgeFlows(), true);
+			}
+			result.getStatistics().setSolveTimeNanos(System.nanoTime() - startTime);
+			return result;
+		} finally {
+			SolveMonitor.finish(progress);
+		}
+	}
+
+	/**
+	 * The state of one max flow computation.
+	 */
+	private static class Computation {
+		private FlowNetwork network;
+		private int source;
+		private int sink;
+		private int n;
+		private double[] residual;
+		private double[] excess;
+		private int[] height;
+		private int[] count;
+		private int[] current;
+		private int[] queue;
+		private int queueHead;
+		private int queueSize;
+		private boolean[] queued;
+		private int[] order;
+		private int relabelsSinceUpdate;
+		private long steps;
+		private SolverStatistics statistics;
+		private CancellationFlag cancellation;
+		private SolveBudget budget;
+		private SolveProgress progress;
+
+		Computation(FlowNetwork network, int source, int sink, double[] residual, CancellationFlag cancellation,
+				SolveBudget budget, SolveProgress progress) {
+			this.network = network;
+			this.cancellation = cancellation;
+			this.budget = budget;
+			this.progress = progress;
+			this.statistics = new SolverStatistics(SolverSelector.NETWORK_PREFLOW_PUSH);
+			this.source = source;
+			this.sink = sink;
+			this.n = network.numberOfVertices();
+			this.residual = residual;
+			this.excess = new double[this.n];
+			this.height = new int[this.n];
+			this.count = new int[this.n + 1];
+			this.current = new int[this.n];
+			this.queue = new int[this.n];
+			this.queued = new boolean[this.n];
+			this.order = new int[this.n];
+		}
+
+		/**
+		 * Saturates the edges leaving the source and discharges active vertices until
+		 * none is left that can still reach the sink.
+		 *
+		 * @return The excess of the sink, with the cut found as upper bound if the
+		 *         budget ran out.
+		 * @throws Exception If the computation is cancelled.
+		 */
+		FlowResult run() throws Exception {
+			if (this.budget != null) {
+				this.budget.start();
+			}
+			globalRelabel();
+			double sourceCapacity = 0;
+			int end = this.network.getFirstArc(this.source + 1);
+			for (int arc = this.network.getFirstArc(this.source); arc < end; arc++) {
+				if (this.residual[arc] > 0) {
+					sourceCapacity += this.residual[arc];
+					push(arc, this.source, this.residual[arc]);
+				}
+			}
+			this.progress.setUpperBound(sourceCapacity);
+
+			while (this.queueSize > 0) {
+				if (this.cancellation != null) {
+					this.cancellation.check("NetworkPreFlowPush");
+				}
+				if (this.budget != null && this.budget.isExhausted()) {
+					return new FlowResult(this.excess[this.sink], calculateCutCapacity(), this.steps, this.statistics);
+				}
+
+				int vertex = this.queue[this.queueHead];
+				this.queueHead = (this.queueHead + 1) % this.n;
+				this.queueSize--;
+				this.queued[vertex] = false;
+				discharge(vertex);
+
+				if (this.relabelsSinceUpdate > this.n) {
+					globalRelabel();
+				}
+			}
+			return new FlowResult(this.excess[this.sink], this.excess[this.sink], this.steps, this.statistics);
+		}
+
+		/**
+		 * Calculates the capacity of the cut around the vertices the source reaches in
+		 * the residual network. The heights keep every residual path from the source
+		 * to the sink longer than the number of vertices, so there is none and the
+		 * cut separates the source from the sink.
+		 *
+		 * @return Capacity of the cut.
+		 */
+		private double calculateCutCapacity() {
+			boolean[] reached = new boolean[this.n];
+			int size = 0;
+			reached[this.source] = true;
+			this.order[size++] = this.source;
+			for (int i = 0; i < size; i++) {
+				int end = this.network.getFirstArc(this.order[i] + 1);
+				for (int arc = this.network.getFirstArc(this.order[i]); arc < end; arc++) {
+					int head = this.network.getHead(arc);
+					if (this.residual[arc] > 0 && !reached[head]) {
+						reached[head] = true;
+						this.order[size++] = head;
+					}
+				}
+			}
+
+			// The capacity of a forward arc is its residual capacity plus the flow on it,
+			// which is the residual capacity of its reverse arc
+			double cut = 0;
+			for (int i = 0; i < size; i++) {
+				int end = this.network.getFirstArc(this.order[i] + 1);
+				for (int arc = this.network.getFirstArc(this.order[i]); arc < end; arc++) {
+					if (this.network.isForwardArc(arc) && !reached[this.network.getHead(arc)]) {
+						cut += this.residual[arc] + this.residual[this.network.getMate(arc)];
+					}
+				}
+			}
+			return cut;
+		}
+
+		/**
+		 * Marks the vertices that cannot reach the sink in the residual network,
+		 * with a breadth first search backwards from the sink.
+		 *
+		 * @param sourceSide Set to true for every vertex that cannot reach the sink,
+		 *                   and to false for the others.
+		 */
+		void markSourceSide(boolean[] sourceSide) {
+			Arrays.fill(sourceSide, true);
+			int size = 0;
+			sourceSide[this.sink] = false;
+			this.order[size++] = this.sink;
+			for (int i = 0; i < size; i++) {
+				int end = this.network.getFirstArc(this.order[i] + 1);
+				for (int arc = this.network.getFirstArc(this.order[i]); arc < end; arc++) {
+					int tail = this.network.getHead(arc);
+					if (sourceSide[tail] && this.residual[this.network.getMate(arc)] > 0) {
+						sourceSide[tail] = false;
+						this.order[size++] = tail;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Pushes and relabels a vertex until it has no excess left or cannot reach
+		 * the sink any more.
+		 *
+		 * @param vertex The vertex to discharge.
+		 */
+		private void discharge(int vertex) {
+			int end = this.network.getFirstArc(vertex + 1);
+			while (this.excess[vertex] > 0 && this.height[vertex] < this.n) {
+				if (this.current[vertex] == end) {
+					relabel(vertex);
+					continue;
+				}
+				int arc = this.current[vertex];
+				int head = this.network.getHead(arc);
+				this.statistics.countArcsScanned(1);
+				if (this.residual[arc] > 0 && this.height[vertex] == this.height[head] + 1) {
+					push(arc, vertex, Math.min(this.excess[vertex], this.residual[arc]));
+				} else {
+					this.current[vertex]++;
+				}
+			}
+		}
+
+		/**
+		 * Get the flow on every edge of the original graph, the flow sent back over
+		 * the reverse arc of the edge.
+		 *
+		 * @return The flow of every edge in the order of the original graph.
+		 */
+		double[] getEdgeFlows() {
+			double[] flows = new double[this.network.numberOfEdges()];
+			for (int e = 0; e < flows.length; e++) {
+				flows[e] = this.residual[this.network.getMate(this.network.getEdgeArc(e))];
+			}
+			return flows;
+		}
+
+		/**
+		 * Counts a push or relabel, and publishes the state of the computation to its
+		 * progress every {@link SolveProgress#STEP_INTERVAL} steps.
+		 */
+		private void countStep() {
+			this.steps++;
+			if (this.budget != null) {
+				this.budget.addWork(1);
+			}
+			if (this.steps % SolveProgress.STEP_INTERVAL == 0) {
+				this.progress.update(this.excess[this.sink], this.statistics, this.queueSize);
+			}
+		}
+
+		/**
+		 * Pushes flow along an arc and activates its head.
+		 *
+		 * @param arc    The arc to push along.
+		 * @param vertex The tail of the arc.
+		 * @param amount The amount of flow to push.
+		 */
+		private void push(int arc, int vertex, double amount) {
+			countStep();
+			this.statistics.countPush();
+			int head = this.network.getHead(arc);
+			this.residual[arc] -= amount;
+			this.residual[this.network.getMate(arc)] += amount;
+			this.excess[vertex] -= amount;
+			this.excess[head] += amount;
+			activate(head);
+		}
+
+		/**
+		 * Adds a vertex to the queue if it has excess, can reach the sink and is
+		 * neither a terminal nor already queued.
+		 *
+		 * @param vertex The vertex to activate.
+		 */
+		private void activate(int vertex) {
+			if (vertex != this.source && vertex != this.sink && !this.queued[vertex] && this.excess[vertex] > 0
+					&& this.height[vertex] < this.n) {
+				this.queue[(this.queueHead + this.queueSize) % this.n] = vertex;
+				this.queueSize++;
+				this.queued[vertex] = true;
+				this.statistics.recordActiveVertices(this.queueSize);
+			}
+		}
+
+		/**
+		 * Lifts a vertex just above its lowest residual neighbor. If that leaves no
+		 * vertex at its old height, every vertex above the gap is cut off from the
+		 * sink.
+		 *
+		 * @param vertex The vertex to relabel.
+		 */
+		private void relabel(int vertex) {
+			countStep();
+			this.statistics.countRelabel();
+			this.relabelsSinceUpdate++;
+			int oldHeight = this.height[vertex];
+			int newHeight = this.n;
+			int end = this.network.getFirstArc(vertex + 1);
+			this.statistics.countArcsScanned(end - this.network.getFirstArc(vertex));
+			for (int arc = this.network.getFirstArc(vertex); arc < end; arc++) {
+				if (this.residual[arc] > 0) {
+					newHeight = Math.min(newHeight, this.height[this.network.getHead(arc)] + 1);
+				}
+			}
+
+			this.count[oldHeight]--;
+			if (this.count[oldHeight] == 0) {
+				GapEvent gapEvent = GapEvent.isRecorded() ? new GapEvent() : null;
+				if (gapEvent != null) {
+					gapEvent.begin();
+				}
+				int lifted = 0;
+				for (int v = 0; v < this.n; v++) {
+					if (this.height[v] > oldHeight && this.height[v] < this.n && v != this.source) {
+						this.count[this.height[v]]--;
+						this.height[v] = this.n;
+						lifted++;
+					}
+				}
+				newHeight = this.n;
+				if (gapEvent != null && gapEvent.shouldCommit()) {
+					gapEvent.setGap(oldHeight, this.n, lifted);
+					gapEvent.commit();
+				}
+			}
+			this.height[vertex] = newHeight;
+			if (newHeight < this.n) {
+				this.count[newHeight]++;
+			}
+			this.current[vertex] = this.network.getFirstArc(vertex);
+		}
+
+		/**
+		 * Sets every height to the residual distance to the sink, or to the number of
+		 * vertices for the source and the vertices that cannot reach the sink, with a
+		 * breadth first search backwards from the sink.
+		 */
+		private void globalRelabel() {
+			GlobalRelabelEvent relabelEvent = GlobalRelabelEvent.isRecorded() ? new GlobalRelabelEvent() : null;
+			if (relabelEvent != null) {
+				relabelEvent.begin();
+			}
+			this.statistics.countGlobalRelabel();
+			int relabels = this.relabelsSinceUpdate;
+			this.relabelsSinceUpdate = 0;
+			Arrays.fill(this.height, this.n);
+			Arrays.fill(this.count, 0);
+			int size = 0;
+			this.height[this.sink] = 0;
+			this.order[size++] = this.sink;
+			for (int i = 0; i < size; i++) {
+				int vertex = this.order[i];
+				this.count[this.height[vertex]]++;
+				int end = this.network.getFirstArc(vertex + 1);
+				this.statistics.countArcsScanned(end - this.network.getFirstArc(vertex));
+				for (int arc = this.network.getFirstArc(vertex); arc < end; arc++) {
+					int tail = this.network.getHead(arc);
+					if (this.height[tail] == this.n && tail != this.source
+							&& this.residual[this.network.getMate(arc)] > 0) {
+						this.height[tail] = this.height[vertex] + 1;
+						this.order[size++] = tail;
+					}
+				}
+			}
+			for (int v = 0; v < this.n; v++) {
+				this.current[v] = this.network.getFirstArc(v);
+			}
+			if (relabelEvent != null && relabelEvent.shouldCommit()) {
+				relabelEvent.setRelabel(this.n, this.network.numberOfEdges(), size, relabels);
+				relabelEvent.commit();
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package algorithms;
+
+import graph.SimpleGraph;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Races several max flow algorithms on the same graph and returns the value of
+ * the first one to finish. The graph is only read by the algorithms; each of
+ * them builds its own residual state. When the first result arrives the others
+ * are stopped through a shared {@link CancellationFlag}, which they check
+ * between augmentations or pushes.
+ */
+public class PortfolioSolver {
+	private String[] solvers;
+	private String winner;
+	private long winnerTime;
+
+	/**
+	 * Constructor to create a portfolio of all the algorithms.
+	 */
+	public PortfolioSolver() {
+		this(SolverSelector.FORD_FULKERSON, SolverSelector.SCALING_FORD_FULKERSON, SolverSelector.PREFLOW_PUSH,
+				SolverSelector.NETWORK_PREFLOW_PUSH);
+	}
+
+	/**
+	 * Constructor to create a portfolio of the given algorithms.
+	 *
+	 * @param solvers Names of the algorithms as defined by {@link SolverSelector}.
+	 */
+	public PortfolioSolver(String... solvers) {
+		this.solvers = solvers;
+	}
+
+	/**
+	 * Get the algorithm that finished first in the last race.
+	 *
+	 * @return The name of the winning algorithm.
+	 */
+	public String getWinner() {
+		return this.winner;
+	}
+
+	/**
+	 * Get the time the winner of the last race took, including the time to build
+	 * its own representation of the graph.
+	 *
+	 * @return Time of the winner in milliseconds.
+	 */
+	public long getWinnerTime() {
+		return this.winnerTime;
+	}
+
+	/**
+	 * Computes the maximum flow of the graph with all algorithms of the portfolio
+	 * at the same time and returns the first result.
+	 *
+	 * @param graph Input graph representing the flow network.
+	 * @return Maximum flow value in the given graph.
+	 * @throws Exception If every algorithm fails.
+	 */
+	public double getMaxFlow(SimpleGraph graph) throws Exception {
+		CancellationFlag cancellation = new CancellationFlag();
+		ExecutorService executor = Executors.newFixedThreadPool(this.solvers.length);
+		CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+		try {
+			for (String solver : this.solvers) {
+				completionService.submit(createTask(solver, graph, cancellation));
+			}
+
+			// A solver may also die with an error, such as a stack overflow of a
+			// recursive search, so the race goes on until every solver has failed
+			Throwable failure = null;
+			for (int i = 0; i < this.solvers.length; i++) {
+				try {
+					Result result = completionService.take().get();
+					cancellation.cancel();
+					this.winner = result.solver;
+					this.winnerTime = result.time;
+					return result.flow;
+				} catch (ExecutionException e) {
+					failure = e.getCause();
+				}
+			}
+			throw new Exception("No algorithm of the portfolio finished", failure);
+		} finally {
+			cancellation.cancel();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Creates the task that runs one algorithm of the portfolio.
+	 *
+	 * @param name         The name of the algorithm.
+	 * @param graph        The graph to solve.
+	 * @param cancellation The flag that stops the algorithm.
+	 * @return The task computing the maximum flow with the algorithm.
+	 * @throws Exception If the algorithm is unknown.
+	 */
+	private static Callable<Result> createTask(String name, SimpleGraph graph, CancellationFlag cancellation)
+			throws Exception {
+		MaxFlowSolver solver = SolverSelector.createSolver(name);
+		solver.setCancellation(cancellation);
+		return () -> {
+			long startTime = System.currentTimeMillis();
+			Result result = new Result();
+			result.flow = solver.solve(graph, null).getFlow();
+			result.time = System.currentTimeMillis() - startTime;
+			result.solver = name;
+			return result;
+		};
+	}
+
+	/**
+	 * The outcome of one algorithm of the portfolio.
+	 */
+	private static class Result {
+		String solver;
+		double flow;
+		long time;
+	}
+}
@@ -4,10 +4,16 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashSet;
 
+import Utils.GraphUtility;
 import graph.SimpleGraph;
+import model.FlowResult;
 import model.ResidualEdge;
 import model.ResidualGraph;
 import model.ResidualVertex;
+import model.SolverStatistics;
+import monitoring.RepresentationBuildEvent;
+import monitoring.SolveMonitor;
+import monitoring.SolveProgress;
 
 /**
  * <h3>PreFlowPush Algorithm</h3> Implements the Preflow Push algorithm to find
@@ -19,14 +25,53 @@ import model.ResidualVertex;
  * @version 1.0
  * @since 12-05-2023
  */
-public class PreFlowPush {
+public class PreFlowPush implements MaxFlowSolver {
 
-	// Data structures to track vertices with excess flow and visited vertices
-	// Using ArrayDeque for efficient adding/removing from both ends
-	Deque<ResidualVertex> verticesWithExcess = new ArrayDeque<>();
+	private CancellationFlag cancellation;
+	private boolean recordEdgeFlows;
 
-	// Use HashSet for quick lookup time
-	HashSet<String> visitedVertices = new HashSet<>();
+	/**
+	 * Set the flag that is checked before every push or relabel to stop the
+	 * computation early.
+	 *
+	 * @param cancellation The flag, or null to always run to the end.
+	 */
+	@Override
+	public void setCancellation(CancellationFlag cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	@Override
+	public void setRecordEdgeFlows(boolean recordEdgeFlows) {
+		this.recordEdgeFlows = recordEdgeFlows;
+	}
+
+	@Override
+	public String getName() {
+		return SolverSelector.PREFLOW_PUSH;
+	}
+
+	@Override
+	public FlowResult solve(SimpleGraph graph, SolveBudget budget) throws Exception {
+		RepresentationBuildEvent buildEvent = RepresentationBuildEvent.isRecorded() ? new RepresentationBuildEvent()
+				: null;
+		if (buildEvent != null) {
+			buildEvent.begin();
+		}
+		long startTime = System.nanoTime();
+		ResidualGraph residualGraph = new ResidualGraph(graph);
+		long buildTime = System.nanoTime() - startTime;
+		if (buildEvent != null && buildEvent.shouldCommit()) {
+			buildEvent.setGraph(getName(), graph.numVertices(), graph.numEdges());
+			buildEvent.commit();
+		}
+		FlowResult result = calculateMaxFlow(residualGraph, budget);
+		if (this.recordEdgeFlows) {
+			result.setEdgeFlows(residualGraph.getEdgeFlows(), !result.isOptimal());
+		}
+		result.getStatistics().setBuildTimeNanos(buildTime);
+		return result;
+	}
 
 	/**
 	 * Calculates the maximum flow in the given graph using the Preflow Push
@@ -40,33 +85,123 @@ public class PreFlowPush {
 
 		// Convert the input graph to a residual graph
 		// Residual graph tracks available capacity
-		ResidualGraph residualGraph = new ResidualGraph(graph);
+		return calculateMaxFlow(new ResidualGraph(graph));
+	}
+
+	/**
+	 * Calculates the maximum flow on an already built residual graph using the
+	 * Preflow Push algorithm. The flow found is left on the edges of the residual
+	 * graph so that callers can inspect it once the method returns.
+	 *
+	 * @param residualGraph Residual graph representing the flow network.
+	 * @return Maximum flow value in the given graph.
+	 * @throws Exception If an error occurs during the flow calculation.
+	 */
+	public double calculateMaxFlow(ResidualGraph residualGraph) throws Exception {
+		return calculateMaxFlow(residualGraph, null).getFlow();
+	}
+
+	/**
+	 * Calculates the maximum flow on an already built residual graph using the
+	 * Preflow Push algorithm within the given budget. When the budget runs out,
+	 * the excess that has reached the sink is returned as the flow: the preflow
+	 * contains a feasible flow of that value. No residual path leads from the
+	 * source to the sink at any time, so the vertices the source reaches give a
+	 * cut for the upper bound.
+	 *
+	 * @param residualGraph Residual graph representing the flow network.
+	 * @param budget        Limit on the time and the number of pushes and
+	 *                      relabels, or null for no limit.
+	 * @return The flow found and an upper bound on the maximum flow value.
+	 * @throws Exception If an error occurs during the flow calculation.
+	 */
+	public FlowResult calculateMaxFlow(ResidualGraph residualGraph, SolveBudget budget) throws Exception {
+		SolveProgress progress = SolveMonitor.start(getName(), residualGraph.numberOfVertices(),
+				residualGraph.getEdges().size());
+		try {
+			return calculateMaxFlow(residualGraph, budget, progress);
+		} finally {
+			SolveMonitor.finish(progress);
+		}
+	}
+
+	/**
+	 * Calculates the maximum flow within the given budget, publishing the state
+	 * of the computation to its progress every
+	 * {@link SolveProgress#STEP_INTERVAL} pushes and relabels.
+	 *
+	 * @param residualGraph Residual graph representing the flow network.
+	 * @param budget        Limit on the time and the number of pushes and
+	 *                      relabels, or null for no limit.
+	 * @param progress      Live progress of the computation.
+	 * @return The flow found and an upper bound on the maximum flow value.
+	 * @throws Exception If an error occurs during the flow calculation.
+	 */
+	private FlowResult calculateMaxFlow(ResidualGraph residualGraph, SolveBudget budget, SolveProgress progress)
+			throws Exception {
+		long startTime = System.nanoTime();
+		SolverStatistics statistics = new SolverStatistics(getName());
 		ResidualVertex sourceVertex = residualGraph.getSource();
+		double upperBound = GraphUtility.calculateFlowUpperBound(residualGraph);
+		progress.setUpperBound(upperBound);
+		long steps = 0;
+		if (budget != null) {
+			budget.start();
+		}
+
+		// Data structures to track vertices with excess flow and visited vertices,
+		// local to the run so that a run cut short leaves nothing for the next one.
+		// Using ArrayDeque for efficient adding/removing from both ends
+		Deque<ResidualVertex> verticesWithExcess = new ArrayDeque<>();
+		// Use HashSet for quick lookup time
+		HashSet<String> visitedVertices = new HashSet<>();
 
 		// Initialize the flow and add adjacent vertices of the source
 		initializeMaxFlow(residualGraph, sourceVertex, verticesWithExcess, visitedVertices);
 
 		// Main loop of the Preflow Push algorithm
 		while (!verticesWithExcess.isEmpty()) {
+			if (this.cancellation != null) {
+				this.cancellation.check("PreFlowPush");
+			}
+			if (budget != null && budget.isExhausted()) {
+				double cut = GraphUtility.calculateCutUpperBound(residualGraph, upperBound);
+				statistics.setSolveTimeNanos(System.nanoTime() - startTime);
+				return new FlowResult(residualGraph.getSink().getExcess(), cut, steps, statistics);
+			}
+			statistics.recordActiveVertices(verticesWithExcess.size());
+
 			ResidualVertex currentVertex = verticesWithExcess.poll();
 			visitedVertices.remove(currentVertex.getIdentifier());
 
-			ResidualEdge adjacentEdge = currentVertex.getLowerHeightNeighborEdge();
+			ResidualEdge adjacentEdge = currentVertex.getLowerHeightNeighborEdge(statistics);
 
 			if (adjacentEdge == null) {
 				// No eligible edges, relabel vertex
 				relabelVertex(currentVertex, verticesWithExcess, visitedVertices);
+				statistics.countRelabel();
 			} else {
 				// Push flow along edge
 				pushFlow(currentVertex, adjacentEdge);
+				statistics.countPush();
 				// Add updated vertices
 				addExcessVertex(verticesWithExcess, visitedVertices, adjacentEdge.getSource());
 				addExcessVertex(verticesWithExcess, visitedVertices, adjacentEdge.getDestination());
 			}
+			steps++;
+			if (budget != null) {
+				budget.addWork(1);
+			}
+			if (steps % SolveProgress.STEP_INTERVAL == 0) {
+				progress.update(residualGraph.getSink().getExcess(), statistics, verticesWithExcess.size());
+			}
 		}
 
-		// Return the total outgoing flow from the source vertex as the maximum flow
-		return sourceVertex.calculateTotalOutgoingFlow();
+		// Return the excess collected by the sink as the maximum flow. The outgoing
+		// flow of the source would also count excess returned over edges into it
+		double maxFlow = residualGraph.getSink().getExcess();
+		statistics.setSolveTimeNanos(System.nanoTime() - startTime);
+		return new FlowResult(maxFlow, maxFlow, steps, statistics);
 	}
 
 	/**
@@ -5,6 +5,11 @@ import java.util.*;
 import Utils.GraphUtility;
 import graph.SimpleGraph;
 import model.*;
+import monitoring.AugmentationRecorder;
+import monitoring.RepresentationBuildEvent;
+import monitoring.ScalingPhaseEvent;
+import monitoring.SolveMonitor;
+import monitoring.SolveProgress;
 
 /**
  * This class implements the Scaling-Ford-Fulkerson algorithm for calculating
@@ -16,7 +21,70 @@ import model.*;
  *
  * @author Niharika Nasam
  */
-public class ScalingFordFulkerson {
+public class ScalingFordFulkerson implements MaxFlowSolver {
+
+	private CancellationFlag cancellation;
+	private boolean recordEdgeFlows;
+	private double tolerance;
+
+	/**
+	 * Set the flag that is checked before every augmentation to stop the
+	 * computation early.
+	 *
+	 * @param cancellation The flag, or null to always run to the end.
+	 */
+	@Override
+	public void setCancellation(CancellationFlag cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	@Override
+	public void setRecordEdgeFlows(boolean recordEdgeFlows) {
+		this.recordEdgeFlows = recordEdgeFlows;
+	}
+
+	@Override
+	public String getName() {
+		return SolverSelector.SCALING_FORD_FULKERSON;
+	}
+
+	@Override
+	public FlowResult solve(SimpleGraph graph, SolveBudget budget) throws Exception {
+		RepresentationBuildEvent buildEvent = RepresentationBuildEvent.isRecorded() ? new RepresentationBuildEvent()
+				: null;
+		if (buildEvent != null) {
+			buildEvent.begin();
+		}
+		long startTime = System.nanoTime();
+		ResidualGraph residualGraph = new ResidualGraph(graph);
+		long buildTime = System.nanoTime() - startTime;
+		if (buildEvent != null && buildEvent.shouldCommit()) {
+			buildEvent.setGraph(getName(), graph.numVertices(), graph.numEdges());
+			buildEvent.commit();
+		}
+		FlowResult result = getMaxFlow(residualGraph, budget);
+		if (this.recordEdgeFlows) {
+			result.setEdgeFlows(residualGraph.getEdgeFlows(), false);
+		}
+		result.getStatistics().setBuildTimeNanos(buildTime);
+		return result;
+	}
+
+	/**
+	 * Set the relative error allowed in the result. After every delta phase no
+	 * path with residual capacity delta is left, so the flow cannot grow by more
+	 * than delta on each of the m edges: the maximum flow is at most the flow plus
+	 * m * delta, and at most the capacity of the cut around the vertices the
+	 * source reaches over edges with residual capacity delta. As soon as the
+	 * smallest of these bounds is within the tolerance of the flow, the remaining
+	 * phases are skipped and the flow is returned with the bound.
+	 *
+	 * @param tolerance The largest allowed (upper bound - flow) / flow, for
+	 *                  example 0.01 for 1%, or 0 for the exact maximum flow.
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
 
 	/**
 	 * Computes the maximum flow in the given SimpleGraph using the scaling
@@ -32,7 +100,62 @@ public class ScalingFordFulkerson {
 	 */
 	public double getMaxFlow(SimpleGraph graph) throws Exception {
 		// Create a residual graph based on the input graph
-		ResidualGraph residualGraph = new ResidualGraph(graph);
+		return getMaxFlow(new ResidualGraph(graph));
+	}
+
+	/**
+	 * Computes the maximum flow on an already built residual graph using the
+	 * scaling Ford-Fulkerson algorithm. The flow found is left on the edges of the
+	 * residual graph so that callers can inspect it once the method returns. The
+	 * phases stop early once the flow reaches the upper bound given by the
+	 * capacities around the source and sink.
+	 *
+	 * @param residualGraph The residual graph of the flow network
+	 * @return The maximum flow value in the graph
+	 * @throws Exception If an error occurs during the computation
+	 */
+	public double getMaxFlow(ResidualGraph residualGraph) throws Exception {
+		return getMaxFlow(residualGraph, null).getFlow();
+	}
+
+	/**
+	 * Computes the maximum flow on an already built residual graph using the
+	 * scaling Ford-Fulkerson algorithm within the given budget. When the budget
+	 * runs out the flow found so far is returned together with the best cut
+	 * capacity known as an upper bound. With a tolerance set, the flow returned
+	 * may be smaller than the maximum by at most that fraction of itself.
+	 *
+	 * @param residualGraph The residual graph of the flow network
+	 * @param budget        Limit on the time and the number of augmentations, or
+	 *                      null for no limit
+	 * @return The flow found and an upper bound on the maximum flow value
+	 * @throws Exception If an error occurs during the computation
+	 */
+	public FlowResult getMaxFlow(ResidualGraph residualGraph, SolveBudget budget) throws Exception {
+		SolveProgress progress = SolveMonitor.start(getName(), residualGraph.numberOfVertices(),
+				residualGraph.getEdges().size());
+		try {
+			return computeMaxFlow(residualGraph, budget, progress);
+		} finally {
+			SolveMonitor.finish(progress);
+		}
+	}
+
+	/**
+	 * Computes the maximum flow within the given budget, publishing every
+	 * augmentation to the progress of the computation.
+	 *
+	 * @param residualGraph The residual graph of the flow network
+	 * @param budget        Limit on the time and the number of augmentations, or
+	 *                      null for no limit
+	 * @param progress      Live progress of the computation
+	 * @return The flow found and an upper bound on the maximum flow value
+	 * @throws Exception If an error occurs during the computation
+	 */
+	private FlowResult computeMaxFlow(ResidualGraph residualGraph, SolveBudget budget, SolveProgress progress)
+			throws Exception {
+		long startTime = System.nanoTime();
+		SolverStatistics statistics = new SolverStatistics(getName());
 
 		// Get the source vertex from the residual graph
 		ResidualVertex sourceVertex = residualGraph.getSource();
@@ -44,17 +167,73 @@ public class ScalingFordFulkerson {
 		// delta in scaling ford fulkerson algorithm
 		double minResidualCapacity = Math.pow(2, Math.floor(Math.log(srcOutCapTotal) / Math.log(2)));
 
+		// No augmenting path is left once the flow reaches this bound
+		double upperBound = GraphUtility.calculateFlowUpperBound(residualGraph);
+		progress.setUpperBound(upperBound);
+		double flow = 0;
+		int vertices = residualGraph.numberOfVertices();
+		int edges = residualGraph.getEdges().size();
+		if (budget != null) {
+			budget.start();
+		}
+		AugmentationRecorder augmentations = new AugmentationRecorder(getName(), vertices, edges, statistics);
+
 		// Perform scaling Ford-Fulkerson algorithm with decreasing minResidualCapacity
-		while (minResidualCapacity >= 1) {
+		while (minResidualCapacity >= 1 && flow < upperBound) {
+			ScalingPhaseEvent phaseEvent = ScalingPhaseEvent.isRecorded() ? new ScalingPhaseEvent() : null;
+			if (phaseEvent != null) {
+				phaseEvent.begin();
+			}
+			long pathsBefore = statistics.getAugmentingPaths();
+			long arcsBefore = statistics.getArcsScanned();
+
 			// Calculate maximum flow using the current minResidualCapacity
-			computeMaxFlowWithMinimumCapacity(residualGraph, minResidualCapacity);
+			double phaseFlow = computeMaxFlowWithMinimumCapacity(residualGraph, minResidualCapacity,
+					upperBound - flow, budget, statistics, augmentations, progress);
+			flow += phaseFlow;
+			if (phaseEvent != null && phaseEvent.shouldCommit()) {
+				phaseEvent.setPhase(minResidualCapacity, vertices, edges,
+						statistics.getAugmentingPaths() - pathsBefore, statistics.getArcsScanned() - arcsBefore,
+						phaseFlow);
+				phaseEvent.commit();
+			}
+			if (budget != null && budget.isExhausted()) {
+				return createResult(flow, GraphUtility.calculateCutUpperBound(residualGraph, upperBound), startTime,
+						statistics, augmentations);
+			}
+			if (this.tolerance > 0 && flow > 0) {
+				// Bound the flow that the remaining phases could still add
+				double phaseBound = Math.min(upperBound, flow + edges * minResidualCapacity);
+				phaseBound = GraphUtility.calculateCutUpperBound(residualGraph, phaseBound, minResidualCapacity);
+				if (phaseBound - flow <= this.tolerance * flow) {
+					return createResult(flow, phaseBound, startTime, statistics, augmentations);
+				}
+			}
 
 			// Decrease minResidualCapacity for the next iteration
 			minResidualCapacity /= 2;
 		}
 
 		// Return the total outgoing flow from the source vertex
-		return sourceVertex.calculateTotalOutgoingFlow();
+		double maxFlow = sourceVertex.calculateTotalOutgoingFlow();
+		return createResult(maxFlow, maxFlow, startTime, statistics, augmentations);
+	}
+
+	/**
+	 * Creates the result of a computation, closing its statistics.
+	 *
+	 * @param flow          The flow found
+	 * @param upperBound    The upper bound on the maximum flow value
+	 * @param startTime     The time the computation started, from System.nanoTime
+	 * @param statistics    The counters of the computation
+	 * @param augmentations The recorder of the augmenting paths
+	 * @return The result of the computation
+	 */
+	private FlowResult createResult(double flow, double upperBound, long startTime, SolverStatistics statistics,
+			AugmentationRecorder augmentations) {
+		augmentations.end(statistics);
+		statistics.setSolveTimeNanos(System.nanoTime() - startTime);
+		return new FlowResult(flow, upperBound, statistics.getAugmentingPaths(), statistics);
 	}
 
 	/**
@@ -65,16 +244,34 @@ public class ScalingFordFulkerson {
 	 * @param graph               The residual graph for which maximum flow needs to
 	 *                            be computed
 	 * @param minResidualCapacity The minimum residual capacity for augmenting paths
+	 * @param remainingBound      The flow after which no augmenting path can be
+	 *                            left
+	 * @param budget              Limit on the time and the number of
+	 *                            augmentations, or null for no limit
+	 * @param statistics          The counters of the computation
+	 * @param augmentations       The recorder of the augmenting paths
+	 * @param progress            Live progress of the computation
+	 * @return The flow added in this phase
 	 * @throws Exception If an error occurs during the computation
 	 */
-	private void computeMaxFlowWithMinimumCapacity(ResidualGraph graph, double minResidualCapacity) throws Exception {
+	private double computeMaxFlowWithMinimumCapacity(ResidualGraph graph, double minResidualCapacity,
+			double remainingBound, SolveBudget budget, SolverStatistics statistics,
+			AugmentationRecorder augmentations, SolveProgress progress) throws Exception {
 
+		double flow = 0;
 		LinkedList<ResidualEdge> path;
 
 		// Iteratively find augmenting paths with a minimum residual capacity
 		do {
+			if (this.cancellation != null) {
+				this.cancellation.check("ScalingFordFulkerson");
+			}
+			if (budget != null && budget.isExhausted()) {
+				break;
+			}
+
 			// Find an augmenting path with a minimum residual capacity
-			path = GraphUtility.findPathToSink(graph, graph.getSource(), true, minResidualCapacity);
+			path = GraphUtility.findPathToSink(graph, graph.getSource(), true, minResidualCapacity, statistics);
 
 			// Clear visited status of the graph to prepare for the next path search
 			GraphUtility.resetGraphVisitedStatus(graph);
@@ -86,8 +283,17 @@ public class ScalingFordFulkerson {
 
 				// Increase flow on the path with the bottleneck value
 				GraphUtility.updateFlowOnPath(path, bottleneck);
+				flow += bottleneck;
+				statistics.countAugmentingPath();
+				augmentations.augment(statistics, bottleneck);
+				progress.augment(bottleneck, statistics);
+				if (budget != null) {
+					budget.addWork(1);
+				}
 			}
 
-		} while (path != null);
+		} while (path != null && flow < remainingBound);
+
+		return flow;
 	}
-}
\ No newline at end of file
+}
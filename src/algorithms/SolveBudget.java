@@ -0,0 +1,68 @@
+package algorithms;
+
+/**
+ * Limits the time and the work of one max flow computation. Work is counted in
+ * the basic steps of each algorithm: augmentations for the Ford-Fulkerson
+ * algorithms and pushes or relabels for Preflow-Push. A solver that runs out of
+ * budget stops and returns the bounds it has reached as a
+ * {@link model.FlowResult}.
+ * <p>
+ * A budget belongs to a single computation; the time limit starts counting when
+ * the solver starts.
+ */
+public class SolveBudget {
+	private long timeLimitMillis;
+	private long maxWork;
+	private long deadline;
+	private long work;
+
+	/**
+	 * Constructor to create a budget.
+	 *
+	 * @param timeLimitMillis Time the computation may take in milliseconds, or 0
+	 *                        for no time limit.
+	 * @param maxWork         Number of steps the computation may take, or 0 for no
+	 *                        work limit.
+	 */
+	public SolveBudget(long timeLimitMillis, long maxWork) {
+		this.timeLimitMillis = timeLimitMillis;
+		this.maxWork = maxWork;
+	}
+
+	/**
+	 * Starts the clock and resets the work done.
+	 */
+	public void start() {
+		this.deadline = this.timeLimitMillis > 0 ? System.nanoTime() + this.timeLimitMillis * 1000000
+				: Long.MAX_VALUE;
+		this.work = 0;
+	}
+
+	/**
+	 * Records steps done by the computation.
+	 *
+	 * @param steps Number of steps done.
+	 */
+	public void addWork(long steps) {
+		this.work += steps;
+	}
+
+	/**
+	 * Get the number of steps done since the start.
+	 *
+	 * @return Number of steps done.
+	 */
+	public long getWork() {
+		return this.work;
+	}
+
+	/**
+	 * Whether the computation has used up its time or work.
+	 *
+	 * @return True if the deadline has passed or the work limit is reached.
+	 */
+	public boolean isExhausted() {
+		return (this.maxWork > 0 && this.work >= this.maxWork)
+				|| (this.deadline != Long.MAX_VALUE && System.nanoTime() >= this.deadline);
+	}
+}
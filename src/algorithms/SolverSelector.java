@@ -0,0 +1,123 @@
+package algorithms;
+
+import analysis.GraphProfile;
+import analysis.GraphProfiler;
+import graph.SimpleGraph;
+
+/**
+ * Picks the max flow algorithm that is likely to be fastest on a flow network,
+ * based on a {@link GraphProfile}, and runs it. The rules were calibrated by
+ * running all algorithms on the graphs under graph-generation and on seeded
+ * graphs of every generator family:
+ * <ul>
+ * <li>Network Preflow-Push, with its global relabeling and gap heuristic, is
+ * fastest on every kind of graph, usually by an order of magnitude over
+ * Preflow-Push and more over the Ford-Fulkerson algorithms;</li>
+ * <li>it stays fastest where the other algorithms used to win: when the source
+ * can send much more than the sink can take, where Preflow-Push pushes most of
+ * the preflow back to the source one relabel at a time, on meshes with random
+ * capacities, and on small unit capacity graphs.</li>
+ * </ul>
+ * The profile is still taken so the kind of graph can be reported with the
+ * choice.
+ */
+public class SolverSelector {
+	public static final String FORD_FULKERSON = "FordFulkerson";
+	public static final String SCALING_FORD_FULKERSON = "ScalingFordFulkerson";
+	public static final String PREFLOW_PUSH = "PreFlowPush";
+	public static final String NETWORK_PREFLOW_PUSH = "NetworkPreFlowPush";
+
+	// Source to sink capacity ratio above which most of the preflow has to return
+	// to the source
+	private static final double SINK_BOTTLENECK_RATIO = 1.5;
+
+	private String reason;
+	private GraphProfile profile;
+	private String selected;
+
+	/**
+	 * Selects the algorithm to run on a network with the given profile.
+	 *
+	 * @param profile The statistics of the network.
+	 * @return The name of the selected algorithm.
+	 */
+	public String select(GraphProfile profile) {
+		if (profile.isUnitCapacity()) {
+			this.reason = "unit capacity graph";
+		} else if (profile.getSourceCapacity() > SINK_BOTTLENECK_RATIO * profile.getSinkCapacity()) {
+			this.reason = "sink side bottleneck";
+		} else if (profile.isGrid() && !profile.isConstantCapacity()) {
+			this.reason = "grid graph with varying capacities";
+		} else if (profile.isBipartite()) {
+			this.reason = "bipartite graph";
+		} else if (profile.isGrid()) {
+			this.reason = "grid graph with constant capacities";
+		} else {
+			this.reason = "general graph";
+		}
+		return NETWORK_PREFLOW_PUSH;
+	}
+
+	/**
+	 * Get the reason for the last selection.
+	 *
+	 * @return The rule that decided the last selection.
+	 */
+	public String getReason() {
+		return this.reason;
+	}
+
+	/**
+	 * Get the profile of the graph of the last call to {@link #getMaxFlow}.
+	 *
+	 * @return The statistics the last selection was based on.
+	 */
+	public GraphProfile getProfile() {
+		return this.profile;
+	}
+
+	/**
+	 * Get the algorithm selected by the last call to {@link #getMaxFlow}.
+	 *
+	 * @return The name of the selected algorithm.
+	 */
+	public String getSelected() {
+		return this.selected;
+	}
+
+	/**
+	 * Profiles the given graph, selects an algorithm and computes the maximum
+	 * flow with it. The statistics and the decision are kept for the caller to
+	 * report, see {@link #getProfile}, {@link #getSelected} and
+	 * {@link #getReason}.
+	 *
+	 * @param graph Input graph representing the flow network.
+	 * @return Maximum flow value in the given graph.
+	 * @throws Exception If an error occurs during the flow calculation.
+	 */
+	public double getMaxFlow(SimpleGraph graph) throws Exception {
+		this.profile = new GraphProfiler().profile(graph);
+		this.selected = select(this.profile);
+		return createSolver(this.selected).solve(graph, null).getFlow();
+	}
+
+	/**
+	 * Creates the algorithm with the given name.
+	 *
+	 * @param name One of the algorithm names defined by this class.
+	 * @return A new instance of the algorithm.
+	 * @throws Exception If the name is unknown.
+	 */
+	public static MaxFlowSolver createSolver(String name) throws Exception {
+		if (name.equals(FORD_FULKERSON)) {
+			return new FordFulkerson();
+		} else if (name.equals(SCALING_FORD_FULKERSON)) {
+			return new ScalingFordFulkerson();
+		} else if (name.equals(PREFLOW_PUSH)) {
+			return new PreFlowPush();
+		} else if (name.equals(NETWORK_PREFLOW_PUSH)) {
+			return new NetworkPreFlowPush();
+		}
+		throw new Exception("Unknown algorithm " + name);
+	}
+}
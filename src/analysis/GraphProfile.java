@@ -0,0 +1,201 @@
+package analysis;
+
+/**
+ * Cheap statistics of a flow network collected by {@link GraphProfiler}. They
+ * are used to guess which max flow algorithm will be fastest on the network.
+ */
+public class GraphProfile {
+	int vertices;
+	int edges;
+	int minOutDegree;
+	int maxOutDegree;
+	double meanOutDegree;
+	double outDegreeDeviation;
+	int maxNeighbors;
+	int sourceDegree;
+	int sinkDegree;
+	double sourceCapacity;
+	double sinkCapacity;
+	double minCapacity;
+	double maxCapacity;
+	boolean bipartite;
+	boolean grid;
+
+	/**
+	 * Get the number of vertices.
+	 *
+	 * @return Number of vertices.
+	 */
+	public int getVertices() {
+		return this.vertices;
+	}
+
+	/**
+	 * Get the number of edges.
+	 *
+	 * @return Number of edges.
+	 */
+	public int getEdges() {
+		return this.edges;
+	}
+
+	/**
+	 * Get the density, the number of edges divided by the number of edges of a
+	 * complete directed graph with the same vertices.
+	 *
+	 * @return Density between 0 and 1.
+	 */
+	public double getDensity() {
+		return this.vertices < 2 ? 0 : (double) this.edges / ((double) this.vertices * (this.vertices - 1));
+	}
+
+	/**
+	 * Get the smallest number of edges leaving a vertex other than the sink.
+	 *
+	 * @return Minimum out-degree.
+	 */
+	public int getMinOutDegree() {
+		return this.minOutDegree;
+	}
+
+	/**
+	 * Get the largest number of edges leaving a vertex.
+	 *
+	 * @return Maximum out-degree.
+	 */
+	public int getMaxOutDegree() {
+		return this.maxOutDegree;
+	}
+
+	/**
+	 * Get the average number of edges leaving a vertex.
+	 *
+	 * @return Mean out-degree.
+	 */
+	public double getMeanOutDegree() {
+		return this.meanOutDegree;
+	}
+
+	/**
+	 * Get the standard deviation of the out-degrees.
+	 *
+	 * @return Standard deviation of the out-degrees.
+	 */
+	public double getOutDegreeDeviation() {
+		return this.outDegreeDeviation;
+	}
+
+	/**
+	 * Get the largest number of distinct neighbors of a vertex other than the
+	 * source and sink, ignoring edge directions.
+	 *
+	 * @return Maximum number of distinct neighbors.
+	 */
+	public int getMaxNeighbors() {
+		return this.maxNeighbors;
+	}
+
+	/**
+	 * Get the number of edges leaving the source.
+	 *
+	 * @return Out-degree of the source.
+	 */
+	public int getSourceDegree() {
+		return this.sourceDegree;
+	}
+
+	/**
+	 * Get the number of edges entering the sink.
+	 *
+	 * @return In-degree of the sink.
+	 */
+	public int getSinkDegree() {
+		return this.sinkDegree;
+	}
+
+	/**
+	 * Get the total capacity of the edges leaving the source.
+	 *
+	 * @return Outgoing capacity of the source.
+	 */
+	public double getSourceCapacity() {
+		return this.sourceCapacity;
+	}
+
+	/**
+	 * Get the total capacity of the edges entering the sink.
+	 *
+	 * @return Incoming capacity of the sink.
+	 */
+	public double getSinkCapacity() {
+		return this.sinkCapacity;
+	}
+
+	/**
+	 * Get the smallest edge capacity.
+	 *
+	 * @return Minimum capacity.
+	 */
+	public double getMinCapacity() {
+		return this.minCapacity;
+	}
+
+	/**
+	 * Get the largest edge capacity.
+	 *
+	 * @return Maximum capacity.
+	 */
+	public double getMaxCapacity() {
+		return this.maxCapacity;
+	}
+
+	/**
+	 * Whether every edge has the same capacity.
+	 *
+	 * @return True if all capacities are equal.
+	 */
+	public boolean isConstantCapacity() {
+		return this.edges > 0 && this.minCapacity == this.maxCapacity;
+	}
+
+	/**
+	 * Whether every edge has capacity 1.
+	 *
+	 * @return True if all capacities are 1.
+	 */
+	public boolean isUnitCapacity() {
+		return this.edges > 0 && this.minCapacity == 1 && this.maxCapacity == 1;
+	}
+
+	/**
+	 * Whether the network is bipartite: the source only feeds a left side, the
+	 * sink is only fed by a right side and all other edges go from left to right.
+	 *
+	 * @return True if the network is bipartite.
+	 */
+	public boolean isBipartite() {
+		return this.bipartite;
+	}
+
+	/**
+	 * Whether the network looks like a grid: no vertex other than the source and
+	 * sink has more than four distinct neighbors.
+	 *
+	 * @return True if the network looks like a grid.
+	 */
+	public boolean isGrid() {
+		return this.grid;
+	}
+
+	@Override
+	public String toString() {
+		return "vertices=" + this.vertices + " edges=" + this.edges + " density="
+				+ String.format("%.4f", getDensity()) + " outDegree=[" + this.minOutDegree + ", "
+				+ this.maxOutDegree + "] meanOutDegree=" + String.format("%.2f", this.meanOutDegree)
+				+ " outDegreeDeviation=" + String.format("%.2f", this.outDegreeDeviation) + " maxNeighbors="
+				+ this.maxNeighbors + " sourceDegree=" + this.sourceDegree + " sinkDegree=" + this.sinkDegree
+				+ " sourceCapacity=" + this.sourceCapacity + " sinkCapacity=" + this.sinkCapacity + " capacity=["
+				+ this.minCapacity + ", " + this.maxCapacity + "] unitCapacity=" + isUnitCapacity() + " bipartite="
+				+ this.bipartite + " grid=" + this.grid;
+	}
+}
@@ -0,0 +1,151 @@
+package analysis;
+
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.util.Hashtable;
+import java.util.Iterator;
+
+/**
+ * Collects a {@link GraphProfile} of a flow network in time linear in the size
+ * of the network: one pass over the edges for degrees, capacities and the
+ * bipartite check, and one pass over the adjacency for the grid check.
+ */
+public class GraphProfiler {
+
+	/**
+	 * Profiles the given flow network.
+	 *
+	 * @param graph The flow network, with source "s" and sink "t".
+	 * @return The statistics of the network.
+	 */
+	public GraphProfile profile(SimpleGraph graph) {
+		GraphProfile profile = new GraphProfile();
+		int n = graph.numVertices();
+		int m = graph.numEdges();
+		profile.vertices = n;
+		profile.edges = m;
+
+		Hashtable<Vertex, Integer> index = new Hashtable<>();
+		int source = -1;
+		int sink = -1;
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			Vertex vertex = (Vertex) vertexIterator.next();
+			index.put(vertex, i);
+			if ("s".equals(vertex.getName())) {
+				source = i;
+			} else if ("t".equals(vertex.getName())) {
+				sink = i;
+			}
+		}
+
+		// Degrees, capacities and the sides of a possible bipartition: heads of source
+		// edges are on the left (1), tails of sink edges on the right (2)
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		int[] outDegree = new int[n];
+		int[] side = new int[n];
+		profile.minCapacity = m == 0 ? 0 : Double.MAX_VALUE;
+		profile.maxCapacity = 0;
+		Iterator edgeIterator = graph.edges();
+		for (int i = 0; edgeIterator.hasNext(); i++) {
+			Edge edge = (Edge) edgeIterator.next();
+			tails[i] = index.get(edge.getFirstEndpoint());
+			heads[i] = index.get(edge.getSecondEndpoint());
+			double capacity = (double) edge.getData();
+			profile.minCapacity = Math.min(profile.minCapacity, capacity);
+			profile.maxCapacity = Math.max(profile.maxCapacity, capacity);
+			outDegree[tails[i]]++;
+			if (tails[i] == source) {
+				side[heads[i]] |= 1;
+				profile.sourceDegree++;
+				profile.sourceCapacity += capacity;
+			}
+			if (heads[i] == sink) {
+				side[tails[i]] |= 2;
+				profile.sinkDegree++;
+				profile.sinkCapacity += capacity;
+			}
+		}
+
+		boolean bipartite = n > 2 && source >= 0 && sink >= 0;
+		for (int i = 0; i < m && bipartite; i++) {
+			if (tails[i] != source && heads[i] != sink) {
+				bipartite = side[tails[i]] == 1 && side[heads[i]] == 2;
+			}
+		}
+		for (int v = 0; v < n && bipartite; v++) {
+			bipartite = v == source || v == sink || side[v] == 1 || side[v] == 2;
+		}
+		profile.bipartite = bipartite;
+
+		profile.minOutDegree = n == 0 ? 0 : Integer.MAX_VALUE;
+		double sum = 0;
+		double sumOfSquares = 0;
+		for (int v = 0; v < n; v++) {
+			if (v != sink) {
+				profile.minOutDegree = Math.min(profile.minOutDegree, outDegree[v]);
+			}
+			profile.maxOutDegree = Math.max(profile.maxOutDegree, outDegree[v]);
+			sum += outDegree[v];
+			sumOfSquares += (double) outDegree[v] * outDegree[v];
+		}
+		if (n > 0) {
+			profile.meanOutDegree = sum / n;
+			double variance = sumOfSquares / n - profile.meanOutDegree * profile.meanOutDegree;
+			profile.outDegreeDeviation = Math.sqrt(Math.max(0, variance));
+		}
+
+		profile.maxNeighbors = maxDistinctNeighbors(n, tails, heads, source, sink);
+		profile.grid = n > 2 && profile.maxNeighbors <= 4;
+		return profile;
+	}
+
+	/**
+	 * Finds the largest number of distinct neighbors of a vertex other than the
+	 * source and sink, ignoring edge directions.
+	 *
+	 * @param n      Number of vertices.
+	 * @param tails  Tail of each edge.
+	 * @param heads  Head of each edge.
+	 * @param source The source vertex.
+	 * @param sink   The sink vertex.
+	 * @return Maximum number of distinct neighbors.
+	 */
+	private static int maxDistinctNeighbors(int n, int[] tails, int[] heads, int source, int sink) {
+		int[] first = new int[n + 1];
+		for (int i = 0; i < tails.length; i++) {
+			first[tails[i] + 1]++;
+			first[heads[i] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			first[v + 1] += first[v];
+		}
+		int[] neighbors = new int[2 * tails.length];
+		int[] fill = first.clone();
+		for (int i = 0; i < tails.length; i++) {
+			neighbors[fill[tails[i]]++] = heads[i];
+			neighbors[fill[heads[i]]++] = tails[i];
+		}
+
+		// Count each neighbor once by stamping it with the vertex being looked at
+		int[] stamp = new int[n];
+		int max = 0;
+		for (int v = 0; v < n; v++) {
+			if (v == source || v == sink) {
+				continue;
+			}
+			int distinct = 0;
+			for (int i = first[v]; i < first[v + 1]; i++) {
+				if (stamp[neighbors[i]] != v + 1) {
+					stamp[neighbors[i]] = v + 1;
+					distinct++;
+				}
+			}
+			max = Math.max(max, distinct);
+		}
+		return max;
+	}
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+/**
+ * The measured iterations of one benchmark: how many operations ran in how
+ * much time, how many bytes they allocated and how much garbage collection
+ * happened meanwhile.
+ */
+public class BenchmarkResult {
+	private String name;
+	private long operations;
+	private long nanos;
+	private long allocatedBytes;
+	private long gcCount;
+	private long gcMillis;
+
+	/**
+	 * Constructor to create the result of a benchmark.
+	 *
+	 * @param name           The name of the benchmark.
+	 * @param operations     Number of operations in the measured iterations.
+	 * @param nanos          Time of the measured iterations in nanoseconds.
+	 * @param allocatedBytes Bytes allocated by the measured iterations, or -1 if
+	 *                       the JVM cannot tell.
+	 * @param gcCount        Number of garbage collections during the measured
+	 *                       iterations.
+	 * @param gcMillis       Time of those collections in milliseconds.
+	 */
+	public BenchmarkResult(String name, long operations, long nanos, long allocatedBytes, long gcCount,
+			long gcMillis) {
+		this.name = name;
+		this.operations = operations;
+		this.nanos = nanos;
+		this.allocatedBytes = allocatedBytes;
+		this.gcCount = gcCount;
+		this.gcMillis = gcMillis;
+	}
+
+	/**
+	 * Get the name of the benchmark.
+	 *
+	 * @return The name of the benchmark.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Get the number of operations in the measured iterations.
+	 *
+	 * @return Number of operations.
+	 */
+	public long getOperations() {
+		return this.operations;
+	}
+
+	/**
+	 * Get the number of operations per second.
+	 *
+	 * @return Throughput in operations per second.
+	 */
+	public double getThroughput() {
+		return this.operations * 1e9 / this.nanos;
+	}
+
+	/**
+	 * Get the average time of one operation.
+	 *
+	 * @return Time per operation in milliseconds.
+	 */
+	public double getAverageTime() {
+		return this.nanos / 1e6 / this.operations;
+	}
+
+	/**
+	 * Get the number of bytes one operation allocates on average.
+	 *
+	 * @return Bytes per operation, or -1 if the JVM cannot tell.
+	 */
+	public double getAllocatedBytesPerOperation() {
+		return this.allocatedBytes < 0 ? -1 : (double) this.allocatedBytes / this.operations;
+	}
+
+	/**
+	 * Get the rate at which the operations allocate memory.
+	 *
+	 * @return Allocation rate in megabytes per second, or -1 if the JVM cannot
+	 *         tell.
+	 */
+	public double getAllocationRate() {
+		return this.allocatedBytes < 0 ? -1 : this.allocatedBytes * 1e9 / this.nanos / (1024 * 1024);
+	}
+
+	/**
+	 * Get the number of garbage collections during the measured iterations.
+	 *
+	 * @return Number of collections.
+	 */
+	public long getGcCount() {
+		return this.gcCount;
+	}
+
+	/**
+	 * Get the time the garbage collections took during the measured iterations.
+	 *
+	 * @return Collection time in milliseconds.
+	 */
+	public long getGcMillis() {
+		return this.gcMillis;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-45s %12.3f ops/s %12.3f ms/op %10.1f MB/s %14.0f B/op %5d gc %6d ms", this.name,
+				getThroughput(), getAverageTime(), getAllocationRate(), getAllocatedBytesPerOperation(),
+				this.gcCount, this.gcMillis);
+	}
+}
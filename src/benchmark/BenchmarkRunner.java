@@ -0,0 +1,102 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs an operation over and over in timed iterations. The warmup iterations
+ * give the JIT compiler time to compile the code being measured and are thrown
+ * away; only the measured iterations count. Allocations are read from the
+ * per-thread allocation counter of the JVM, so operations must run on the
+ * calling thread to be counted. Whatever the operation prints is discarded
+ * while it runs so that console output does not take part in the timing.
+ */
+public class BenchmarkRunner {
+	/** The results of the operations, kept so the JIT compiler cannot drop their computation. */
+	private static volatile Object sink;
+
+	private int warmupIterations = 3;
+	private int measuredIterations = 5;
+	private long iterationMillis = 1000;
+
+	/**
+	 * Set the number of iterations run before measuring.
+	 *
+	 * @param warmupIterations Number of warmup iterations.
+	 */
+	public void setWarmupIterations(int warmupIterations) {
+		this.warmupIterations = warmupIterations;
+	}
+
+	/**
+	 * Set the number of iterations that are measured.
+	 *
+	 * @param measuredIterations Number of measured iterations, at least 1.
+	 */
+	public void setMeasuredIterations(int measuredIterations) {
+		this.measuredIterations = Math.max(1, measuredIterations);
+	}
+
+	/**
+	 * Set how long one iteration runs the operation. An iteration always runs it
+	 * at least once, so slow operations take longer.
+	 *
+	 * @param iterationMillis Minimum time of an iteration in milliseconds.
+	 */
+	public void setIterationMillis(long iterationMillis) {
+		this.iterationMillis = iterationMillis;
+	}
+
+	/**
+	 * Benchmarks an operation.
+	 *
+	 * @param name      The name of the benchmark.
+	 * @param operation The operation; its result is kept so it is not optimized
+	 *                  away.
+	 * @return The measurements of the measured iterations.
+	 * @throws Exception If the operation fails.
+	 */
+	public BenchmarkResult run(String name, Callable<?> operation) throws Exception {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			for (int i = 0; i < this.warmupIterations; i++) {
+				runIteration(operation);
+			}
+
+			long operations = 0;
+			long bytesBefore = MemoryProbe.getAllocatedBytes();
+			long gcCountBefore = MemoryProbe.getGcCount();
+			long gcMillisBefore = MemoryProbe.getGcMillis();
+			long startTime = System.nanoTime();
+			for (int i = 0; i < this.measuredIterations; i++) {
+				operations += runIteration(operation);
+			}
+			long nanos = System.nanoTime() - startTime;
+			long bytesAfter = MemoryProbe.getAllocatedBytes();
+			long allocatedBytes = bytesBefore < 0 ? -1 : bytesAfter - bytesBefore;
+			return new BenchmarkResult(name, operations, nanos, allocatedBytes,
+					MemoryProbe.getGcCount() - gcCountBefore, MemoryProbe.getGcMillis() - gcMillisBefore);
+		} finally {
+			System.setOut(out);
+		}
+	}
+
+	/**
+	 * Runs the operation until the iteration time has passed.
+	 *
+	 * @param operation The operation.
+	 * @return Number of times the operation ran.
+	 * @throws Exception If the operation fails.
+	 */
+	private long runIteration(Callable<?> operation) throws Exception {
+		long endTime = System.nanoTime() + this.iterationMillis * 1000000;
+		long operations = 0;
+		do {
+			sink = operation.call();
+			operations++;
+		} while (System.nanoTime() < endTime);
+		return operations;
+	}
+}
@@ -0,0 +1,153 @@
+package benchmark;
+
+import algorithms.MaxFlowSolver;
+import algorithms.SolverSelector;
+import graph.GraphInput;
+import graph.SimpleGraph;
+import model.FlowNetwork;
+import model.ResidualGraph;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmarks the max flow algorithms together with the steps that come before
+ * them: generating a graph, parsing its file and building the residual graph
+ * or flow network the algorithms work on. Every step is benchmarked on graphs
+ * of each generator family at several sizes and on the given corpus files, and
+ * one line is printed per benchmark with throughput, time per operation,
+ * allocation rate, allocated bytes per operation and garbage collections.
+ * <p>
+ * Usage: java -Xss64m -cp .:graph-generation benchmark.BenchmarkSuite [file or folder ...] [options]
+ * <ul>
+ * <li>-families Random,Bipartite,FixedDegree,Mesh,RMat,Layered,AK,Trap: generator families to benchmark, all by
+ * default, none for corpus files only</li>
+ * <li>-sizes 100,200,400: number of vertices of the generated graphs</li>
+ * <li>-solvers names: algorithms to benchmark, as named by {@link SolverSelector}</li>
+ * <li>-warmup n: iterations before measuring, 3 by default</li>
+ * <li>-iterations n: measured iterations, 5 by default</li>
+ * <li>-time ms: minimum time of an iteration, 1000 by default</li>
+ * <li>-seed n: seed of the generated graphs</li>
+ * </ul>
+ */
+public class BenchmarkSuite {
+	private BenchmarkRunner runner = new BenchmarkRunner();
+	private List<String> families = Arrays.asList(GraphFamilies.FAMILIES);
+	private int[] sizes = { 100, 200, 400 };
+	private List<String> solvers = Arrays.asList(SolverSelector.FORD_FULKERSON,
+			SolverSelector.SCALING_FORD_FULKERSON, SolverSelector.PREFLOW_PUSH, SolverSelector.NETWORK_PREFLOW_PUSH);
+	private long seed = 543;
+	private List<File> files = new ArrayList<>();
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkSuite suite = new BenchmarkSuite();
+		suite.parse(args);
+		suite.run();
+	}
+
+	/**
+	 * Parses the corpus paths and options of the command line.
+	 *
+	 * @param args Command-line arguments.
+	 * @throws Exception If an option is unknown, misses its value or a path does
+	 *                   not exist.
+	 */
+	private void parse(String[] args) throws Exception {
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				File path = new File(args[i]);
+				if (path.isDirectory()) {
+					File[] children = path.listFiles(File::isFile);
+					Arrays.sort(children);
+					this.files.addAll(Arrays.asList(children));
+				} else if (path.isFile()) {
+					this.files.add(path);
+				} else {
+					throw new Exception("No such file or folder: " + args[i]);
+				}
+				continue;
+			}
+			if (i + 1 >= args.length) {
+				throw new Exception("Option " + args[i] + " needs a value");
+			}
+			String value = args[++i];
+			if (args[i - 1].equals("-families")) {
+				this.families = value.equals("none") ? new ArrayList<>() : Arrays.asList(value.split(","));
+			} else if (args[i - 1].equals("-sizes")) {
+				this.sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+			} else if (args[i - 1].equals("-solvers")) {
+				this.solvers = Arrays.asList(value.split(","));
+			} else if (args[i - 1].equals("-warmup")) {
+				this.runner.setWarmupIterations(Integer.parseInt(value));
+			} else if (args[i - 1].equals("-iterations")) {
+				this.runner.setMeasuredIterations(Integer.parseInt(value));
+			} else if (args[i - 1].equals("-time")) {
+				this.runner.setIterationMillis(Long.parseLong(value));
+			} else if (args[i - 1].equals("-seed")) {
+				this.seed = Long.parseLong(value);
+			} else {
+				throw new Exception("Unknown option " + args[i - 1]);
+			}
+		}
+	}
+
+	/**
+	 * Runs all benchmarks and prints their results as they finish.
+	 *
+	 * @throws Exception If a benchmark fails.
+	 */
+	private void run() throws Exception {
+		for (String family : this.families) {
+			for (int size : this.sizes) {
+				String name = family + "-" + size;
+				SimpleGraph graph = GraphFamilies.create(family, size, this.seed);
+				report(this.runner.run(name + " generate", () -> GraphFamilies.create(family, size, this.seed)));
+
+				File file = File.createTempFile(name, ".txt");
+				file.deleteOnExit();
+				GraphFamilies.save(graph, file.getPath());
+				benchmarkGraph(name, file.getPath(), graph);
+			}
+		}
+
+		for (File file : this.files) {
+			SimpleGraph graph = new SimpleGraph();
+			GraphInput.LoadSimpleGraph(graph, file.getPath());
+			benchmarkGraph(file.getName(), file.getPath(), graph);
+		}
+	}
+
+	/**
+	 * Benchmarks parsing, the graph representations and the algorithms on one
+	 * graph.
+	 *
+	 * @param name  The name of the graph.
+	 * @param path  The file of the graph.
+	 * @param graph The graph read from the file.
+	 * @throws Exception If a benchmark fails.
+	 */
+	private void benchmarkGraph(String name, String path, SimpleGraph graph) throws Exception {
+		report(this.runner.run(name + " parse", () -> {
+			SimpleGraph parsed = new SimpleGraph();
+			GraphInput.LoadSimpleGraph(parsed, path);
+			return parsed;
+		}));
+		report(this.runner.run(name + " residual-graph", () -> new ResidualGraph(graph)));
+		report(this.runner.run(name + " flow-network", () -> new FlowNetwork(graph)));
+		for (String solverName : this.solvers) {
+			MaxFlowSolver solver = SolverSelector.createSolver(solverName);
+			report(this.runner.run(name + " " + solverName, () -> solver.solve(graph, null)));
+		}
+	}
+
+	/**
+	 * Prints the result of a benchmark.
+	 *
+	 * @param result The result.
+	 */
+	private void report(BenchmarkResult result) {
+		System.out.println(result);
+	}
+}
@@ -0,0 +1,211 @@
+package benchmark;
+
+import AK.AKGraph;
+import Bipartite.BipartiteGraph;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.TextSink;
+import FixedDegree.RandomGraph;
+import Layered.LayeredGraph;
+import Mesh.MeshGenerator;
+import RMat.RMatGraph;
+import Random.BuildGraph;
+import Trap.TrapGraph;
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Builds graphs of the families of the graph generators in memory. Every graph
+ * is generated by the generator of its family in src/graph-generation straight
+ * into a {@link SimpleGraph}, the same graph that reading the file the
+ * generator writes with the same parameters and seed would give, so benchmarks
+ * and sweeps can cover any size without depending on generated files. Every
+ * graph is seeded, so the same family, size and seed always give the same
+ * graph, with any number of threads.
+ */
+public class GraphFamilies {
+	public static final String RANDOM = "Random";
+	public static final String BIPARTITE = "Bipartite";
+	public static final String FIXED_DEGREE = "FixedDegree";
+	public static final String MESH = "Mesh";
+	public static final String RMAT = "RMat";
+	public static final String LAYERED = "Layered";
+	public static final String AK = "AK";
+	public static final String TRAP = "Trap";
+
+	/**
+	 * All families, in the order benchmarks run them: the four families of random
+	 * graphs and meshes, then the stress families that slow the algorithms down.
+	 */
+	public static final String[] FAMILIES = { RANDOM, BIPARTITE, FIXED_DEGREE, MESH, RMAT, LAYERED, AK, TRAP };
+
+	private static final double DENSITY = 10;
+	private static final int MIN_CAPACITY = 1;
+	private static final int MAX_CAPACITY = 100;
+
+	/**
+	 * Generates a graph into a sink.
+	 */
+	private interface Generator {
+
+		/**
+		 * Generates the graph.
+		 *
+		 * @param sink Receives the edges.
+		 * @throws Exception If the sink does not accept the edges.
+		 */
+		void generate(EdgeSink sink) throws Exception;
+	}
+
+	/**
+	 * Adds the edges of a generator to a graph, creating the vertices in the
+	 * order the edges first name them, as {@link graph.GraphInput} does when it
+	 * reads the file.
+	 */
+	private static class GraphSink implements EdgeSink {
+		private SimpleGraph graph = new SimpleGraph();
+		private EdgeFormat format;
+		private Vertex[] vertices;
+
+		GraphSink(EdgeFormat format) {
+			this.format = format;
+			this.vertices = new Vertex[format.getVertexCount()];
+		}
+
+		@Override
+		public void accept(EdgeList edges) {
+			for (int i = 0; i < edges.size(); i++) {
+				Vertex tail = getVertex(edges.getTail(i));
+				Vertex head = getVertex(edges.getHead(i));
+				this.graph.insertEdge(tail, head, (double) edges.getCapacity(i), null);
+			}
+		}
+
+		private Vertex getVertex(int number) {
+			if (this.vertices[number] == null) {
+				this.vertices[number] = this.graph.insertVertex(null, this.format.getName(number));
+			}
+			return this.vertices[number];
+		}
+
+		SimpleGraph getGraph() {
+			return this.graph;
+		}
+	}
+
+	/**
+	 * Creates a graph of the given family with about the given number of vertices
+	 * besides the source and the sink, a density of 10% and capacities from 1 to
+	 * 100.
+	 *
+	 * @param family One of the family names of this class.
+	 * @param size   Number of vertices besides the source and the sink.
+	 * @param seed   Seed of the random capacities and edges.
+	 * @return The generated graph.
+	 * @throws Exception If the family is unknown.
+	 */
+	public static SimpleGraph create(String family, int size, long seed) throws Exception {
+		return create(family, size + 2, DENSITY, MIN_CAPACITY, MAX_CAPACITY, seed, 1, null);
+	}
+
+	/**
+	 * Creates a graph of the given family with its generator, and optionally
+	 * also writes it in the input format.
+	 *
+	 * @param family      One of the family names of this class.
+	 * @param size        Number of vertices including the source and the sink.
+	 * @param density     Chance in percent that a pair of vertices is connected;
+	 *                    for FixedDegree, Layered and Trap the share of the other
+	 *                    vertices, of the next layer or of the trap every vertex
+	 *                    reaches, and not used by Mesh and AK.
+	 * @param minCapacity Lower bound on the capacities, of the trap for Trap.
+	 * @param maxCapacity Upper bound on the capacities, of the trap for Trap.
+	 * @param seed        Seed of the random capacities and edges.
+	 * @param threads     Number of threads generating the graph.
+	 * @param copy        The stream the graph is also written to, or null.
+	 * @return The generated graph.
+	 * @throws Exception If the family is unknown or the graph cannot be written.
+	 */
+	public static SimpleGraph create(String family, int size, double density, int minCapacity, int maxCapacity,
+			long seed, int threads, OutputStream copy) throws Exception {
+		EdgeFormat format;
+		Generator generator;
+		if (family.equals(RANDOM)) {
+			format = BuildGraph.format(size);
+			generator = sink -> BuildGraph.buildGraph(sink, size, density, minCapacity, maxCapacity, seed, threads);
+		} else if (family.equals(BIPARTITE)) {
+			int n = (size - 2) / 2;
+			int m = size - 2 - n;
+			format = BipartiteGraph.format(n, m);
+			generator = sink -> BipartiteGraph.buildGraph(sink, n, m, density / 100, minCapacity, maxCapacity, seed,
+					threads);
+		} else if (family.equals(FIXED_DEGREE)) {
+			int v = size - 2;
+			int e = (int) Math.max(1, Math.min(v - 1, Math.round(density / 100 * (v - 1))));
+			format = RandomGraph.format(v);
+			generator = sink -> RandomGraph.graphBuilder(sink, v, e, minCapacity, maxCapacity, seed, threads);
+		} else if (family.equals(MESH)) {
+			int rows = Math.max(1, (int) Math.sqrt(size - 2));
+			MeshGenerator mesh = new MeshGenerator(rows, Math.max(1, (size - 2) / rows), minCapacity, maxCapacity,
+					seed, threads);
+			format = mesh.format();
+			generator = mesh::generate;
+		} else if (family.equals(RMAT)) {
+			long edges = Math.round(density / 100 * size * (size - 1));
+			format = RMatGraph.format(size);
+			generator = sink -> RMatGraph.buildGraph(sink, size, edges, 0.57, 0.19, 0.19, minCapacity, maxCapacity,
+					seed, threads);
+		} else if (family.equals(LAYERED)) {
+			// Layers as wide as the cube root of the vertices make networks much longer than wide
+			int width = Math.max(1, (int) Math.round(Math.cbrt(size - 2)));
+			int layers = Math.max(1, (size - 2) / width);
+			// Two edges per vertex at least, since with one the layers fall apart into chains
+			int degree = (int) Math.max(Math.min(2, width), Math.min(width, Math.round(density / 100 * width)));
+			format = LayeredGraph.format(layers, width);
+			generator = sink -> LayeredGraph.buildGraph(sink, layers, width, degree, minCapacity, maxCapacity, seed,
+					threads);
+		} else if (family.equals(AK)) {
+			int k = Math.max(1, (size - 2) / 3);
+			format = AKGraph.format(k);
+			generator = sink -> AKGraph.buildGraph(sink, k, threads);
+		} else if (family.equals(TRAP)) {
+			int trap = Math.max(2, (size - 3) / 2);
+			int paths = Math.max(1, size - 3 - trap);
+			int degree = (int) Math.max(1, Math.min(trap - 1, Math.round(density / 100 * (trap - 1))));
+			format = TrapGraph.format(paths, trap);
+			generator = sink -> TrapGraph.buildGraph(sink, paths, trap, degree, minCapacity, maxCapacity, seed,
+					threads);
+		} else {
+			throw new Exception("Unknown graph family " + family);
+		}
+
+		GraphSink graphSink = new GraphSink(format);
+		generator.generate(copy == null ? graphSink : EdgeSink.both(new TextSink(copy, format), graphSink));
+		return graphSink.getGraph();
+	}
+
+	/**
+	 * Writes a graph in the input format, one line "tail head capacity" per edge.
+	 *
+	 * @param graph The graph to write.
+	 * @param path  The file to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void save(SimpleGraph graph, String path) throws IOException {
+		try (FileWriter writer = new FileWriter(path)) {
+			Iterator edgeIterator = graph.edges();
+			while (edgeIterator.hasNext()) {
+				Edge edge = (Edge) edgeIterator.next();
+				writer.write(edge.getFirstEndpoint().getName() + " " + edge.getSecondEndpoint().getName() + " "
+						+ edge.getData() + "\n");
+			}
+		}
+	}
+}
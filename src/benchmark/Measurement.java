@@ -0,0 +1,306 @@
+package benchmark;
+
+import algorithms.MaxFlowSolver;
+import algorithms.SolveBudget;
+import algorithms.SolverSelector;
+import graph.SimpleGraph;
+import model.FlowNetwork;
+import model.FlowResult;
+import model.ResidualGraph;
+import model.SolverStatistics;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Repeated runs of one algorithm on one graph. Warmup runs let the JIT compiler
+ * compile the algorithm and are not recorded; for every measured run the time
+ * to build the algorithm's representation of the graph and the time to solve
+ * are recorded separately, so their minimum, median and 95th percentile can be
+ * reported. Every run gets a new instance of the algorithm, so no state is
+ * carried from one run to the next. The result and counters are those of the
+ * last run, which are the same in every run of these deterministic algorithms.
+ * <p>
+ * The bytes every run allocates are always counted. The size of the graph
+ * representation while it is held and the peak heap during a run are only
+ * measured on request, since they need full garbage collections around the
+ * runs, and they are only meaningful while no other computation uses the heap.
+ */
+public class Measurement {
+	private String graph;
+	private String algorithm;
+	private int vertices;
+	private int edges;
+	private long loadNanos;
+	private long[] buildNanos;
+	private long[] solveNanos;
+	private long[] allocatedBytes;
+	private long retainedBytes = -1;
+	private long peakHeapBytes = -1;
+	private FlowResult result;
+
+	/**
+	 * Constructor to create the measurement of an algorithm on a graph.
+	 *
+	 * @param graph      The name of the graph.
+	 * @param algorithm  The name of the algorithm.
+	 * @param vertices   Number of vertices of the graph.
+	 * @param edges      Number of edges of the graph.
+	 * @param loadNanos  Time to read the graph file in nanoseconds.
+	 * @param buildNanos Time to build the graph representation in every run.
+	 * @param solveNanos Time to solve in every run.
+	 * @param allocated  Bytes allocated by every run, or -1 if the JVM cannot
+	 *                   tell.
+	 * @param result     The result of the last run.
+	 */
+	public Measurement(String graph, String algorithm, int vertices, int edges, long loadNanos, long[] buildNanos,
+			long[] solveNanos, long[] allocated, FlowResult result) {
+		this.graph = graph;
+		this.algorithm = algorithm;
+		this.vertices = vertices;
+		this.edges = edges;
+		this.loadNanos = loadNanos;
+		this.buildNanos = buildNanos;
+		this.solveNanos = solveNanos;
+		this.allocatedBytes = allocated;
+		this.result = result;
+	}
+
+	/**
+	 * Runs an algorithm on a graph the given number of times and records the
+	 * measured runs.
+	 *
+	 * @param graphName Name of the graph in the reports.
+	 * @param graph     The graph.
+	 * @param loadNanos Time it took to read the graph file in nanoseconds.
+	 * @param solvers   Creates the algorithm for every run.
+	 * @param budgets   Creates the budget of every run; it may return null.
+	 * @param warmup    Number of runs before measuring.
+	 * @param runs      Number of measured runs, at least 1.
+	 * @param heap      Whether to measure the retained size of the graph
+	 *                  representation and the peak heap of the runs.
+	 * @return The measurement.
+	 * @throws Exception If a run fails.
+	 */
+	public static Measurement measure(String graphName, SimpleGraph graph, long loadNanos,
+			Callable<MaxFlowSolver> solvers, Supplier<SolveBudget> budgets, int warmup, int runs, boolean heap)
+			throws Exception {
+		for (int i = 0; i < warmup; i++) {
+			solvers.call().solve(graph, budgets.get());
+		}
+		long[] buildNanos = new long[Math.max(1, runs)];
+		long[] solveNanos = new long[buildNanos.length];
+		long[] allocated = new long[buildNanos.length];
+		long peakHeap = -1;
+		MaxFlowSolver solver = null;
+		FlowResult result = null;
+		for (int i = 0; i < buildNanos.length; i++) {
+			solver = solvers.call();
+			long baseline = 0;
+			if (heap) {
+				MemoryProbe.collectGarbage();
+				baseline = MemoryProbe.getUsedHeap();
+				MemoryProbe.resetPeakHeap();
+			}
+			long allocatedBefore = MemoryProbe.getAllocatedBytes();
+			result = solver.solve(graph, budgets.get());
+			allocated[i] = allocatedBefore < 0 ? -1 : MemoryProbe.getAllocatedBytes() - allocatedBefore;
+			if (heap) {
+				peakHeap = Math.max(peakHeap, MemoryProbe.getPeakHeap() - baseline);
+			}
+			buildNanos[i] = result.getStatistics().getBuildTimeNanos();
+			solveNanos[i] = result.getStatistics().getSolveTimeNanos();
+		}
+		Measurement measurement = new Measurement(graphName, solver.getName(), graph.numVertices(),
+				graph.numEdges(), loadNanos, buildNanos, solveNanos, allocated, result);
+		if (heap) {
+			measurement.peakHeapBytes = peakHeap;
+			String algorithm = solver.getName();
+			measurement.retainedBytes = MemoryProbe.measureRetainedBytes(() -> buildRepresentation(algorithm, graph));
+		}
+		return measurement;
+	}
+
+	/**
+	 * Builds the representation of the graph an algorithm works on, the same way
+	 * its solve method does before solving, so its retained size can be measured.
+	 *
+	 * @param algorithm The name of the algorithm, as defined by
+	 *                  {@link SolverSelector}.
+	 * @param graph     The graph.
+	 * @return The representation of the graph.
+	 * @throws Exception If the algorithm is unknown or the graph has no source or
+	 *                   sink.
+	 */
+	private static Object buildRepresentation(String algorithm, SimpleGraph graph) throws Exception {
+		if (algorithm.equals(SolverSelector.NETWORK_PREFLOW_PUSH)) {
+			return new FlowNetwork(graph);
+		} else if (algorithm.equals(SolverSelector.FORD_FULKERSON)
+				|| algorithm.equals(SolverSelector.SCALING_FORD_FULKERSON)
+				|| algorithm.equals(SolverSelector.PREFLOW_PUSH)) {
+			return new ResidualGraph(graph);
+		}
+		throw new Exception("Unknown algorithm " + algorithm);
+	}
+
+	/**
+	 * Get the name of the graph.
+	 *
+	 * @return The name of the graph.
+	 */
+	public String getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Get the name of the algorithm.
+	 *
+	 * @return The name of the algorithm, as defined by {@link SolverSelector}.
+	 */
+	public String getAlgorithm() {
+		return this.algorithm;
+	}
+
+	/**
+	 * Get the number of vertices of the graph.
+	 *
+	 * @return Number of vertices.
+	 */
+	public int getVertices() {
+		return this.vertices;
+	}
+
+	/**
+	 * Get the number of edges of the graph.
+	 *
+	 * @return Number of edges.
+	 */
+	public int getEdges() {
+		return this.edges;
+	}
+
+	/**
+	 * Get the number of measured runs.
+	 *
+	 * @return Number of runs.
+	 */
+	public int getRuns() {
+		return this.solveNanos.length;
+	}
+
+	/**
+	 * Get the time it took to read the graph file.
+	 *
+	 * @return Load time in nanoseconds.
+	 */
+	public long getLoadNanos() {
+		return this.loadNanos;
+	}
+
+	/**
+	 * Get a percentile of the bytes allocated by the measured runs.
+	 *
+	 * @param percentile The percentile between 0 and 100.
+	 * @return Allocated bytes, or -1 if the JVM cannot tell.
+	 */
+	public long getAllocatedBytes(double percentile) {
+		return percentile(this.allocatedBytes, percentile);
+	}
+
+	/**
+	 * Get the heap the graph representation of the algorithm takes while it is
+	 * held.
+	 *
+	 * @return Retained size in bytes, or -1 if it was not measured.
+	 */
+	public long getRetainedBytes() {
+		return this.retainedBytes;
+	}
+
+	/**
+	 * Get the largest growth of the heap during a measured run, over the live
+	 * heap before the run.
+	 *
+	 * @return Peak heap growth in bytes, or -1 if it was not measured.
+	 */
+	public long getPeakHeapBytes() {
+		return this.peakHeapBytes;
+	}
+
+	/**
+	 * Get the result of the last run.
+	 *
+	 * @return The flow, its upper bound and the statistics of the run.
+	 */
+	public FlowResult getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Get the counters of the last run.
+	 *
+	 * @return The statistics of the run.
+	 */
+	public SolverStatistics getStatistics() {
+		return this.result.getStatistics();
+	}
+
+	/**
+	 * Get a percentile of the build times of the measured runs.
+	 *
+	 * @param percentile The percentile between 0 and 100; 50 is the median.
+	 * @return The build time in nanoseconds.
+	 */
+	public long getBuildNanos(double percentile) {
+		return percentile(this.buildNanos, percentile);
+	}
+
+	/**
+	 * Get a percentile of the solve times of the measured runs.
+	 *
+	 * @param percentile The percentile between 0 and 100; 0 is the minimum and 50
+	 *                   the median.
+	 * @return The solve time in nanoseconds.
+	 */
+	public long getSolveNanos(double percentile) {
+		return percentile(this.solveNanos, percentile);
+	}
+
+	/**
+	 * Get a percentile of the total times, build and solve, of the measured runs.
+	 *
+	 * @param percentile The percentile between 0 and 100.
+	 * @return The total time in nanoseconds.
+	 */
+	public long getTotalNanos(double percentile) {
+		long[] totals = new long[this.solveNanos.length];
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] = this.buildNanos[i] + this.solveNanos[i];
+		}
+		return percentile(totals, percentile);
+	}
+
+	/**
+	 * Get a percentile of the given values with the nearest rank method, so the
+	 * result is always one of the measured values.
+	 *
+	 * @param values     The measured values of the runs.
+	 * @param percentile The percentile between 0 and 100.
+	 * @return The smallest value that is at least as large as the given
+	 *         percentage of the values.
+	 */
+	private static long percentile(long[] values, double percentile) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+		return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("build %.3f ms, solve min %.3f / median %.3f / p95 %.3f ms over %d runs",
+				getBuildNanos(50) / 1e6, getSolveNanos(0) / 1e6, getSolveNanos(50) / 1e6, getSolveNanos(95) / 1e6,
+				getRuns());
+	}
+}
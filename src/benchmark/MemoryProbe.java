@@ -0,0 +1,129 @@
+package benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.Reference;
+import java.util.concurrent.Callable;
+
+/**
+ * Reads the memory figures of the JVM that benchmarks and measurements report.
+ * Allocations are counted per thread and are exact for work done on the calling
+ * thread. Heap figures are for the whole JVM, so they only describe one
+ * computation while nothing else runs.
+ */
+public class MemoryProbe {
+
+	/**
+	 * Get the number of bytes the current thread has allocated so far.
+	 *
+	 * @return Allocated bytes, or -1 if the JVM does not count them.
+	 */
+	public static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+			if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+				return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the heap in use, live objects and garbage that has not been collected
+	 * yet.
+	 *
+	 * @return Used heap in bytes.
+	 */
+	public static long getUsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Starts a new peak heap measurement by setting the peak of every heap pool
+	 * to its current use.
+	 */
+	public static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Get the peak heap use since the last {@link #resetPeakHeap()}. The pools
+	 * may reach their peaks at different times, so the sum of their peaks is an
+	 * upper bound of the real peak.
+	 *
+	 * @return Peak heap in bytes.
+	 */
+	public static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/**
+	 * Collects the garbage, so the used heap afterwards is close to the size of
+	 * the live objects.
+	 */
+	public static void collectGarbage() {
+		// A single request may leave objects that became unreachable during the
+		// collection, or be ignored while another collection is running
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+	}
+
+	/**
+	 * Measures the heap an object takes while it is reachable: the growth of the
+	 * live heap between before creating it and after, while it is still held.
+	 *
+	 * @param creation Creates the object.
+	 * @return Retained size of the object in bytes.
+	 * @throws Exception If the creation fails.
+	 */
+	public static long measureRetainedBytes(Callable<?> creation) throws Exception {
+		collectGarbage();
+		long before = getUsedHeap();
+		Object retained = creation.call();
+		collectGarbage();
+		long after = getUsedHeap();
+		Reference.reachabilityFence(retained);
+		return Math.max(0, after - before);
+	}
+
+	/**
+	 * Get the number of garbage collections of all collectors so far.
+	 *
+	 * @return Number of collections.
+	 */
+	public static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, collector.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * Get the time all collectors spent collecting so far.
+	 *
+	 * @return Collection time in milliseconds.
+	 */
+	public static long getGcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, collector.getCollectionTime());
+		}
+		return millis;
+	}
+}
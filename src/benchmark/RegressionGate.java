@@ -0,0 +1,285 @@
+package benchmark;
+
+import algorithms.SolverSelector;
+import graph.SimpleGraph;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the performance of the algorithms against a baseline recorded
+ * earlier, so a change that makes an algorithm slower or allocate more is
+ * noticed before it is merged. The gate measures every algorithm on a fixed
+ * set of seeded graphs of all generator families, including the stress
+ * families that are worst cases for some of the algorithms, and compares the
+ * median solve time and the median bytes allocated per run with the baseline
+ * file. It prints one line per graph and algorithm and exits with status 1 if
+ * any of them got worse than the thresholds allow or computes a different flow,
+ * or if a measurement has no row in the baseline or a row of the baseline was
+ * not measured, so a baseline of other graphs cannot pass without comparing.
+ * <p>
+ * The graphs are generated in memory by {@link GraphFamilies} rather than read
+ * from a subset of the graph files in the repository, so the gate needs no
+ * files, runs offline on any machine, and measures the same graphs for a seed
+ * whatever files are around.
+ * <p>
+ * Times depend on the machine, so a baseline should be recorded and compared on
+ * the same one. A slower solve only counts once it also takes longer than the
+ * spread of the solve times, the 95th percentile minus the median of the
+ * baseline or of the current measurement, whichever is larger, and than a small
+ * absolute floor, so short solves are gated as well as long ones without
+ * failing on the jitter of noisy runs. Fewer warmup runs leave the JIT
+ * compiler working during the measurements, which makes both times and
+ * allocations vary between runs of the gate.
+ * <p>
+ * Usage: java -Xss64m -cp .:graph-generation benchmark.RegressionGate baseline.csv [options]
+ * <ul>
+ * <li>-record: measure and write the baseline file instead of comparing</li>
+ * <li>-threshold fraction: largest accepted growth of the median solve time, 0.25 by default</li>
+ * <li>-allocation fraction: largest accepted growth of the allocated bytes, 0.10 by default</li>
+ * <li>-noise ms: growth of the median solve time that is always accepted, whatever the spread, 0.05 by default</li>
+ * <li>-warmup n: runs before measuring, 10 by default</li>
+ * <li>-runs n: measured runs of every algorithm, 10 by default</li>
+ * </ul>
+ */
+public class RegressionGate {
+	/** Number of vertices of the graphs of every family. */
+	private static final int[] SIZES = { 200, 400 };
+
+	/** Seed of the graphs, the same as the default of {@link BenchmarkSuite}. */
+	private static final long SEED = 543;
+
+	private static final String[] SOLVERS = { SolverSelector.FORD_FULKERSON, SolverSelector.SCALING_FORD_FULKERSON,
+			SolverSelector.PREFLOW_PUSH, SolverSelector.NETWORK_PREFLOW_PUSH };
+
+	private String baselinePath;
+	private boolean record;
+	private double timeThreshold = 0.25;
+	private double allocationThreshold = 0.10;
+	private double noiseMillis = 0.05;
+	private int warmup = 10;
+	private int runs = 10;
+
+	public static void main(String[] args) throws Exception {
+		RegressionGate gate = new RegressionGate();
+		gate.parse(args);
+		if (!gate.run()) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Parses the baseline path and options of the command line.
+	 *
+	 * @param args Command-line arguments.
+	 * @throws Exception If the baseline path is missing, or an option is unknown
+	 *                   or misses its value.
+	 */
+	private void parse(String[] args) throws Exception {
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				this.baselinePath = args[i];
+			} else if (args[i].equals("-record")) {
+				this.record = true;
+			} else if (i + 1 >= args.length) {
+				throw new Exception("Option " + args[i] + " needs a value");
+			} else if (args[i].equals("-threshold")) {
+				this.timeThreshold = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-allocation")) {
+				this.allocationThreshold = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-noise")) {
+				this.noiseMillis = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-warmup")) {
+				this.warmup = Math.max(0, Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-runs")) {
+				this.runs = Math.max(1, Integer.parseInt(args[++i]));
+			} else {
+				throw new Exception("Unknown option " + args[i]);
+			}
+		}
+		if (this.baselinePath == null) {
+			throw new Exception("Missing the path of the baseline file");
+		}
+	}
+
+	/**
+	 * Measures the algorithms, and either records them as the baseline or
+	 * compares them with it.
+	 *
+	 * @return Whether no algorithm got worse than the thresholds allow.
+	 * @throws Exception If a measurement fails or the baseline cannot be read or
+	 *                   written.
+	 */
+	private boolean run() throws Exception {
+		List<Measurement> measurements = measure();
+		if (this.record) {
+			ResultWriter.writeCsv(measurements, this.baselinePath);
+			System.out.println("Baseline of " + measurements.size() + " measurements written to " + this.baselinePath);
+			return true;
+		}
+
+		Map<String, Map<String, String>> baseline = readCsv(this.baselinePath);
+		int regressions = 0;
+		int unmatched = 0;
+		for (Measurement measurement : measurements) {
+			String key = measurement.getGraph() + " " + measurement.getAlgorithm();
+			Map<String, String> row = baseline.remove(key);
+			if (row == null) {
+				System.out.println(key + ": not in the baseline");
+				unmatched++;
+			} else if (!compare(key, measurement, row)) {
+				regressions++;
+			}
+		}
+		for (String key : baseline.keySet()) {
+			System.out.println(key + ": in the baseline but not measured");
+			unmatched++;
+		}
+
+		// A baseline of other graphs or algorithms compares nothing, so rows without
+		// a counterpart fail the gate as well
+		if (regressions > 0 || unmatched > 0) {
+			System.out.println(regressions + " of " + measurements.size() + " measurements regressed, " + unmatched
+					+ " measurements and baseline rows have no counterpart; record the baseline again with -record"
+					+ " if the set of graphs or algorithms changed");
+			return false;
+		}
+		System.out.println("No regressions in " + measurements.size() + " measurements");
+		return true;
+	}
+
+	/**
+	 * Measures every algorithm on every graph of the fixed set.
+	 *
+	 * @return The measurements, ordered by family, size and algorithm.
+	 * @throws Exception If a graph cannot be generated or an algorithm fails.
+	 */
+	private List<Measurement> measure() throws Exception {
+		List<Measurement> measurements = new ArrayList<>();
+		for (String family : GraphFamilies.FAMILIES) {
+			for (int size : SIZES) {
+				SimpleGraph graph = GraphFamilies.create(family, size, SEED);
+				for (String solverName : SOLVERS) {
+					measurements.add(Measurement.measure(family + "-" + size, graph, 0,
+							() -> SolverSelector.createSolver(solverName), () -> null, this.warmup, this.runs, false));
+				}
+			}
+		}
+		return measurements;
+	}
+
+	/**
+	 * Compares a measurement with its baseline and prints the outcome.
+	 *
+	 * @param key         The graph and algorithm of the measurement.
+	 * @param measurement The measurement.
+	 * @param row         The baseline, by column name.
+	 * @return Whether the measurement is within the thresholds and computed the
+	 *         same flow.
+	 */
+	private boolean compare(String key, Measurement measurement, Map<String, String> row) {
+		double baselineMillis = Double.parseDouble(row.get("solve_ms_median"));
+		double millis = measurement.getSolveNanos(50) / 1e6;
+		double baselineSpread = Double.parseDouble(row.get("solve_ms_p95")) - baselineMillis;
+		double spread = measurement.getSolveNanos(95) / 1e6 - millis;
+		double margin = Math.max(this.noiseMillis, Math.max(baselineSpread, spread));
+		long baselineBytes = Long.parseLong(row.get("allocated_bytes_median"));
+		long bytes = measurement.getAllocatedBytes(50);
+		double baselineFlow = Double.parseDouble(row.get("flow"));
+		double flow = measurement.getResult().getFlow();
+
+		List<String> problems = new ArrayList<>();
+		if (flow != baselineFlow) {
+			problems.add("flow " + baselineFlow + " -> " + flow);
+		}
+		if (millis > baselineMillis * (1 + this.timeThreshold) && millis - baselineMillis > margin) {
+			problems.add("solve time over the threshold");
+		}
+		if (baselineBytes >= 0 && bytes >= 0 && bytes > baselineBytes * (1 + this.allocationThreshold)) {
+			problems.add("allocation over the threshold");
+		}
+
+		System.out.println(String.format("%s: solve %.3f -> %.3f ms (%s), allocated %d -> %d bytes (%s)%s", key,
+				baselineMillis, millis, change(baselineMillis, millis), baselineBytes, bytes,
+				change(baselineBytes, bytes), problems.isEmpty() ? "" : " REGRESSION: " + String.join(", ", problems)));
+		return problems.isEmpty();
+	}
+
+	/**
+	 * Formats the relative change between a baseline value and the current one.
+	 *
+	 * @param baseline The baseline value.
+	 * @param current  The current value.
+	 * @return The change in percent with its sign.
+	 */
+	private static String change(double baseline, double current) {
+		if (baseline <= 0 || current < 0) {
+			return "n/a";
+		}
+		return String.format("%+.1f%%", (current - baseline) / baseline * 100);
+	}
+
+	/**
+	 * Reads the rows of a CSV file written by {@link ResultWriter}.
+	 *
+	 * @param path The file.
+	 * @return Every row by column name, keyed by its graph and algorithm.
+	 * @throws Exception If the file cannot be read or is empty.
+	 */
+	private static Map<String, Map<String, String>> readCsv(String path) throws Exception {
+		Map<String, Map<String, String>> rows = new LinkedHashMap<>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+			String headerLine = reader.readLine();
+			if (headerLine == null) {
+				throw new Exception("Baseline file " + path + " is empty; record it with -record first");
+			}
+			List<String> header = splitCsv(headerLine);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				List<String> values = splitCsv(line);
+				Map<String, String> row = new HashMap<>();
+				for (int i = 0; i < header.size() && i < values.size(); i++) {
+					row.put(header.get(i), values.get(i));
+				}
+				rows.put(row.get("graph") + " " + row.get("algorithm"), row);
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Splits a CSV line into its fields, removing the quotes of quoted fields.
+	 *
+	 * @param line The line.
+	 * @return The fields.
+	 */
+	private static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+				field.append('"');
+				i++;
+			} else if (c == '"') {
+				quoted = !quoted;
+			} else if (c == ',' && !quoted) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
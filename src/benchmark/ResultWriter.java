@@ -0,0 +1,133 @@
+package benchmark;
+
+import model.SolverStatistics;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Writes measurements as CSV or JSON, one row or object per algorithm and
+ * graph in the order they were measured. Times are in milliseconds. No dates or
+ * other details of the run itself are written, so the files of two versions
+ * can be compared line by line.
+ */
+public class ResultWriter {
+	private static final String[] COLUMNS = { "graph", "algorithm", "vertices", "edges", "flow", "upper_bound",
+			"optimal", "runs", "load_ms", "build_ms_median", "solve_ms_min", "solve_ms_median", "solve_ms_p95",
+			"allocated_bytes_median", "retained_bytes", "peak_heap_bytes", "augmenting_paths", "arcs_scanned",
+			"pushes", "relabels", "global_relabels", "peak_active_vertices" };
+
+	/**
+	 * Writes measurements to a CSV file with a header line.
+	 *
+	 * @param measurements The measurements.
+	 * @param path         The file to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void writeCsv(List<Measurement> measurements, String path) throws IOException {
+		try (FileWriter writer = new FileWriter(path)) {
+			writer.write(String.join(",", COLUMNS) + "\n");
+			for (Measurement measurement : measurements) {
+				Object[] values = getValues(measurement);
+				StringBuilder line = new StringBuilder();
+				for (int i = 0; i < values.length; i++) {
+					if (i > 0) {
+						line.append(',');
+					}
+					line.append(values[i] instanceof String ? quoteCsv((String) values[i]) : values[i]);
+				}
+				writer.write(line + "\n");
+			}
+		}
+	}
+
+	/**
+	 * Writes measurements to a JSON file as an array of objects with the same
+	 * fields as the CSV columns.
+	 *
+	 * @param measurements The measurements.
+	 * @param path         The file to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void writeJson(List<Measurement> measurements, String path) throws IOException {
+		try (FileWriter writer = new FileWriter(path)) {
+			writer.write("[");
+			for (int m = 0; m < measurements.size(); m++) {
+				Object[] values = getValues(measurements.get(m));
+				writer.write(m > 0 ? ",\n  {" : "\n  {");
+				for (int i = 0; i < values.length; i++) {
+					writer.write((i > 0 ? ", " : "") + quoteJson(COLUMNS[i]) + ": ");
+					writer.write(values[i] instanceof String ? quoteJson((String) values[i]) : values[i].toString());
+				}
+				writer.write("}");
+			}
+			writer.write("\n]\n");
+		}
+	}
+
+	/**
+	 * Get the values of a measurement in the order of the columns.
+	 *
+	 * @param measurement The measurement.
+	 * @return Strings, numbers and booleans for every column.
+	 */
+	private static Object[] getValues(Measurement measurement) {
+		SolverStatistics statistics = measurement.getStatistics();
+		return new Object[] { measurement.getGraph(), measurement.getAlgorithm(), measurement.getVertices(),
+				measurement.getEdges(), measurement.getResult().getFlow(), measurement.getResult().getUpperBound(),
+				measurement.getResult().isOptimal(), measurement.getRuns(), millis(measurement.getLoadNanos()),
+				millis(measurement.getBuildNanos(50)), millis(measurement.getSolveNanos(0)),
+				millis(measurement.getSolveNanos(50)), millis(measurement.getSolveNanos(95)),
+				measurement.getAllocatedBytes(50), measurement.getRetainedBytes(), measurement.getPeakHeapBytes(),
+				statistics.getAugmentingPaths(), statistics.getArcsScanned(), statistics.getPushes(),
+				statistics.getRelabels(), statistics.getGlobalRelabels(), statistics.getPeakActiveVertices() };
+	}
+
+	/**
+	 * Converts nanoseconds to milliseconds rounded to three decimals, which are
+	 * always written in plain notation.
+	 *
+	 * @param nanos The time in nanoseconds.
+	 * @return The time in milliseconds.
+	 */
+	private static BigDecimal millis(long nanos) {
+		return BigDecimal.valueOf(nanos).movePointLeft(6).setScale(3, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Quotes a CSV field if it contains a separator, quote or line break.
+	 *
+	 * @param value The field.
+	 * @return The field as it is written.
+	 */
+	private static String quoteCsv(String value) {
+		if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+
+	/**
+	 * Quotes a JSON string.
+	 *
+	 * @param value The string.
+	 * @return The string in quotes with quotes, backslashes and control
+	 *         characters escaped.
+	 */
+	private static String quoteJson(String value) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < 0x20) {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
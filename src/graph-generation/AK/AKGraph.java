@@ -0,0 +1,134 @@
+package AK;
+
+import Common.BlockWriter;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+
+/**
+ * Generates networks that are hard for push-relabel, after the AK networks of
+ * Cherkassky and Goldberg (On implementing push-relabel method for the maximum
+ * flow problem, 1997). They have no randomness; their size grows with k, and
+ * they are built from two modules hanging off the source:
+ * <ul>
+ * <li>a dead end: a path d1 to dk with capacity k, entered from the source with
+ * capacity k and left to the sink with capacity 1, so nearly all the flow
+ * pushed into it has to be pushed back to the source;</li>
+ * <li>a staircase: a path c1 to ck entered from the source with capacity k,
+ * whose capacities drop by one at every step, and where every ci drips one
+ * unit into the vertex pi of a drain path running from pk back to p1 and the
+ * sink, so every unit takes its own way down the drain and the units cannot be
+ * pushed together.</li>
+ * </ul>
+ * The maximum flow is k + 1, and push-relabel needs about k^2 pushes for it,
+ * even with global relabeling and the gap heuristic, while the augmenting path
+ * algorithms each search the whole network for every one of the k + 1 units.
+ * <p>
+ * Usage: java AK.AKGraph k output.txt [-threads n]
+ */
+public class AKGraph {
+	/** Approximate number of edges in a block. */
+	private static final int BLOCK_EDGES = 1 << 15;
+
+	/**
+	 * Generates an AK network. The source is numbered 0, di is numbered i, ci is
+	 * numbered k + i, pi is numbered 2k + i and the sink 3k + 1. The first third
+	 * of the blocks holds the dead end, the second the staircase and the last one
+	 * the drain.
+	 *
+	 * @param sink    Receives the edges.
+	 * @param k       Length of the paths.
+	 * @param threads Number of threads.
+	 * @return Number of edges generated.
+	 * @throws Exception If the sink does not accept the edges.
+	 */
+	public static long buildGraph(EdgeSink sink, int k, int threads) throws Exception {
+		int moduleBlocks = (k + BLOCK_EDGES - 1) / BLOCK_EDGES;
+		return BlockWriter.write(3 * moduleBlocks, 0, threads, (block, random, out) -> {
+			int first = (block % moduleBlocks) * BLOCK_EDGES + 1;
+			int last = Math.min(k, first + BLOCK_EDGES - 1);
+			for (int i = first; i <= last; i++) {
+				addEdges(out, block / moduleBlocks, i, k);
+			}
+		}, sink);
+	}
+
+	/**
+	 * Returns the format of the vertices: s, d1 to dk, c1 to ck, p1 to pk and t.
+	 *
+	 * @param k Length of the paths.
+	 * @return The format.
+	 */
+	public static EdgeFormat format(int k) {
+		return new EdgeFormat() {
+			@Override
+			public int getVertexCount() {
+				return 3 * k + 2;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer out) {
+				if (vertex == 0) {
+					out.append('s');
+				} else if (vertex == 3 * k + 1) {
+					out.append('t');
+				} else {
+					out.append("dcp".charAt((vertex - 1) / k)).append((vertex - 1) % k + 1);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Adds the edges leaving the i-th vertex of a module, and the edge from the
+	 * source into the module if it is the first vertex.
+	 *
+	 * @param out    Where the edges are added.
+	 * @param module 0 for the dead end, 1 for the staircase, 2 for the drain.
+	 * @param i      The vertex of the module, from 1 to k.
+	 * @param k      Length of the paths.
+	 */
+	private static void addEdges(EdgeList out, int module, int i, int k) {
+		int t = 3 * k + 1;
+		if (module == 0) {
+			if (i == 1) {
+				out.add(0, 1, k);
+			}
+			out.add(i, i < k ? i + 1 : t, i < k ? k : 1);
+		} else if (module == 1) {
+			if (i == 1) {
+				out.add(0, k + 1, k);
+			}
+			if (i < k) {
+				out.add(k + i, k + i + 1, k - i);
+			}
+			out.add(k + i, 2 * k + i, 1);
+		} else {
+			out.add(2 * k + i, i > 1 ? 2 * k + i - 1 : t, k);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2 && !(args.length == 4 && args[2].equals("-threads"))) {
+			throw new Exception("Usage: java AK.AKGraph k output.txt [-threads n]");
+		}
+		int k = Integer.parseInt(args[0]);
+		String path = args[1];
+		int threads = BlockWriter.parseThreads(args.length == 4 ? args[3] : "0");
+		if (k < 1) {
+			throw new Exception("k should be at least 1");
+		}
+
+		long startTime = System.currentTimeMillis();
+		long edges;
+		try (OutputStream output = BlockWriter.open(path)) {
+			edges = buildGraph(new TextSink(output, format(k)), k, threads);
+		}
+		System.out.println("Wrote " + edges + " edges on " + (3 * k + 2) + " vertices to " + path + " in "
+				+ (System.currentTimeMillis() - startTime) + " ms");
+	}
+}
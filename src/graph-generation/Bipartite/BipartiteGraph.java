@@ -1,115 +1,246 @@
-package Bipartite;
-
-import java.io.*;
-import java.util.*;
-
-
-public class BipartiteGraph
-{
-	public static void main(String[] args) throws Exception
-	{
-		int n, m, maxCapacity, i, j, minCapacity;
-		double maxProbability, value, x;
-		System.out.println("\n\n---------------------------------------------------");
-		System.out.print("Enter number of nodes on the source side: \t");
-		n = GetInt();
-		System.out.print("Enter number of nodes on the sink side: \t");
-		m = GetInt();
-		System.out.print("Enter max probability: \t\t\t\t");
-		maxProbability = GetReal();
-		if(maxProbability > 1)
-		{
-			System.out.println("Max probability should be less than or equal to 1");
-			return;
-		}
-		System.out.print("Enter minimum capacity: \t\t\t");
-		minCapacity = GetInt();
-		System.out.print("Enter maximum capacity: \t\t\t");
-		maxCapacity = GetInt();
-		String directory = System.getProperty("user.dir");
-		System.out.print("Enter the output file name: \t\t\t");
-		String fileName = GetString() + ".txt";	
-		System.out.println("---------------------------------------------------\n");
-
-		try
-		{
-			PrintWriter outFile = new  PrintWriter(new FileWriter(new File(directory, fileName)));
-
-			double[][] edge = new double[n][m];
-			for(i=0; i<n; i++)
-			{
-				for(j=0; j<m; j++)
-				{
-					value = Math.random();
-					if(value <= maxProbability)
-						edge[i][j] = value;
-					else
-						edge[i][j] = 0;
-				}
-			}
-			
-			System.out.println("-----------------------------------------");
-			System.out.println("\tSource\tSink\tCapacity");
-			System.out.println("-----------------------------------------");			
-
-			//computing the edges out of source
-			for (i = 0; i < n; i++)
-			{
-				x=Math.random();
-				//Compute a capacity in range of [minCapacity, maxCapacity]
-				value = Math.floor(minCapacity + (x * (maxCapacity - minCapacity + 1)));
-				System.out.println("\t" + "s" + "\tl" + (i + 1) + "\t" + (int)value);
-				outFile.println("\t" + "s" + "\tl" + (i + 1) + "\t" + (int)value);
-			}
-			for(i=0; i<n; i++)
-			{
-				for(j=0; j<m; j++)
-				{				
-					if(edge[i][j] > 0)
-					{
-						edge[i][j] = Math.floor(minCapacity + (edge[i][j] * (maxCapacity - minCapacity + 1)));
-						System.out.println("\tl"+ (i+1) + "\tr" + (j+1) + "\t" + (int)edge[i][j]);
-						//computing for the vertices between source and sink and writing them to the output file
-						outFile.println("\tl"+ (i+1) + "\tr" + (j+1) + "\t" + (int)edge[i][j]);
-					}
-				}
-			}
-			//computing the edges into the sink
-			for (j=0; j < m; j++)
-			{
-				x=Math.random();
-				value = Math.floor(minCapacity + (x * (maxCapacity - minCapacity + 1)));
-				System.out.println("\tr" + (j+1) + "\t" + "t" + "\t" + (int)value);
-				outFile.println("\tr" + (j + 1) + "\t" + "t" + "\t" + (int)value);
-			}
-
-			System.out.println("\n\nOutput is created at: \t" + directory + "\\" + fileName);
-			outFile.close();
-		}
-		catch(Exception ex)
-		{
-			System.out.println(ex);
-		}
-	}
-
-	//helper functions
-	public static String GetString() throws IOException 
-	{
-		BufferedReader stringIn = new BufferedReader (new
-			InputStreamReader(System.in));
-		return  stringIn.readLine();
-	}
-
-	public static int GetInt() throws IOException 
-	{
-		String aux = GetString();
-		return Integer.parseInt(aux);
-	}
-
-	public static double GetReal() throws IOException 
-	{
-		String  aux = GetString();
-		Double d  = new Double(aux);
-		return  d.doubleValue() ;
-	}
-}
\ No newline at end of file
+package Bipartite;
+
+import Common.BlockWriter;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+
+/**
+ * Generates bipartite graphs: the source reaches every vertex on its side, every
+ * pair of a source side and a sink side vertex is connected with a chance up to
+ * the max probability, and every sink side vertex reaches the sink.
+ * <p>
+ * A pair is connected when a uniform random value is at most the max
+ * probability, and the capacity of its edge grows with that value. Rather than
+ * drawing the value for every pair, the generator draws the gap to the next
+ * connected pair from a geometric distribution, the same way as
+ * Random.BuildGraph, and then the value of the connected pair uniformly up to
+ * the max probability, which gives the same graphs without looking at every
+ * pair. The edges are streamed in blocks generated on several threads, each
+ * drawing from its own split of the seeded generator (see {@link BlockWriter}),
+ * so a seed gives the same graph with any number of threads.
+ * <p>
+ * Usage: java Bipartite.BipartiteGraph output.txt [options]
+ * <ul>
+ * <li>-source n: number of nodes on the source side, 100 by default</li>
+ * <li>-sink n: number of nodes on the sink side, 100 by default</li>
+ * <li>-probability p: max probability that a pair of nodes is connected, 0.5 by default</li>
+ * <li>-mincap c: minimum capacity, 1 by default</li>
+ * <li>-maxcap c: maximum capacity, 100 by default</li>
+ * <li>-seed n: seed of the random numbers, so the same graph can be generated again</li>
+ * <li>-threads n: number of threads, all processors by default</li>
+ * </ul>
+ */
+public class BipartiteGraph
+{
+	/** Approximate number of edges in a block. */
+	private static final int BLOCK_EDGES = 1 << 15;
+
+	public static void main(String[] args) throws Exception
+	{
+		String path = null;
+		int n = 100;
+		int m = 100;
+		double maxProbability = 0.5;
+		int minCapacity = 1;
+		int maxCapacity = 100;
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++)
+		{
+			if (!args[i].startsWith("-"))
+				path = args[i];
+			else if (i + 1 >= args.length)
+				throw new Exception("Option " + args[i] + " needs a value");
+			else if (args[i].equals("-source"))
+				n = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-sink"))
+				m = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-probability"))
+				maxProbability = Double.parseDouble(args[++i]);
+			else if (args[i].equals("-mincap"))
+				minCapacity = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-maxcap"))
+				maxCapacity = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-seed"))
+				seed = Long.parseLong(args[++i]);
+			else if (args[i].equals("-threads"))
+				threads = BlockWriter.parseThreads(args[++i]);
+			else
+				throw new Exception("Unknown option " + args[i]);
+		}
+		if (path == null)
+			throw new Exception("Usage: java Bipartite.BipartiteGraph output.txt [-source n] [-sink n]"
+					+ " [-probability p] [-mincap c] [-maxcap c] [-seed n] [-threads n]");
+		if (maxProbability > 1)
+			throw new Exception("Max probability should be less than or equal to 1");
+		if (maxCapacity < minCapacity)
+			throw new Exception("Max capacity " + maxCapacity + " is below min capacity " + minCapacity);
+
+		long startTime = System.currentTimeMillis();
+		long edges;
+		try (OutputStream outFile = BlockWriter.open(path))
+		{
+			edges = buildGraph(new TextSink(outFile, format(n, m)), n, m, maxProbability, minCapacity, maxCapacity,
+					seed, threads);
+		}
+		System.out.println("Wrote " + edges + " edges on " + n + " + " + m + " nodes to " + path + " (seed " + seed
+				+ ") in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+
+	/**
+	 * Generates a bipartite graph. The first blocks hold the edges out of the
+	 * source, the last ones the edges into the sink, and the blocks between them
+	 * ranges of the pairs of a source side and a sink side node, taken row by
+	 * row, each expected to hold about the same number of edges. The source is
+	 * numbered 0, node li is numbered i, node rj is numbered n + j and the sink
+	 * n + m + 1.
+	 *
+	 * @param sink           Receives the edges.
+	 * @param n              Number of nodes on the source side.
+	 * @param m              Number of nodes on the sink side.
+	 * @param maxProbability Largest chance that a pair of nodes is connected.
+	 * @param minCapacity    Lower bound on the capacities.
+	 * @param maxCapacity    Upper bound on the capacities.
+	 * @param seed           Seed of the random numbers.
+	 * @param threads        Number of threads.
+	 * @return Number of edges generated.
+	 * @throws Exception If the sink does not accept the edges.
+	 */
+	public static long buildGraph(EdgeSink sink, int n, int m, double maxProbability, int minCapacity,
+			int maxCapacity, long seed, int threads) throws Exception
+	{
+		long pairs = (long) n * m;
+		long pairsPerBlock = maxProbability > 0
+				? Math.max((long) Math.ceil(BLOCK_EDGES / maxProbability), pairs / Integer.MAX_VALUE + 1) : pairs + 1;
+		int sourceBlocks = (n + BLOCK_EDGES - 1) / BLOCK_EDGES;
+		int pairBlocks = maxProbability > 0 ? (int) ((pairs + pairsPerBlock - 1) / pairsPerBlock) : 0;
+		int sinkBlocks = (m + BLOCK_EDGES - 1) / BLOCK_EDGES;
+		return BlockWriter.write(sourceBlocks + pairBlocks + sinkBlocks, seed, threads, (block, random, out) -> {
+			if (block < sourceBlocks)
+			{
+				//computing the edges out of source
+				int last = Math.min(n, (block + 1) * BLOCK_EDGES);
+				for (int i = block * BLOCK_EDGES; i < last; i++)
+					out.add(0, i + 1, capacity(random.nextDouble(), minCapacity, maxCapacity));
+			}
+			else if (block >= sourceBlocks + pairBlocks)
+			{
+				//computing the edges into the sink
+				int first = (block - sourceBlocks - pairBlocks) * BLOCK_EDGES;
+				int last = Math.min(m, first + BLOCK_EDGES);
+				for (int j = first; j < last; j++)
+					out.add(n + j + 1, n + m + 1, capacity(random.nextDouble(), minCapacity, maxCapacity));
+			}
+			else
+			{
+				//computing the edges between the source and sink sides
+				long first = (block - sourceBlocks) * pairsPerBlock;
+				addPairs(out, first, Math.min(pairs, first + pairsPerBlock), n, m, maxProbability, minCapacity,
+						maxCapacity, random);
+			}
+		}, sink);
+	}
+
+	/**
+	 * Returns the format of the nodes: s, l1 to ln, r1 to rm and t, with a tab
+	 * before every token.
+	 *
+	 * @param n Number of nodes on the source side.
+	 * @param m Number of nodes on the sink side.
+	 * @return The format.
+	 */
+	public static EdgeFormat format(int n, int m)
+	{
+		return new EdgeFormat()
+		{
+			@Override
+			public int getVertexCount()
+			{
+				return n + m + 2;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer out)
+			{
+				if (vertex == 0)
+					out.append('s');
+				else if (vertex <= n)
+					out.append('l').append(vertex);
+				else if (vertex <= n + m)
+					out.append('r').append(vertex - n);
+				else
+					out.append('t');
+			}
+
+			@Override
+			public void appendEdge(int tail, int head, int capacity, LineBuffer out)
+			{
+				out.append('\t');
+				appendName(tail, out);
+				out.append('\t');
+				appendName(head, out);
+				out.append('\t').append(capacity).append('\n');
+			}
+		};
+	}
+
+	/**
+	 * Adds the connected pairs among a range of pairs. Pair k joins source side
+	 * node k / m with sink side node k % m, counting from 0. Since the gaps
+	 * between connected pairs are memoryless, every range draws them afresh from
+	 * its first pair.
+	 *
+	 * @param out            Where the edges are added.
+	 * @param first          The first pair of the range.
+	 * @param end            The pair after the last one of the range.
+	 * @param n              Number of nodes on the source side.
+	 * @param m              Number of nodes on the sink side.
+	 * @param maxProbability Largest chance that a pair of nodes is connected.
+	 * @param minCapacity    Lower bound on the capacities.
+	 * @param maxCapacity    Upper bound on the capacities.
+	 * @param random         The random numbers of the block.
+	 */
+	private static void addPairs(EdgeList out, long first, long end, int n, int m, double maxProbability,
+			int minCapacity, int maxCapacity, SplittableRandom random)
+	{
+		double logMiss = Math.log1p(-maxProbability);
+		long pair = first - 1;
+		while (true)
+		{
+			pair++;
+			if (maxProbability < 1)
+			{
+				// Compared as a double, since a gap can exceed any long for tiny probabilities
+				double skip = Math.floor(Math.log(1 - random.nextDouble()) / logMiss);
+				if (skip >= end - pair)
+					return;
+				pair += (long) skip;
+			}
+			if (pair >= end)
+				return;
+			// The value of a connected pair is uniform up to the max probability
+			double value = random.nextDouble() * maxProbability;
+			out.add((int) (pair / m) + 1, n + (int) (pair % m) + 1, capacity(value, minCapacity, maxCapacity));
+		}
+	}
+
+	/**
+	 * Computes a capacity in range of [minCapacity, maxCapacity].
+	 *
+	 * @param x           A random number in [0, 1).
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @return The capacity.
+	 */
+	private static int capacity(double x, int minCapacity, int maxCapacity)
+	{
+		return (int) Math.floor(minCapacity + (x * (maxCapacity - minCapacity + 1)));
+	}
+}
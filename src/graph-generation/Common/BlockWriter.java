@@ -0,0 +1,165 @@
+package Common;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a graph in blocks on several threads and hands the blocks to a
+ * sink in order. Every block draws its random numbers from its own
+ * {@link SplittableRandom}, split from the generator of the seed in block
+ * order before any block runs. Which thread generates a block, and when, has
+ * no influence on its random numbers, so for a given seed the graph is the
+ * same with any number of threads, as long as the generator divides the graph
+ * into the same blocks.
+ * <p>
+ * Only a few blocks per thread are held in memory at a time: a block is
+ * handed to the sink as soon as it and all blocks before it are done, and its
+ * {@link EdgeList} is then reused for a later block. Whether the graph is
+ * written to a file, built in memory or both, the memory of the generator
+ * grows with the size of a block rather than with the size of the graph.
+ */
+public class BlockWriter {
+	/** Size of the buffer of the output file. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Number of blocks per thread that may be generated ahead of the sink. */
+	private static final int BLOCKS_AHEAD = 2;
+
+	/**
+	 * Generates the edges of one block of a graph.
+	 */
+	public interface Block {
+
+		/**
+		 * Adds the edges of a block.
+		 *
+		 * @param block  The number of the block.
+		 * @param random The random numbers of the block.
+		 * @param out    Where the edges are added.
+		 */
+		void write(int block, SplittableRandom random, EdgeList out);
+	}
+
+	/**
+	 * Opens an output file with a large buffer. Closing the stream of the
+	 * standard output only flushes it, so the program can still print to it.
+	 *
+	 * @param path The file, or null for the standard output.
+	 * @return The stream.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public static OutputStream open(String path) throws IOException {
+		if (path == null) {
+			return new BufferedOutputStream(new FilterOutputStream(System.out) {
+				@Override
+				public void write(byte[] bytes, int offset, int length) throws IOException {
+					this.out.write(bytes, offset, length);
+				}
+
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+			}, BUFFER_SIZE);
+		}
+		return new BufferedOutputStream(new FileOutputStream(path), BUFFER_SIZE);
+	}
+
+	/**
+	 * Generates the blocks of a graph and hands them to a sink in order.
+	 *
+	 * @param blocks    Number of blocks.
+	 * @param seed      Seed of the random numbers.
+	 * @param threads   Number of threads generating blocks.
+	 * @param generator Generates a block.
+	 * @param sink      Receives the blocks.
+	 * @return Number of edges generated.
+	 * @throws Exception If a block fails or the sink does not accept it.
+	 */
+	public static long write(int blocks, long seed, int threads, Block generator, EdgeSink sink) throws Exception {
+		SplittableRandom root = new SplittableRandom(seed);
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+		try {
+			Deque<Future<EdgeList>> pending = new ArrayDeque<>();
+			ConcurrentLinkedQueue<EdgeList> free = new ConcurrentLinkedQueue<>();
+			long edges = 0;
+			for (int b = 0; b < blocks; b++) {
+				int block = b;
+				SplittableRandom random = root.split();
+				pending.add(pool.submit(() -> {
+					EdgeList out = free.poll();
+					if (out == null) {
+						out = new EdgeList();
+					}
+					out.clear();
+					generator.write(block, random, out);
+					sink.prepare(out);
+					return out;
+				}));
+				if (pending.size() >= BLOCKS_AHEAD * Math.max(1, threads)) {
+					edges += accept(sink, await(pending.poll()), free);
+				}
+			}
+			while (!pending.isEmpty()) {
+				edges += accept(sink, await(pending.poll()), free);
+			}
+			return edges;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Parses the number of threads of the command line.
+	 *
+	 * @param value The value of the option.
+	 * @return The number of threads, all processors for 0.
+	 */
+	public static int parseThreads(String value) {
+		int threads = Integer.parseInt(value);
+		return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Hands a finished block to the sink and returns its list for reuse.
+	 *
+	 * @param sink  Receives the block.
+	 * @param block The block.
+	 * @param free  The lists ready for reuse.
+	 * @return Number of edges of the block.
+	 * @throws Exception If the sink does not accept the block.
+	 */
+	private static int accept(EdgeSink sink, EdgeList block, ConcurrentLinkedQueue<EdgeList> free) throws Exception {
+		int edges = block.size();
+		sink.accept(block);
+		free.add(block);
+		return edges;
+	}
+
+	/**
+	 * Waits for a block.
+	 *
+	 * @param future The block being generated.
+	 * @param <T>    The type of the block.
+	 * @return The block.
+	 * @throws Exception The exception the block failed with.
+	 */
+	private static <T> T await(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+}
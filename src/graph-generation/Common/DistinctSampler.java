@@ -0,0 +1,85 @@
+package Common;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws sets of distinct numbers with Floyd's algorithm (Bentley and Floyd, A
+ * sample of brilliance, 1987), which takes exactly one random number per
+ * element drawn, however close the size of the set comes to the range. The
+ * numbers drawn so far are kept in a small open addressing table of primitive
+ * ints whose entries are stamped with the number of the draw, so the table is
+ * reused for every draw without clearing it and holds no boxed numbers.
+ */
+public class DistinctSampler {
+	private int[] keys = new int[0];
+	private int[] stamps = new int[0];
+	private int stamp;
+	private int mask;
+	private int shift;
+
+	/**
+	 * Draws distinct numbers from 0 up to a bound, every set of them equally
+	 * likely.
+	 *
+	 * @param count  How many numbers to draw, at most the bound.
+	 * @param bound  The numbers are below this bound.
+	 * @param random The random numbers.
+	 * @param result Receives the numbers in its first count entries.
+	 */
+	public void sample(int count, int bound, SplittableRandom random, int[] result) {
+		prepare(count);
+		int size = 0;
+		for (int j = bound - count; j < bound; j++) {
+			// Take a random number up to j, or j itself if that one is taken
+			int value = random.nextInt(j + 1);
+			if (!add(value)) {
+				value = j;
+				add(value);
+			}
+			result[size++] = value;
+		}
+	}
+
+	/**
+	 * Makes the table large enough for a draw and starts a new draw.
+	 *
+	 * @param count How many numbers the draw takes.
+	 */
+	private void prepare(int count) {
+		int capacity = Integer.highestOneBit(Math.max(2, 2 * count) - 1) << 1;
+		if (capacity > this.keys.length) {
+			this.keys = new int[capacity];
+			this.stamps = new int[capacity];
+			this.stamp = 0;
+		}
+		this.mask = this.keys.length - 1;
+		this.shift = 32 - Integer.numberOfTrailingZeros(this.keys.length);
+		this.stamp++;
+		if (this.stamp == 0) {
+			// The stamps wrapped around, so old entries could look current
+			Arrays.fill(this.stamps, 0);
+			this.stamp = 1;
+		}
+	}
+
+	/**
+	 * Adds a number to the current draw.
+	 *
+	 * @param value The number.
+	 * @return Whether the number was not drawn before.
+	 */
+	private boolean add(int value) {
+		// Fibonacci hashing spreads consecutive numbers over the table
+		int slot = (value * 0x9E3779B9) >>> this.shift;
+		while (this.stamps[slot] == this.stamp) {
+			if (this.keys[slot] == value) {
+				return false;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.stamps[slot] = this.stamp;
+		this.keys[slot] = value;
+		return true;
+	}
+}
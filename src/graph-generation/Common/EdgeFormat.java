@@ -0,0 +1,50 @@
+package Common;
+
+/**
+ * Names the numbered vertices of a generator in the files it writes, and
+ * formats its edges as lines of the form "tail head capacity".
+ */
+public interface EdgeFormat {
+
+	/**
+	 * Returns the number of vertices, so vertex numbers run from 0 up to it.
+	 *
+	 * @return The number of vertices.
+	 */
+	int getVertexCount();
+
+	/**
+	 * Appends the name of a vertex.
+	 *
+	 * @param vertex The number of the vertex.
+	 * @param out    Where the name is appended.
+	 */
+	void appendName(int vertex, LineBuffer out);
+
+	/**
+	 * Appends the line of an edge.
+	 *
+	 * @param tail     The number of the vertex the edge leaves.
+	 * @param head     The number of the vertex the edge enters.
+	 * @param capacity The capacity of the edge.
+	 * @param out      Where the line is appended.
+	 */
+	default void appendEdge(int tail, int head, int capacity, LineBuffer out) {
+		appendName(tail, out);
+		out.append(' ');
+		appendName(head, out);
+		out.append(' ').append(capacity).append('\n');
+	}
+
+	/**
+	 * Returns the name of a vertex.
+	 *
+	 * @param vertex The number of the vertex.
+	 * @return The name.
+	 */
+	default String getName(int vertex) {
+		LineBuffer name = new LineBuffer();
+		appendName(vertex, name);
+		return name.toString();
+	}
+}
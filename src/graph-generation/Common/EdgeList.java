@@ -0,0 +1,79 @@
+package Common;
+
+import java.util.Arrays;
+
+/**
+ * The edges of one block of a generated graph, as vertex numbers and integer
+ * capacities in primitive arrays. Every generator numbers its vertices its own
+ * way and names them through its {@link EdgeFormat}, so a block can be written
+ * as text or added to a graph in memory without creating a string per edge. A
+ * list can be cleared and filled again, keeping its arrays.
+ */
+public class EdgeList {
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	private int[] tails = new int[INITIAL_CAPACITY];
+	private int[] heads = new int[INITIAL_CAPACITY];
+	private int[] capacities = new int[INITIAL_CAPACITY];
+	private int size;
+	private LineBuffer text;
+
+	/**
+	 * Adds an edge.
+	 *
+	 * @param tail     The number of the vertex the edge leaves.
+	 * @param head     The number of the vertex the edge enters.
+	 * @param capacity The capacity of the edge.
+	 */
+	public void add(int tail, int head, int capacity) {
+		if (this.size == this.tails.length) {
+			int length = 2 * this.size;
+			this.tails = Arrays.copyOf(this.tails, length);
+			this.heads = Arrays.copyOf(this.heads, length);
+			this.capacities = Arrays.copyOf(this.capacities, length);
+		}
+		this.tails[this.size] = tail;
+		this.heads[this.size] = head;
+		this.capacities[this.size] = capacity;
+		this.size++;
+	}
+
+	/**
+	 * Empties the list, keeping its arrays for the next block.
+	 */
+	public void clear() {
+		this.size = 0;
+		if (this.text != null) {
+			this.text.clear();
+		}
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getTail(int edge) {
+		return this.tails[edge];
+	}
+
+	public int getHead(int edge) {
+		return this.heads[edge];
+	}
+
+	public int getCapacity(int edge) {
+		return this.capacities[edge];
+	}
+
+	/**
+	 * Returns a buffer for the text of the block, kept with the list so a sink
+	 * can format the block on the thread that generated it.
+	 *
+	 * @return The buffer, emptied when the list is cleared.
+	 */
+	public LineBuffer getText() {
+		if (this.text == null) {
+			this.text = new LineBuffer();
+		}
+		return this.text;
+	}
+}
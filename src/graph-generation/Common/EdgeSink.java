@@ -0,0 +1,50 @@
+package Common;
+
+/**
+ * Receives the blocks of edges of a generated graph, for example to write them
+ * to a file or to add them to a graph in memory.
+ */
+public interface EdgeSink {
+
+	/**
+	 * Prepares a block on the thread that generated it, before the blocks are
+	 * accepted in order. Work that does not depend on the other blocks, like
+	 * formatting the edges as text, belongs here so it runs in parallel.
+	 *
+	 * @param edges The block.
+	 */
+	default void prepare(EdgeList edges) {
+	}
+
+	/**
+	 * Takes a block. Blocks are accepted in order, one at a time.
+	 *
+	 * @param edges The block; it is reused once this method returns.
+	 * @throws Exception If the block cannot be taken.
+	 */
+	void accept(EdgeList edges) throws Exception;
+
+	/**
+	 * Combines two sinks into one that hands every block to both. At most one of
+	 * them may use the text of the blocks.
+	 *
+	 * @param first  The sink that gets each block first.
+	 * @param second The other sink.
+	 * @return The combined sink.
+	 */
+	static EdgeSink both(EdgeSink first, EdgeSink second) {
+		return new EdgeSink() {
+			@Override
+			public void prepare(EdgeList edges) {
+				first.prepare(edges);
+				second.prepare(edges);
+			}
+
+			@Override
+			public void accept(EdgeList edges) throws Exception {
+				first.accept(edges);
+				second.accept(edges);
+			}
+		};
+	}
+}
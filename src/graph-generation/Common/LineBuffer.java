@@ -0,0 +1,115 @@
+package Common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable buffer of ASCII text that formats numbers straight into its bytes,
+ * so generators can write edge lines without creating a string per line or per
+ * number. A buffer can be cleared and filled again, keeping its bytes.
+ */
+public class LineBuffer {
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+	private byte[] bytes = new byte[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Appends a character, which must be ASCII.
+	 *
+	 * @param c The character.
+	 * @return This buffer.
+	 */
+	public LineBuffer append(char c) {
+		ensureCapacity(1);
+		this.bytes[this.size++] = (byte) c;
+		return this;
+	}
+
+	/**
+	 * Appends a string, which must be ASCII.
+	 *
+	 * @param text The string.
+	 * @return This buffer.
+	 */
+	public LineBuffer append(String text) {
+		int length = text.length();
+		ensureCapacity(length);
+		for (int i = 0; i < length; i++) {
+			this.bytes[this.size++] = (byte) text.charAt(i);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the decimal digits of a number.
+	 *
+	 * @param value The number.
+	 * @return This buffer.
+	 */
+	public LineBuffer append(long value) {
+		if (value < 0) {
+			if (value == Long.MIN_VALUE) {
+				return append(Long.toString(value));
+			}
+			append('-');
+			value = -value;
+		}
+		int digits = 1;
+		for (long power = 10; digits < 19 && value >= power; power *= 10) {
+			digits++;
+		}
+		ensureCapacity(digits);
+		int end = this.size + digits;
+		for (int i = end - 1; i >= this.size; i--) {
+			this.bytes[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		this.size = end;
+		return this;
+	}
+
+	/**
+	 * Returns the number of bytes in the buffer.
+	 *
+	 * @return The number of bytes.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Empties the buffer, keeping its bytes for the next lines.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Writes the content of the buffer.
+	 *
+	 * @param output Where the bytes are written.
+	 * @throws IOException If the bytes cannot be written.
+	 */
+	public void writeTo(OutputStream output) throws IOException {
+		output.write(this.bytes, 0, this.size);
+	}
+
+	@Override
+	public String toString() {
+		return new String(this.bytes, 0, this.size, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Grows the buffer so that the given number of bytes fits behind its content.
+	 *
+	 * @param extra The number of bytes to be appended.
+	 */
+	private void ensureCapacity(int extra) {
+		if (this.size + extra > this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, Math.max(this.size + extra, 2 * this.bytes.length));
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package Common;
+
+import java.io.OutputStream;
+
+/**
+ * Writes the blocks of a generated graph as text, one line per edge. Every
+ * block is formatted as bytes on the thread that generated it and written as
+ * soon as its turn comes, so the output grows in steps of one block.
+ */
+public class TextSink implements EdgeSink {
+	private OutputStream output;
+	private EdgeFormat format;
+
+	/**
+	 * Constructor to create a sink writing to a stream.
+	 *
+	 * @param output Where the lines are written.
+	 * @param format Formats the edges of the generator.
+	 */
+	public TextSink(OutputStream output, EdgeFormat format) {
+		this.output = output;
+		this.format = format;
+	}
+
+	@Override
+	public void prepare(EdgeList edges) {
+		LineBuffer text = edges.getText();
+		text.clear();
+		for (int i = 0; i < edges.size(); i++) {
+			this.format.appendEdge(edges.getTail(i), edges.getHead(i), edges.getCapacity(i), text);
+		}
+	}
+
+	@Override
+	public void accept(EdgeList edges) throws Exception {
+		edges.getText().writeTo(this.output);
+	}
+}
@@ -1,126 +1,220 @@
-package FixedDegree;//Zane,Yogi,Nick,Jodie
-//TCSS 543
-//Nov. 21, 08
-
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.util.*;
-
-public class RandomGraph {
-	
-	private static final String NL = "\n";
-	
-	/**
-	 * Entrance point for the program.
-	 * java RandomGraph v, e, m, f
-	 * @param v - the number of vertices
-	 * @param e - the number of edges leaving each node
-	 * @param min - the lower bound on the edge capacities
-	 * @param max - the upper bound on the edge capacities
-	 * @param f - path and file name for saving the graph
-	 */
-	public static void main(String[] args){
-		if(args.length != 5){
-			System.out.println("\nInvalid parameters!");
-			System.out.println("Usage:");
-			System.out.println("java RandomGraph v, e, min, max, f");
-			System.out.println("v - the number of vertices in the graph");
-			System.out.println("e - the number of edges leaving each node");
-			System.out.println("min - the lower bound on edge capacities");
-			System.out.println("max - the upper bound on edge capacities");
-			System.out.println("f - path and file name for saving this graph");
-			System.out.println("Example: java RandomGraph 999 50 75 101 graph1.txt");
-		}else if(Integer.parseInt(args[0])> Integer.parseInt(args[1])){
-			if(Integer.parseInt(args[3]) >= Integer.parseInt(args[2])){
-				toFile(graphBuilder(Integer.parseInt(args[0]),Integer.parseInt(args[1]),Integer.parseInt(args[2]),Integer.parseInt(args[3])),args[4]);
-				System.out.println("\nDONE!");
-			}else{
-				System.out.println("\nFAIL!");
-				System.out.println("Max must be greater than or equal to min.");
-			}
-		}else{
-			System.out.println("\nFAIL!");
-			System.out.println("The number of vertices must exceed the number of edges leaving each node.");
-		}
-	}
-	
-	/**
-	 * This method creates a 3 token representation of a graph.
-	 * @param v The number of vertices in the graph
-	 * @param e The number of edges leaving each vertice
-	 * @param min The lowerbound on the capacity value of each edge
-	 * @param max The upperbound on the capacity value of each edge
-	 * @return A string buffer, each line contains 3 tokens corresponding 
-	 *			to a directed edge: the tail, the head, and the capacity.
-	 */
-	public static StringBuffer graphBuilder(int v, int e, int min, int max){
-		int i;
-		int j;
-		int head;
-		int c;
-		SortedSet s;
-		Random gen = new Random();
-		StringBuffer bfr = new StringBuffer();
-		
-		//Add distinguished node s
-		j = 1;
-		s = new TreeSet();
-		while(j <= e){
-			head = gen.nextInt(v) + 1;
-			if(!s.contains(head)){
-				s.add(head);
-				c = min + gen.nextInt(max - min + 1);
-				bfr.append("s"+" "+"v"+head+" "+c+NL);	
-				j++;
-			}
-		}
-		
-		//Add distinguished node t
-		j = 1;
-		s = new TreeSet();
-		while(j <= e){
-			int tail = gen.nextInt(v) + 1;
-			if(!s.contains(tail)){
-				s.add(tail);
-				c = min + gen.nextInt(max - min + 1);
-				bfr.append("v"+tail+" "+"t"+" "+c+NL);
-				j++;
-			}
-		}
-		
-		//Add internal nodes
-		for(i = 1; i <= v; i++){
-			s = new TreeSet();
-			s.add(i);
-			j = 1;
-			while(j <= e){
-				head = gen.nextInt(v) + 1;
-				if(!s.contains(head)){
-					s.add(head);
-					c = min + gen.nextInt(max - min + 1);
-					bfr.append("v"+i+" "+"v"+head+" "+c+NL);
-					j++;
-				}
-			}
-		}
-		return bfr;
-	}
-	
-
-	/**
-	 * This method attempts to save a string at a given location.
-	 * @param outString The StringBuffer containing the data being saved
-	 * @param filename The complete file path including file name
-	 */
-	private static void toFile(StringBuffer outString, String filename){
-		try{
-			BufferedWriter fout = new BufferedWriter(new FileWriter(filename));
-			fout.write(outString.toString());
-			fout.close();
-		}catch(Exception e){
-			System.out.println("Error saving file.");
-			System.out.println("Please check file paths and restart this program.");
-			System.exit(1);
-		} 
-	}
-}
+package FixedDegree;//Zane,Yogi,Nick,Jodie
+//TCSS 543
+//Nov. 21, 08
+
+import Common.BlockWriter;
+import Common.DistinctSampler;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Generates graphs in which the source, the sink and every vertex have the
+ * same number of edges, to distinct random vertices. The vertices are written
+ * in blocks generated on several threads, each drawing from its own split of
+ * the seeded generator (see {@link BlockWriter}), so a seed gives the same
+ * graph with any number of threads. The distinct vertices are drawn with
+ * {@link DistinctSampler}, which needs memory for the edges of one vertex
+ * only, and the lines are streamed to the file block by block, so graphs with
+ * millions of vertices can be generated.
+ */
+public class RandomGraph {
+	
+	/** Approximate number of edges in a block of vertices. */
+	private static final int BLOCK_EDGES = 1 << 15;
+	
+	/**
+	 * Entrance point for the program.
+	 * java RandomGraph v, e, m, f [seed] [threads]
+	 * @param v - the number of vertices
+	 * @param e - the number of edges leaving each node
+	 * @param min - the lower bound on the edge capacities
+	 * @param max - the upper bound on the edge capacities
+	 * @param f - path and file name for saving the graph
+	 * @param seed - seed of the random numbers, optional
+	 * @param threads - number of threads, all processors if left out or 0
+	 */
+	public static void main(String[] args){
+		if(args.length < 5 || args.length > 7){
+			System.out.println("\nInvalid parameters!");
+			System.out.println("Usage:");
+			System.out.println("java RandomGraph v, e, min, max, f [seed] [threads]");
+			System.out.println("v - the number of vertices in the graph");
+			System.out.println("e - the number of edges leaving each node");
+			System.out.println("min - the lower bound on edge capacities");
+			System.out.println("max - the upper bound on edge capacities");
+			System.out.println("f - path and file name for saving this graph");
+			System.out.println("seed - seed of the random numbers, to generate the same graph again");
+			System.out.println("threads - number of threads, all processors by default");
+			System.out.println("Example: java RandomGraph 999 50 75 101 graph1.txt 543");
+		}else if(Integer.parseInt(args[0])> Integer.parseInt(args[1])){
+			if(Integer.parseInt(args[3]) >= Integer.parseInt(args[2])){
+				long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+				int threads = BlockWriter.parseThreads(args.length > 6 ? args[6] : "0");
+				toFile(Integer.parseInt(args[0]),Integer.parseInt(args[1]),Integer.parseInt(args[2]),
+						Integer.parseInt(args[3]),seed,threads,args[4]);
+				System.out.println("\nDONE! (seed " + seed + ")");
+			}else{
+				System.out.println("\nFAIL!");
+				System.out.println("Max must be greater than or equal to min.");
+			}
+		}else{
+			System.out.println("\nFAIL!");
+			System.out.println("The number of vertices must exceed the number of edges leaving each node.");
+		}
+	}
+	
+	/**
+	 * This method generates a graph. The first block holds the edges of s and t,
+	 * the others those of a range of vertices. s is numbered 0, vertex vi is
+	 * numbered i and t is numbered v + 1.
+	 * @param out Where the edges go, see {@link #format(int)} for writing them
+	 *			as 3 tokens per directed edge: the tail, the head, and the capacity.
+	 * @param v The number of vertices in the graph
+	 * @param e The number of edges leaving each vertice
+	 * @param min The lowerbound on the capacity value of each edge
+	 * @param max The upperbound on the capacity value of each edge
+	 * @param seed The seed of the random numbers
+	 * @param threads The number of threads
+	 * @return The number of edges generated
+	 * @throws Exception If the edges cannot be taken
+	 */
+	public static long graphBuilder(EdgeSink out, int v, int e, int min, int max, long seed, int threads)
+			throws Exception {
+		int verticesPerBlock = Math.max(1, BLOCK_EDGES / Math.max(1, e));
+		int blocks = 1 + (v + verticesPerBlock - 1) / verticesPerBlock;
+		return BlockWriter.write(blocks, seed, threads, (block, gen, bfr) -> {
+			if(block == 0){
+				terminalBuilder(v, e, min, max, gen, bfr);
+			}else{
+				int first = (block - 1) * verticesPerBlock + 1;
+				vertexBuilder(first, Math.min(v, first + verticesPerBlock - 1), v, e, min, max, gen, bfr);
+			}
+		}, out);
+	}
+
+	/**
+	 * This method returns the format of the vertices: s, v1 to vv and t.
+	 * @param v The number of vertices in the graph besides s and t
+	 * @return The format
+	 */
+	public static EdgeFormat format(int v){
+		return new EdgeFormat(){
+			@Override
+			public int getVertexCount(){
+				return v + 2;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer bfr){
+				if(vertex == 0){
+					bfr.append('s');
+				}else if(vertex == v + 1){
+					bfr.append('t');
+				}else{
+					bfr.append('v').append(vertex);
+				}
+			}
+		};
+	}
+
+	/**
+	 * This method creates the edges of the distinguished nodes s and t.
+	 * @param v The number of vertices in the graph
+	 * @param e The number of edges leaving s and entering t
+	 * @param min The lowerbound on the capacity value of each edge
+	 * @param max The upperbound on the capacity value of each edge
+	 * @param gen The random numbers of the block
+	 * @param bfr Where the edges are added
+	 */
+	private static void terminalBuilder(int v, int e, int min, int max, SplittableRandom gen, EdgeList bfr){
+		DistinctSampler sampler = new DistinctSampler();
+		int[] s = new int[e];
+		int j;
+		
+		//Add distinguished node s
+		sampler.sample(e, v, gen, s);
+		for(j = 0; j < e; j++){
+			bfr.add(0, s[j] + 1, capacity(min, max, gen));
+		}
+		
+		//Add distinguished node t
+		sampler.sample(e, v, gen, s);
+		for(j = 0; j < e; j++){
+			bfr.add(s[j] + 1, v + 1, capacity(min, max, gen));
+		}
+	}
+
+	/**
+	 * This method creates the edges leaving a range of internal nodes. The heads
+	 * of a vertex are drawn from the other v - 1 vertices, numbered as if the
+	 * vertex itself were left out.
+	 * @param from The first vertex of the range
+	 * @param to The last vertex of the range
+	 * @param v The number of vertices in the graph
+	 * @param e The number of edges leaving each vertice
+	 * @param min The lowerbound on the capacity value of each edge
+	 * @param max The upperbound on the capacity value of each edge
+	 * @param gen The random numbers of the block
+	 * @param bfr Where the edges are added
+	 */
+	private static void vertexBuilder(int from, int to, int v, int e, int min, int max, SplittableRandom gen,
+			EdgeList bfr){
+		DistinctSampler sampler = new DistinctSampler();
+		int[] s = new int[e];
+		int i;
+		int j;
+		int head;
+		
+		//Add internal nodes
+		for(i = from; i <= to; i++){
+			sampler.sample(e, v - 1, gen, s);
+			for(j = 0; j < e; j++){
+				head = s[j] + 1;
+				if(head >= i){
+					head++;
+				}
+				bfr.add(i, head, capacity(min, max, gen));
+			}
+		}
+	}
+
+	/**
+	 * This method draws the capacity of an edge.
+	 * @param min The lowerbound on the capacity value
+	 * @param max The upperbound on the capacity value
+	 * @param gen The random numbers of the block
+	 * @return A capacity from min to max
+	 */
+	private static int capacity(int min, int max, SplittableRandom gen){
+		return min + gen.nextInt(max - min + 1);
+	}
+	
+
+	/**
+	 * This method attempts to save a graph at a given location.
+	 * @param v The number of vertices in the graph
+	 * @param e The number of edges leaving each vertice
+	 * @param min The lowerbound on the capacity value of each edge
+	 * @param max The upperbound on the capacity value of each edge
+	 * @param seed The seed of the random numbers
+	 * @param threads The number of threads
+	 * @param filename The complete file path including file name
+	 */
+	private static void toFile(int v, int e, int min, int max, long seed, int threads, String filename){
+		try{
+			OutputStream fout = BlockWriter.open(filename);
+			graphBuilder(new TextSink(fout, format(v)), v, e, min, max, seed, threads);
+			fout.close();
+		}catch(Exception ex){
+			System.out.println("Error saving file.");
+			System.out.println("Please check file paths and restart this program.");
+			System.exit(1);
+		} 
+	}
+}
@@ -0,0 +1,192 @@
+package Layered;
+
+import Common.BlockWriter;
+import Common.DistinctSampler;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Generates long layered networks, like the line graphs of the Washington
+ * generator from the DIMACS challenge: the vertices are split into many
+ * narrow layers, the source reaches every vertex of the first layer, every
+ * vertex reaches a few distinct random vertices of the next layer, and every
+ * vertex of the last layer reaches the sink. Every path from the source to the
+ * sink crosses all layers, so the augmenting paths are long and push-relabel
+ * raises its distance labels through every layer, unlike on the short paths of
+ * the random families.
+ * <p>
+ * The layers are divided into blocks generated on several threads, each
+ * drawing from its own split of the seeded generator (see
+ * {@link BlockWriter}), so a seed gives the same graph with any number of
+ * threads.
+ * <p>
+ * Usage: java Layered.LayeredGraph output.txt [options]
+ * <ul>
+ * <li>-layers n: number of layers, 100 by default</li>
+ * <li>-width n: number of vertices in a layer, 10 by default</li>
+ * <li>-degree n: number of edges from a vertex to the next layer, 3 by default</li>
+ * <li>-mincap c: lower bound on the capacities, 1 by default</li>
+ * <li>-maxcap c: upper bound on the capacities, 100 by default</li>
+ * <li>-seed n: seed of the random numbers, so the same graph can be generated again</li>
+ * <li>-threads n: number of threads, all processors by default</li>
+ * </ul>
+ */
+public class LayeredGraph {
+	/** Approximate number of edges in a block of layers. */
+	private static final int BLOCK_EDGES = 1 << 15;
+
+	/**
+	 * Generates a layered network. The source is numbered 0, vertex i of layer l
+	 * (both counting from 0) is numbered 1 + l * width + i, and the sink
+	 * layers * width + 1.
+	 *
+	 * @param sink        Receives the edges.
+	 * @param layers      Number of layers.
+	 * @param width       Number of vertices in a layer.
+	 * @param degree      Number of edges from a vertex to the next layer, at most
+	 *                    the width.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @param seed        Seed of the random numbers.
+	 * @param threads     Number of threads.
+	 * @return Number of edges generated.
+	 * @throws Exception If the degree exceeds the width or the sink does not
+	 *                   accept the edges.
+	 */
+	public static long buildGraph(EdgeSink sink, int layers, int width, int degree, int minCapacity, int maxCapacity,
+			long seed, int threads) throws Exception {
+		if (degree < 1 || degree > width) {
+			throw new Exception("Degree " + degree + " should be between 1 and the width " + width);
+		}
+		int layersPerBlock = Math.max(1, BLOCK_EDGES / (width * degree));
+		int blocks = (layers + layersPerBlock - 1) / layersPerBlock;
+		return BlockWriter.write(blocks, seed, threads, (block, random, out) -> writeLayers(out,
+				block * layersPerBlock, Math.min(layers, (block + 1) * layersPerBlock), layers, width, degree,
+				minCapacity, maxCapacity, random), sink);
+	}
+
+	/**
+	 * Returns the format of the vertices: "s" and "t" for the source and the
+	 * sink, and their numbers for the others.
+	 *
+	 * @param layers Number of layers.
+	 * @param width  Number of vertices in a layer.
+	 * @return The format.
+	 */
+	public static EdgeFormat format(int layers, int width) {
+		return new EdgeFormat() {
+			@Override
+			public int getVertexCount() {
+				return layers * width + 2;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer out) {
+				if (vertex == 0) {
+					out.append('s');
+				} else if (vertex == layers * width + 1) {
+					out.append('t');
+				} else {
+					out.append(vertex);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Adds the edges leaving a range of layers, and those leaving the source if
+	 * the range starts with the first layer.
+	 *
+	 * @param out         Where the edges are added.
+	 * @param from        The first layer of the range.
+	 * @param to          The layer after the last one of the range.
+	 * @param layers      Number of layers.
+	 * @param width       Number of vertices in a layer.
+	 * @param degree      Number of edges from a vertex to the next layer.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @param random      The random numbers of the block.
+	 */
+	private static void writeLayers(EdgeList out, int from, int to, int layers, int width, int degree,
+			int minCapacity, int maxCapacity, SplittableRandom random) {
+		DistinctSampler sampler = new DistinctSampler();
+		int[] heads = new int[degree];
+		if (from == 0) {
+			for (int i = 0; i < width; i++) {
+				out.add(0, 1 + i, random.nextInt(minCapacity, maxCapacity + 1));
+			}
+		}
+		for (int layer = from; layer < to; layer++) {
+			int first = 1 + layer * width;
+			for (int i = 0; i < width; i++) {
+				if (layer == layers - 1) {
+					out.add(first + i, layers * width + 1, random.nextInt(minCapacity, maxCapacity + 1));
+					continue;
+				}
+				sampler.sample(degree, width, random, heads);
+				for (int e = 0; e < degree; e++) {
+					out.add(first + i, first + width + heads[e], random.nextInt(minCapacity, maxCapacity + 1));
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		String path = null;
+		int layers = 100;
+		int width = 10;
+		int degree = 3;
+		int minCapacity = 1;
+		int maxCapacity = 100;
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				path = args[i];
+			} else if (i + 1 >= args.length) {
+				throw new Exception("Option " + args[i] + " needs a value");
+			} else if (args[i].equals("-layers")) {
+				layers = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-width")) {
+				width = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-degree")) {
+				degree = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-mincap")) {
+				minCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-maxcap")) {
+				maxCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = BlockWriter.parseThreads(args[++i]);
+			} else {
+				throw new Exception("Unknown option " + args[i]);
+			}
+		}
+		if (path == null) {
+			throw new Exception("Usage: java Layered.LayeredGraph output.txt [-layers n] [-width n] [-degree n]"
+					+ " [-mincap c] [-maxcap c] [-seed n] [-threads n]");
+		}
+		if (layers < 1) {
+			throw new Exception("A layered network needs at least one layer");
+		}
+		if (maxCapacity < minCapacity) {
+			throw new Exception("Max capacity " + maxCapacity + " is below min capacity " + minCapacity);
+		}
+
+		long startTime = System.currentTimeMillis();
+		long edges;
+		try (OutputStream output = BlockWriter.open(path)) {
+			edges = buildGraph(new TextSink(output, format(layers, width)), layers, width, degree, minCapacity,
+					maxCapacity, seed, threads);
+		}
+		System.out.println("Wrote " + edges + " edges on " + (layers * width + 2) + " vertices to " + path
+				+ " (seed " + seed + ") in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+}
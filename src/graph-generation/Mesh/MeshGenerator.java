@@ -1,188 +1,292 @@
-package Mesh;/*
- * TCSS 543 Group 2
- * Assignment: Network flow project
- * Program: Mesh Graph Generator
- * Apaporn Boonyaratta, Richard Hill, Quang Lu, & David Thaler
- * November 21, 2008
- */
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintStream;
-import java.util.Random;
-
-/**
- * This class generates text files representing mesh graph flow networks. The
- * mesh graphs have edges from s to each node in the first column, from each
- * internal node to the node on its right, both ways between every internal node
- * and the nodes above and below it, and from the last column nodes to the sink.
- * 
- * The file format is the standard TCSS 343/543 format of 'first vertex' 'second
- * vertex' 'capacity'. The program takes command line arguments. They are: [# of
- * rows] [# of columns][capacity or maximum capacity][filename][-cc flag]. All
- * arguments are optional. If you enter no arguments, you get a 3 x 4 mesh with
- * capacity of 1 on all edges, printed to System.out. The arguments are:
- * 
- * #rows/columns - self-explanatory...defaults to 3x4 if no arguments are given
- * 
- * capacity - defaults to 1(fixed) if <3 arguments. Otherwise random on the
- * range 1 to capacity, unless '-cc' set.
- * 
- * filename - the name of file to write to. Defaults to System.out if <4
- * parameters (or if -cc is last parameter)
- * 
- * -cc flag...With at least the first three parameters specified, ending the
- * line with '-cc' will cause edge capacities to have a constant value of c.
- * 
- * @author TCSS 543 group 2: Apaporn Boonyaratta, Richard Hill, Quang Lu, &
- *         David Thaler
- * @version November 21, 2008
- */
-public class MeshGenerator {
-
-  /** The number of rows */
-  private int m;
-  /** The number of columns */
-  private int n;
-  /** The capacity limit, if random, or the capacity of each edge, if fixed. */
-  private int c;
-  /** The output location, either a file or System.out. */
-  private PrintStream out;
-  /** The random number generator */
-  private Random rand;
-  /** True if the edge capacities are constant. */
-  private boolean constCap;
-  StringBuilder stringBuilder = new StringBuilder();
-
-  /**
-   * The run method.
-   */
-  public String generate() {
-    // the s to first column links
-    for (int i = 1; i <= m; i++) {
-      String s1 = String.format("s (%s,1) %s\n", i, capacity());
-      stringBuilder.append(s1);
-    }
-
-    // left to right links across the rows
-    for (int j = 1; j <= n - 1; j++) {
-      for (int i = 1; i <= m; i++) {
-        line(i, j, i, j + 1, capacity());
-      }
-    }
-
-    // two-way top to bottom links on the columns
-    for (int j = 1; j <= n; j++) {
-      for (int i = 1; i <= m - 1; i++) {
-        line(i, j, i + 1, j, capacity());
-        line(i + 1, j, i, j, capacity());
-      }
-    }
-
-    // last column to t links
-    for (int i = 1; i <= m; i++) {
-      String s2 = String.format("(%s,%s) t %s\n", i, n, capacity());
-      stringBuilder.append(s2);
-    }
-    return stringBuilder.toString();
-  }
-
-  /**
-   * Utility method to generate one line of output at an interior node in the
-   * graph. The line reads 'first node' 'second node' capacity , where the nodes
-   * are represented as (row #, column #). This method should be called with the
-   * correct capacity for this node; it doesn't generate them.
-   * 
-   * @param i1 -
-   *          first node row #
-   * @param j1-
-   *          first node column #
-   * @param i2-
-   *          second node row #
-   * @param j2-
-   *          second node column #
-   * @param cap -
-   *          the capacity entry
-   */
-  private void line(int i1, int j1, int i2, int j2, int cap) {
-    String s1 = String.format("(%s,%s) (%s,%s) %s\n", i1, j1, i2, j2, cap);
-    stringBuilder.append(s1);
-  }
-
-  /**
-   * Utility method to generate edge capacities for mesh graph generator. These
-   * are constant with value c if the constCap flag is set, random on the range
-   * from 1 to c otherwise.
-   * 
-   * @return either c or a random number from 1 to c
-   */
-  private int capacity() {
-    if (constCap) {
-      return c;
-    }
-    // rand(c)+1 so that we can get 1 to Cmax as values.
-    return rand.nextInt(c) + 1;
-  }
-
-  /**
-   * Constructor for mesh generator parses the command line arguments and sets
-   * the defaults. See the class comment for arguments/defaults.
-   * 
-   * @param args -
-   *          the command line arguments. See class comment.
-   */
-  public MeshGenerator(String[] args) {
-    rand = new Random();
-    // the constant capacity flag
-    if (args.length == 5 && args[4].equals("-cc")) {
-      constCap = true;
-    }
-    // where to write the output
-    if (args.length >= 4 && !args[3].equals("-cc")) {
-      try {
-        out = new PrintStream(args[3]);
-      } catch (FileNotFoundException e) {
-        System.err.println("Exception thrown on file formation: " + args[3]);
-      }
-    } else {
-      out = System.out;
-    }
-    if (args.length == 4 && args[3].equals("-cc")) {
-      constCap = true;
-    }
-    // set the capacity, it defaults to 1.
-    if (args.length >= 3) {
-      c = Integer.parseInt(args[2]);
-    } else {
-      constCap = true;
-      c = 1;
-    }
-    // m is the rows, n the colums, 3 rows by 4 col is the default
-    if (args.length >= 2) {
-      n = Integer.parseInt(args[1]);
-      m = Integer.parseInt(args[0]);
-    } else {
-      n = 4;
-      m = 3;
-    }
-  }
-
-  /**
-   * @param args-
-   *          command line args
-   */
-  public static void main(String[] args) {
-    try {
-      MeshGenerator mesh = new MeshGenerator(args);
-      // mesh.generate();
-      FileWriter myWriter = new FileWriter("filename.txt");
-      myWriter.write(mesh.generate());
-      myWriter.close();
-      System.out.println("Successfully wrote to the file.");
-    } catch (IOException e) {
-      System.out.println("An error occurred.");
-      e.printStackTrace();
-    }
-  }
-
-}
+package Mesh;/*
+ * TCSS 543 Group 2
+ * Assignment: Network flow project
+ * Program: Mesh Graph Generator
+ * Apaporn Boonyaratta, Richard Hill, Quang Lu, & David Thaler
+ * November 21, 2008
+ */
+import Common.BlockWriter;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class generates text files representing mesh graph flow networks. The
+ * mesh graphs have edges from s to each node in the first column, from each
+ * internal node to the node on its right, both ways between every internal node
+ * and the nodes above and below it, and from the last column nodes to the sink.
+ * 
+ * The file format is the standard TCSS 343/543 format of 'first vertex' 'second
+ * vertex' 'capacity'. The program takes command line arguments. They are: [# of
+ * rows] [# of columns][capacity or maximum capacity][filename][-cc flag]. All
+ * arguments are optional. If you enter no arguments, you get a 3 x 4 mesh with
+ * capacity of 1 on all edges, printed to System.out. The arguments are:
+ * 
+ * #rows/columns - self-explanatory...defaults to 3x4 if no arguments are given
+ * 
+ * capacity - defaults to 1(fixed) if <3 arguments. Otherwise random on the
+ * range 1 to capacity, unless '-cc' set.
+ * 
+ * filename - the name of file to write to. Defaults to System.out if <4
+ * parameters (or if -cc is last parameter)
+ * 
+ * -cc flag...With at least the first three parameters specified, ending the
+ * line with '-cc' will cause edge capacities to have a constant value of c.
+ * 
+ * -seed n and -threads n may appear anywhere among the arguments. The seed
+ * makes the random capacities repeatable, and the nodes are generated in
+ * blocks on the given number of threads, all processors by default. Every block
+ * draws its capacities from its own split of the seeded generator (see
+ * {@link BlockWriter}), so a seed gives the same file with any number of
+ * threads. The edges are written node by node, row by row: the source edge of
+ * a first column node, the edge to its right, the edges both ways with the
+ * node below and the sink edge of a last column node. Lines are formatted as
+ * bytes and every block is written as soon as it is done, so memory stays
+ * constant and meshes with tens of millions of edges can be written.
+ * 
+ * @author TCSS 543 group 2: Apaporn Boonyaratta, Richard Hill, Quang Lu, &
+ *         David Thaler
+ * @version November 21, 2008
+ */
+public class MeshGenerator {
+
+  /** Approximate number of edges in a block of nodes. */
+  private static final int BLOCK_EDGES = 1 << 15;
+
+  /** The number of rows */
+  private int m;
+  /** The number of columns */
+  private int n;
+  /** The capacity limit, if random, or the capacity of each edge, if fixed. */
+  private int c;
+  /** The output file, or null for System.out. */
+  private String path;
+  /** The seed of the random capacities. */
+  private long seed = System.nanoTime();
+  /** The number of threads generating rows. */
+  private int threads = Runtime.getRuntime().availableProcessors();
+  /** True if the edge capacities are constant. */
+  private boolean constCap;
+  /** The lowest random capacity. */
+  private int minCap = 1;
+
+  /**
+   * The run method. Writes the mesh in blocks of nodes taken row by row, so a
+   * block stays small however wide the rows are.
+   * 
+   * @param output -
+   *          where the edges are written
+   * @return the number of edges written
+   * @throws Exception
+   *           if the edges cannot be written
+   */
+  public long generate(OutputStream output) throws Exception {
+    return generate(new TextSink(output, format()));
+  }
+
+  /**
+   * Generates the mesh in blocks of nodes taken row by row. Node (i,j) is
+   * numbered 2 + (i - 1) * n + (j - 1), after the source 0 and the sink 1.
+   * 
+   * @param sink -
+   *          receives the edges
+   * @return the number of edges generated
+   * @throws Exception
+   *           if the sink does not accept the edges
+   */
+  public long generate(EdgeSink sink) throws Exception {
+    long nodes = (long) m * n;
+    long nodesPerBlock = BLOCK_EDGES / 3;
+    int blocks = (int) ((nodes + nodesPerBlock - 1) / nodesPerBlock);
+    return BlockWriter.write(blocks, seed, threads, (block, random, out) -> {
+      long last = Math.min(nodes, (block + 1) * nodesPerBlock);
+      for (long k = block * nodesPerBlock; k < last; k++) {
+        node((int) (k / n) + 1, (int) (k % n) + 1, random, out);
+      }
+    }, sink);
+  }
+
+  /**
+   * Returns the format of the nodes: s, t and (row #,column #), written digit
+   * by digit.
+   * 
+   * @return the format
+   */
+  public EdgeFormat format() {
+    return new EdgeFormat() {
+      @Override
+      public int getVertexCount() {
+        return m * n + 2;
+      }
+
+      @Override
+      public void appendName(int vertex, LineBuffer out) {
+        if (vertex < 2) {
+          out.append(vertex == 0 ? 's' : 't');
+        } else {
+          out.append('(').append((vertex - 2) / n + 1).append(',').append((vertex - 2) % n + 1).append(')');
+        }
+      }
+    };
+  }
+
+  /**
+   * Generates the edges leaving one node and the edge from the node below it:
+   * from the source if the node is in the first column, to the right, both ways
+   * with the node below, and to the sink if the node is in the last column.
+   * 
+   * @param i -
+   *          the node row #
+   * @param j -
+   *          the node column #
+   * @param random -
+   *          the random numbers of the block
+   * @param out -
+   *          where the edges are added
+   */
+  private void node(int i, int j, SplittableRandom random, EdgeList out) {
+    if (j == 1) {
+      out.add(0, number(i, j), capacity(random));
+    }
+    if (j < n) {
+      out.add(number(i, j), number(i, j + 1), capacity(random));
+    }
+    if (i < m) {
+      out.add(number(i, j), number(i + 1, j), capacity(random));
+      out.add(number(i + 1, j), number(i, j), capacity(random));
+    }
+    if (j == n) {
+      out.add(number(i, j), 1, capacity(random));
+    }
+  }
+
+  /**
+   * Utility method to number a node.
+   * 
+   * @param i -
+   *          the node row #
+   * @param j -
+   *          the node column #
+   * @return the number of the node
+   */
+  private int number(int i, int j) {
+    return 2 + (i - 1) * n + (j - 1);
+  }
+
+  /**
+   * Utility method to generate edge capacities for mesh graph generator. These
+   * are constant with value c if the constCap flag is set, random on the range
+   * from the minimum, 1 from the command line, to c otherwise.
+   * 
+   * @param random -
+   *          the random numbers of the block
+   * @return either c or a random number from the minimum to c
+   */
+  private int capacity(SplittableRandom random) {
+    if (constCap) {
+      return c;
+    }
+    // rand(c - min + 1) + min so that we can get min to Cmax as values.
+    return random.nextInt(c - minCap + 1) + minCap;
+  }
+
+  /**
+   * Constructor for a mesh generator with random capacities, for generating
+   * meshes from code.
+   * 
+   * @param rows -
+   *          the number of rows
+   * @param columns -
+   *          the number of columns
+   * @param minCapacity -
+   *          the lowest capacity
+   * @param maxCapacity -
+   *          the highest capacity
+   * @param seed -
+   *          the seed of the random capacities
+   * @param threads -
+   *          the number of threads
+   */
+  public MeshGenerator(int rows, int columns, int minCapacity, int maxCapacity, long seed, int threads) {
+    this.m = rows;
+    this.n = columns;
+    this.minCap = minCapacity;
+    this.c = maxCapacity;
+    this.seed = seed;
+    this.threads = threads;
+  }
+
+  /**
+   * Constructor for mesh generator parses the command line arguments and sets
+   * the defaults. See the class comment for arguments/defaults.
+   * 
+   * @param arguments -
+   *          the command line arguments. See class comment.
+   */
+  public MeshGenerator(String[] arguments) {
+    // take out the seed and thread options, the rest are positional
+    List<String> positional = new ArrayList<>();
+    for (int i = 0; i < arguments.length; i++) {
+      if (arguments[i].equals("-seed") && i + 1 < arguments.length) {
+        seed = Long.parseLong(arguments[++i]);
+      } else if (arguments[i].equals("-threads") && i + 1 < arguments.length) {
+        threads = BlockWriter.parseThreads(arguments[++i]);
+      } else {
+        positional.add(arguments[i]);
+      }
+    }
+    String[] args = positional.toArray(new String[0]);
+    // the constant capacity flag
+    if (args.length == 5 && args[4].equals("-cc")) {
+      constCap = true;
+    }
+    // where to write the output
+    if (args.length >= 4 && !args[3].equals("-cc")) {
+      path = args[3];
+    }
+    if (args.length == 4 && args[3].equals("-cc")) {
+      constCap = true;
+    }
+    // set the capacity, it defaults to 1.
+    if (args.length >= 3) {
+      c = Integer.parseInt(args[2]);
+    } else {
+      constCap = true;
+      c = 1;
+    }
+    // m is the rows, n the colums, 3 rows by 4 col is the default
+    if (args.length >= 2) {
+      n = Integer.parseInt(args[1]);
+      m = Integer.parseInt(args[0]);
+    } else {
+      n = 4;
+      m = 3;
+    }
+  }
+
+  /**
+   * @param args-
+   *          command line args
+   */
+  public static void main(String[] args) {
+    MeshGenerator mesh = new MeshGenerator(args);
+    try (OutputStream output = BlockWriter.open(mesh.path)) {
+      long edges = mesh.generate(output);
+      output.flush();
+      if (mesh.path != null) {
+        System.out.println("Successfully wrote " + edges + " edges to " + mesh.path + " (seed " + mesh.seed + ").");
+      }
+    } catch (Exception e) {
+      System.out.println("An error occurred.");
+      e.printStackTrace();
+    }
+  }
+
+}
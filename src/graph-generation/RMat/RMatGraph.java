@@ -0,0 +1,300 @@
+package RMat;
+
+import Common.BlockWriter;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates power-law graphs with the recursive matrix model (Chakrabarti, Zhan
+ * and Faloutsos, R-MAT: A recursive model for graph mining, 2004). An edge
+ * falls into one of the four quadrants of the adjacency matrix with the chances
+ * a, b, c and d, then into one of the quadrants of that quadrant, and so on
+ * down to a single entry, so a few vertices get most of the edges, as in web
+ * and social graphs. Vertex 0, the one with the most edges, is the source s and
+ * vertex 1, one of the next ones, the sink t. Edges into s, edges out of t,
+ * loops and repeated edges are left out, so the graph has fewer edges than
+ * drawn.
+ * <p>
+ * The bits of the tail and of the head are chosen level by level, so the number
+ * of edges leaving a vertex only depends on its own bits. The generator draws
+ * it from a Poisson distribution around the expected number, and then draws the
+ * heads bit by bit given the bits of the tail. All edges of a vertex are drawn
+ * in the same block, where repeated ones are dropped, and the blocks, ranges of
+ * tails expected to hold about the same number of edges, are generated in
+ * parallel by {@link BlockWriter}, so a seed gives the same graph with any
+ * number of threads. When the number of vertices is not a power of two, the
+ * matrix is cut down to it: edges are only drawn from the vertices there are,
+ * and heads past the last vertex are left out.
+ * <p>
+ * Usage: java RMat.RMatGraph output.txt [options]
+ * <ul>
+ * <li>-vertices n: number of vertices including s and t, 1024 by default</li>
+ * <li>-edges m: number of edges drawn, 8 per vertex by default</li>
+ * <li>-a p: chance of the top left quadrant, 0.57 by default</li>
+ * <li>-b p: chance of the top right quadrant, 0.19 by default</li>
+ * <li>-c p: chance of the bottom left quadrant, 0.19 by default; the bottom right
+ * one gets the rest</li>
+ * <li>-mincap c: lower bound on the capacities, 1 by default</li>
+ * <li>-maxcap c: upper bound on the capacities, 100 by default</li>
+ * <li>-seed n: seed of the random numbers, so the same graph can be generated again</li>
+ * <li>-threads n: number of threads, all processors by default</li>
+ * </ul>
+ */
+public class RMatGraph {
+	/** Expected number of edges drawn in a block. */
+	private static final double BLOCK_EDGES = 1 << 15;
+
+	/** Largest mean for which Poisson numbers are drawn exactly rather than from the normal approximation. */
+	private static final double EXACT_POISSON_MEAN = 30;
+
+	/**
+	 * Generates an R-MAT graph. Vertex 0 is the source and vertex 1 the sink.
+	 *
+	 * @param sink        Receives the edges.
+	 * @param vertices    Number of vertices including the source and the sink.
+	 * @param edges       Expected number of edges drawn, before leaving out loops,
+	 *                    repeated edges and edges past the last vertex.
+	 * @param a           Chance of the top left quadrant.
+	 * @param b           Chance of the top right quadrant.
+	 * @param c           Chance of the bottom left quadrant.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @param seed        Seed of the random numbers.
+	 * @param threads     Number of threads.
+	 * @return Number of edges generated.
+	 * @throws Exception If the chances are not a distribution or the sink does
+	 *                   not accept the edges.
+	 */
+	public static long buildGraph(EdgeSink sink, int vertices, long edges, double a, double b, double c,
+			int minCapacity, int maxCapacity, long seed, int threads) throws Exception {
+		if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+			throw new Exception("The quadrant chances " + a + ", " + b + " and " + c
+					+ " should not be negative nor add up to more than 1");
+		}
+		int scale = 32 - Integer.numberOfLeadingZeros(Math.max(1, vertices - 1));
+		// A vertex is drawn as tail with chance (a + b) for every 0 bit and (c + d)
+		// for every 1 bit, so the weights only depend on the number of 1 bits
+		double[] weights = new double[scale + 1];
+		for (int ones = 0; ones <= scale; ones++) {
+			weights[ones] = Math.pow(a + b, scale - ones) * Math.pow(1 - a - b, ones);
+		}
+		double total = 0;
+		for (int tail = 0; tail < vertices; tail++) {
+			if (tail != 1) {
+				total += weights[Integer.bitCount(tail)];
+			}
+		}
+		double edgesPerWeight = total > 0 ? edges / total : 0;
+		int[] starts = divideIntoBlocks(vertices, weights, edgesPerWeight);
+		return BlockWriter.write(starts.length - 1, seed, threads, (block, random, out) -> writeBlock(out,
+				starts[block], starts[block + 1], vertices, scale, a, b, c, weights, edgesPerWeight, minCapacity,
+				maxCapacity, random), sink);
+	}
+
+	/**
+	 * Returns the format of the vertices: "s" and "t" for the source and the
+	 * sink, and their numbers for the others.
+	 *
+	 * @param vertices Number of vertices including the source and the sink.
+	 * @return The format.
+	 */
+	public static EdgeFormat format(int vertices) {
+		return new EdgeFormat() {
+			@Override
+			public int getVertexCount() {
+				return vertices;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer out) {
+				if (vertex == 0) {
+					out.append('s');
+				} else if (vertex == 1) {
+					out.append('t');
+				} else {
+					out.append(vertex);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Divides the tails into ranges expected to draw about {@link #BLOCK_EDGES}
+	 * edges each.
+	 *
+	 * @param vertices       Number of vertices.
+	 * @param weights        Chance of a tail by its number of 1 bits.
+	 * @param edgesPerWeight Expected number of edges per unit of weight.
+	 * @return The first tail of every block, followed by the number of vertices.
+	 */
+	private static int[] divideIntoBlocks(int vertices, double[] weights, double edgesPerWeight) {
+		List<Integer> starts = new ArrayList<>();
+		starts.add(0);
+		double expected = 0;
+		for (int tail = 0; tail < vertices; tail++) {
+			if (expected >= BLOCK_EDGES) {
+				starts.add(tail);
+				expected = 0;
+			}
+			expected += weights[Integer.bitCount(tail)] * edgesPerWeight;
+		}
+		starts.add(vertices);
+		int[] result = new int[starts.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = starts.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the edges leaving a range of tails. The heads of a tail are sorted so
+	 * repeated ones are found next to each other.
+	 *
+	 * @param out            Where the edges are added.
+	 * @param from           The first tail of the block.
+	 * @param to             The tail after the last one of the block.
+	 * @param vertices       Number of vertices including the source and the sink.
+	 * @param scale          Number of bits of the vertex numbers.
+	 * @param a              Chance of the top left quadrant.
+	 * @param b              Chance of the top right quadrant.
+	 * @param c              Chance of the bottom left quadrant.
+	 * @param weights        Chance of a tail by its number of 1 bits.
+	 * @param edgesPerWeight Expected number of edges per unit of weight.
+	 * @param minCapacity    Lower bound on the capacities.
+	 * @param maxCapacity    Upper bound on the capacities.
+	 * @param random         The random numbers of the block.
+	 */
+	private static void writeBlock(EdgeList out, int from, int to, int vertices, int scale, double a, double b,
+			double c, double[] weights, double edgesPerWeight, int minCapacity, int maxCapacity,
+			SplittableRandom random) {
+		// Chance of a 0 bit in the head given a 0 or a 1 bit in the tail
+		double zeroAfterZero = a / (a + b);
+		double zeroAfterOne = c / (1 - a - b);
+		int[] heads = new int[16];
+		for (int tail = from; tail < to; tail++) {
+			if (tail == 1) {
+				continue;
+			}
+			int count = poisson(weights[Integer.bitCount(tail)] * edgesPerWeight, random);
+			if (count > heads.length) {
+				heads = new int[Math.max(count, 2 * heads.length)];
+			}
+			for (int e = 0; e < count; e++) {
+				int head = 0;
+				for (int bit = scale - 1; bit >= 0; bit--) {
+					double zero = ((tail >>> bit) & 1) == 0 ? zeroAfterZero : zeroAfterOne;
+					if (random.nextDouble() >= zero) {
+						head |= 1 << bit;
+					}
+				}
+				heads[e] = head;
+			}
+			Arrays.sort(heads, 0, count);
+			for (int e = 0; e < count; e++) {
+				int head = heads[e];
+				if ((e > 0 && head == heads[e - 1]) || head == 0 || head == tail || head >= vertices) {
+					continue;
+				}
+				out.add(tail, head, random.nextInt(minCapacity, maxCapacity + 1));
+			}
+		}
+	}
+
+	/**
+	 * Draws a number from a Poisson distribution, exactly for small means and
+	 * from the normal approximation for large ones.
+	 *
+	 * @param mean   The mean of the distribution.
+	 * @param random The random numbers.
+	 * @return The number.
+	 */
+	private static int poisson(double mean, SplittableRandom random) {
+		if (mean <= 0) {
+			return 0;
+		}
+		if (mean > EXACT_POISSON_MEAN) {
+			double value = Math.rint(mean + Math.sqrt(mean) * random.nextGaussian());
+			return (int) Math.max(0, Math.min(Integer.MAX_VALUE - 8, value));
+		}
+		// Count uniform numbers until their product drops below e^-mean
+		double limit = Math.exp(-mean);
+		double product = random.nextDouble();
+		int count = 0;
+		while (product > limit) {
+			product *= random.nextDouble();
+			count++;
+		}
+		return count;
+	}
+
+	public static void main(String[] args) throws Exception {
+		String path = null;
+		int vertices = 1024;
+		long edges = -1;
+		double a = 0.57;
+		double b = 0.19;
+		double c = 0.19;
+		int minCapacity = 1;
+		int maxCapacity = 100;
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				path = args[i];
+			} else if (i + 1 >= args.length) {
+				throw new Exception("Option " + args[i] + " needs a value");
+			} else if (args[i].equals("-vertices")) {
+				vertices = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-edges")) {
+				edges = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-a")) {
+				a = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-b")) {
+				b = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-c")) {
+				c = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-mincap")) {
+				minCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-maxcap")) {
+				maxCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = BlockWriter.parseThreads(args[++i]);
+			} else {
+				throw new Exception("Unknown option " + args[i]);
+			}
+		}
+		if (path == null) {
+			throw new Exception("Usage: java RMat.RMatGraph output.txt [-vertices n] [-edges m] [-a p] [-b p] [-c p]"
+					+ " [-mincap c] [-maxcap c] [-seed n] [-threads n]");
+		}
+		if (vertices < 2) {
+			throw new Exception("A graph needs at least the two vertices s and t");
+		}
+		if (maxCapacity < minCapacity) {
+			throw new Exception("Max capacity " + maxCapacity + " is below min capacity " + minCapacity);
+		}
+		if (edges < 0) {
+			edges = 8L * vertices;
+		}
+
+		long startTime = System.currentTimeMillis();
+		long written;
+		try (OutputStream output = BlockWriter.open(path)) {
+			written = buildGraph(new TextSink(output, format(vertices)), vertices, edges, a, b, c, minCapacity,
+					maxCapacity, seed, threads);
+		}
+		System.out.println("Wrote " + written + " edges on " + vertices + " vertices to " + path + " (seed " + seed
+				+ ") in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+}
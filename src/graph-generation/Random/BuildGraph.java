@@ -1,108 +1,250 @@
-package Random;
-
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Random;
-
-public class BuildGraph {
-
-	private static void BuildGraph(String fileName, String directory, int vertices, int dense, int maxCapacity, int minCapacity)
-    {
-     Random random = new Random();
-     try{
-         String dirName = directory;//           
-           if (dirName.equals ("")) {dirName = ".";}
-
-	       File outputfile = new File(dirName, fileName);
-           System.out.println(outputfile.getAbsolutePath());
-                  int[][] Graph = new int[vertices][vertices];
-	              int n, m;
-	              
-                         for ( n = 0; n < vertices; n++)
-                          for ( m = n+1; m < vertices; m++)
-                          {
-                              int randomInt = (random.nextInt((maxCapacity-minCapacity+1))+minCapacity) ;
-
-                              int k =(int) (1000.0*Math.random()/10.0);
-                              int b = (k < dense) ? 1 : 0;
-                              if(b == 0)
-                              {
-                                  Graph[n][m] = Graph[m][n] = b;
-                              }
-                              else
-                              {
-                                Graph[n][m] = Graph[m][n] = randomInt;
-                              }
-                            }
-               			  
-                      
-            PrintWriter output = new  PrintWriter(new FileWriter(outputfile));
-
-            for(int x = 0; x < Graph.length; x++)
-            {
-                if(x == 0)
-                {
-                    for(int y = 0; y < Graph[x].length; y++)
-                    {
-                        String value = String.valueOf(Graph[x][y]);
-                        if(y != 0)
-                        {
-                            if(value.equals("0") == false)
-                            {
-                                output.print("s " + String.valueOf(y) + " " +  value +"\n");
-                            }
-                        }
-                    }
-                }
-                else
-                {
-                    if(x == Graph.length-1)
-                    {
-                        for(int y = 0; y < Graph[x].length; y++)
-                        {
-                            String value = String.valueOf(Graph[x][y]);
-                            if(y != 0)
-                            {
-                                if(value.equals("0") == false)
-                                {
-                                    output.print(String.valueOf(y) + " t " +  value +"\n");
-                                }
-                            }
-                        }
-                    }
-                    else
-                    {
-                        for(int y = 0; y < Graph[x].length; y++)
-                        {
-                            String value = String.valueOf(Graph[x][y]);
-                            if(y != 0)
-                            {
-                                if(value.equals("0") == false)
-                                {
-                                    output.print(x + " " + String.valueOf(y) + " " +  value +"\n");
-                                }
-                            }
-                        }
-                    }
-                }
-                
-            }
-
-         output.close();
-       } 
-        catch (IOException e)
-          {
-            System.err.println("Error opening file" +e);
-            return;
-          }
-     System.out.print("\nDone");
- }
-
- public static void main (String args[]){
-        BuildGraph("varied_density_12.txt","/Users/prudhvikishan/Niharika/Masters/Q1/Algorithms/input-graphs/random-graph-3",100,500,300,30);
- }
-
-
-}
\ No newline at end of file
+package Random;
+
+import Common.BlockWriter;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random flow networks in which every pair of vertices is connected
+ * with the same probability. The first vertex is the source s and the last one
+ * the sink t. A pair with the source is an edge from s, a pair with the sink an
+ * edge into t, and any other pair is an edge in both directions with the same
+ * capacity. Capacities are drawn uniformly between the bounds.
+ * <p>
+ * Rather than flipping a coin for every pair, the generator draws the gap to
+ * the next pair that is connected from a geometric distribution (Batagelj and
+ * Brandes, Efficient generation of large random networks, 2005), and writes
+ * every edge as soon as it is drawn. It takes time linear in the number of
+ * vertices and edges and constant memory, so graphs with millions of vertices
+ * can be generated. The pairs are divided into blocks of consecutive vertices,
+ * each expected to hold about the same number of edges, which are generated in
+ * parallel by {@link BlockWriter}; the graph depends only on the parameters and
+ * the seed, not on the number of threads.
+ * <p>
+ * Usage: java Random.BuildGraph output.txt [options]
+ * <ul>
+ * <li>-vertices n: number of vertices including s and t, 100 by default</li>
+ * <li>-density percent: chance in percent that a pair of vertices is connected, 50 by default</li>
+ * <li>-mincap c: lower bound on the capacities, 30 by default</li>
+ * <li>-maxcap c: upper bound on the capacities, 300 by default</li>
+ * <li>-seed n: seed of the random numbers, so the same graph can be generated again</li>
+ * <li>-threads n: number of threads, all processors by default</li>
+ * </ul>
+ */
+public class BuildGraph {
+	/** Expected number of connected pairs in a block. */
+	private static final long BLOCK_PAIRS = 1 << 15;
+
+	/**
+	 * Writes a random graph to a file.
+	 *
+	 * @param path        The file to write.
+	 * @param vertices    Number of vertices including the source and the sink.
+	 * @param density     Chance in percent that a pair of vertices is connected.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @param seed        Seed of the random numbers.
+	 * @param threads     Number of threads.
+	 * @return Number of edges written.
+	 * @throws Exception If the file cannot be written.
+	 */
+	public static long buildGraph(String path, int vertices, double density, int minCapacity, int maxCapacity,
+			long seed, int threads) throws Exception {
+		try (OutputStream output = BlockWriter.open(path)) {
+			return buildGraph(new TextSink(output, format(vertices)), vertices, density, minCapacity, maxCapacity,
+					seed, threads);
+		}
+	}
+
+	/**
+	 * Generates a random graph. Vertex 0 is the source, the last vertex the sink.
+	 *
+	 * @param sink        Receives the edges.
+	 * @param vertices    Number of vertices including the source and the sink.
+	 * @param density     Chance in percent that a pair of vertices is connected.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @param seed        Seed of the random numbers.
+	 * @param threads     Number of threads.
+	 * @return Number of edges generated.
+	 * @throws Exception If the sink does not accept the edges.
+	 */
+	public static long buildGraph(EdgeSink sink, int vertices, double density, int minCapacity, int maxCapacity,
+			long seed, int threads) throws Exception {
+		double probability = Math.min(1, density / 100);
+		if (probability <= 0) {
+			return 0;
+		}
+		int[] starts = divideIntoBlocks(vertices, probability);
+		return BlockWriter.write(starts.length - 1, seed, threads, (block, random, out) -> writeBlock(out,
+				starts[block], starts[block + 1], vertices, probability, minCapacity, maxCapacity, random), sink);
+	}
+
+	/**
+	 * Returns the format of the vertices: "s" and "t" for the source and the
+	 * sink, and their numbers for the others.
+	 *
+	 * @param vertices Number of vertices including the source and the sink.
+	 * @return The format.
+	 */
+	public static EdgeFormat format(int vertices) {
+		return new EdgeFormat() {
+			@Override
+			public int getVertexCount() {
+				return vertices;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer out) {
+				if (vertex == 0) {
+					out.append('s');
+				} else if (vertex == vertices - 1) {
+					out.append('t');
+				} else {
+					out.append(vertex);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Divides the pairs into blocks by their larger vertex: a block holds all
+	 * pairs whose larger vertex lies in a range, and the ranges are chosen so
+	 * every block is expected to hold about {@link #BLOCK_PAIRS} connected pairs.
+	 *
+	 * @param vertices    Number of vertices.
+	 * @param probability Chance that a pair is connected.
+	 * @return The first larger vertex of every block, followed by the number of
+	 *         vertices.
+	 */
+	private static int[] divideIntoBlocks(int vertices, double probability) {
+		double pairsPerBlock = BLOCK_PAIRS / probability;
+		List<Integer> starts = new ArrayList<>();
+		starts.add(1);
+		double pairs = 0;
+		for (int head = 1; head < vertices; head++) {
+			if (pairs >= pairsPerBlock) {
+				starts.add(head);
+				pairs = 0;
+			}
+			pairs += head;
+		}
+		starts.add(Math.max(1, vertices));
+		int[] result = new int[starts.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = starts.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the connected pairs of one block. Since the gaps between connected
+	 * pairs are memoryless, a block starts drawing them afresh at its first pair.
+	 *
+	 * @param out         Where the edges are added.
+	 * @param from        The first larger vertex of the block.
+	 * @param to          The larger vertex after the last one of the block.
+	 * @param vertices    Number of vertices including the source and the sink.
+	 * @param probability Chance that a pair is connected.
+	 * @param minCapacity Lower bound on the capacities.
+	 * @param maxCapacity Upper bound on the capacities.
+	 * @param random      The random numbers of the block.
+	 */
+	private static void writeBlock(EdgeList out, int from, int to, int vertices, double probability,
+			int minCapacity, int maxCapacity, SplittableRandom random) {
+		// The number of pairs skipped before the next connected one follows a
+		// geometric distribution; with probability 1 no pair is skipped
+		double logMiss = Math.log1p(-probability);
+		int head = from;
+		long tail = -1;
+		while (head < to) {
+			tail++;
+			if (probability < 1) {
+				// Capped at more pairs than the block has, since a gap can exceed any
+				// long for tiny probabilities
+				double skip = Math.floor(Math.log(1 - random.nextDouble()) / logMiss);
+				tail += (long) Math.min(skip, (double) to * to);
+			}
+			// Move on to the pairs of the next vertices while the gap runs past the
+			// pairs (0, head) to (head - 1, head)
+			while (tail >= head && head < to) {
+				tail -= head;
+				head++;
+			}
+			if (head < to) {
+				int capacity = random.nextInt(minCapacity, maxCapacity + 1);
+				addPair(out, (int) tail, head, vertices, capacity);
+			}
+		}
+	}
+
+	/**
+	 * Adds the edges of a connected pair of vertices.
+	 *
+	 * @param out      Where the edges are added.
+	 * @param tail     The smaller vertex of the pair.
+	 * @param head     The larger vertex of the pair.
+	 * @param vertices Number of vertices including the source and the sink.
+	 * @param capacity The capacity of the edges.
+	 */
+	private static void addPair(EdgeList out, int tail, int head, int vertices, int capacity) {
+		out.add(tail, head, capacity);
+		if (tail != 0 && head != vertices - 1) {
+			out.add(head, tail, capacity);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		String path = null;
+		int vertices = 100;
+		double density = 50;
+		int minCapacity = 30;
+		int maxCapacity = 300;
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				path = args[i];
+			} else if (i + 1 >= args.length) {
+				throw new Exception("Option " + args[i] + " needs a value");
+			} else if (args[i].equals("-vertices")) {
+				vertices = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-density")) {
+				density = Double.parseDouble(args[++i]);
+			} else if (args[i].equals("-mincap")) {
+				minCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-maxcap")) {
+				maxCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = BlockWriter.parseThreads(args[++i]);
+			} else {
+				throw new Exception("Unknown option " + args[i]);
+			}
+		}
+		if (path == null) {
+			throw new Exception("Usage: java Random.BuildGraph output.txt [-vertices n] [-density percent]"
+					+ " [-mincap c] [-maxcap c] [-seed n] [-threads n]");
+		}
+		if (vertices < 2) {
+			throw new Exception("A graph needs at least the two vertices s and t");
+		}
+		if (maxCapacity < minCapacity) {
+			throw new Exception("Max capacity " + maxCapacity + " is below min capacity " + minCapacity);
+		}
+
+		long startTime = System.currentTimeMillis();
+		long edges = buildGraph(path, vertices, density, minCapacity, maxCapacity, seed, threads);
+		System.out.println("Wrote " + edges + " edges on " + vertices + " vertices to " + path + " (seed " + seed
+				+ ") in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+}
@@ -0,0 +1,216 @@
+package Trap;
+
+import Common.BlockWriter;
+import Common.DistinctSampler;
+import Common.EdgeFormat;
+import Common.EdgeList;
+import Common.EdgeSink;
+import Common.LineBuffer;
+import Common.TextSink;
+
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Generates bad cases for Ford-Fulkerson: networks whose flow has to be sent one
+ * unit at a time, behind a trap that every depth-first search for an augmenting
+ * path walks through first. The first edge of the source leads into the trap,
+ * a random graph of high capacity in which every vertex reaches a few distinct
+ * random others and whose only way out is an edge of capacity 1 from its last
+ * vertex to the sink. The second edge of the source leads to a hub with
+ * capacity k, from which k paths of capacity 1 lead to the sink.
+ * <p>
+ * The maximum flow is k, plus the unit through the exit of the trap, and every
+ * unit needs an augmenting path of its own since every path has capacity 1.
+ * Once the exit of the trap is full, every search still explores all of the
+ * trap before it backs out to the hub, so Ford-Fulkerson and its scaling
+ * variant take time proportional to k times the size of the trap, whereas
+ * push-relabel with global relabeling finds the trap cut off from the sink and
+ * takes time linear in the size of the network.
+ * <p>
+ * The textbook bad case, two paths of capacity C joined by an edge of capacity
+ * 1 that an unlucky search keeps crossing back and forth, does not slow down
+ * the depth-first search here: it takes the direct paths and is done in two
+ * augmentations, whatever the order of the edges. The trap instead depends on
+ * the order of the edges of the source, which the file keeps.
+ * <p>
+ * Usage: java Trap.TrapGraph output.txt [options]
+ * <ul>
+ * <li>-paths k: number of unit paths from the hub to the sink, 100 by default</li>
+ * <li>-trap n: number of vertices in the trap, 100 by default</li>
+ * <li>-degree n: number of edges from a vertex of the trap, 3 by default</li>
+ * <li>-mincap c: lower bound on the capacities in the trap, 1000 by default</li>
+ * <li>-maxcap c: upper bound on the capacities in the trap, 1000 by default</li>
+ * <li>-seed n: seed of the random numbers, so the same graph can be generated again</li>
+ * <li>-threads n: number of threads, all processors by default</li>
+ * </ul>
+ */
+public class TrapGraph {
+	/** Approximate number of edges in a block. */
+	private static final int BLOCK_EDGES = 1 << 15;
+
+	/**
+	 * Generates a trap network. The source is numbered 0, the trap vertices 1 to
+	 * n, the hub n + 1, the vertices of the unit paths n + 2 to n + k + 1 and the
+	 * sink n + k + 2. The first block holds the edges of the source, then come
+	 * the blocks of the trap and those of the unit paths.
+	 *
+	 * @param sink        Receives the edges.
+	 * @param paths       Number of unit paths from the hub to the sink.
+	 * @param trap        Number of vertices in the trap.
+	 * @param degree      Number of edges from a vertex of the trap, less than the
+	 *                    number of vertices in the trap.
+	 * @param minCapacity Lower bound on the capacities in the trap.
+	 * @param maxCapacity Upper bound on the capacities in the trap.
+	 * @param seed        Seed of the random numbers.
+	 * @param threads     Number of threads.
+	 * @return Number of edges generated.
+	 * @throws Exception If the degree is out of range or the sink does not
+	 *                   accept the edges.
+	 */
+	public static long buildGraph(EdgeSink sink, int paths, int trap, int degree, int minCapacity, int maxCapacity,
+			long seed, int threads) throws Exception {
+		if (degree < 1 || degree >= trap) {
+			throw new Exception("Degree " + degree + " should be between 1 and the trap size " + trap + " minus 1");
+		}
+		int verticesPerBlock = Math.max(1, BLOCK_EDGES / degree);
+		int trapBlocks = (trap + verticesPerBlock - 1) / verticesPerBlock;
+		int pathBlocks = (paths + BLOCK_EDGES - 1) / BLOCK_EDGES;
+		int hub = trap + 1;
+		int t = trap + paths + 2;
+		return BlockWriter.write(1 + trapBlocks + pathBlocks, seed, threads, (block, random, out) -> {
+			if (block == 0) {
+				// The trap has to come first among the edges of the source
+				out.add(0, 1, maxCapacity);
+				out.add(0, hub, paths);
+			} else if (block <= trapBlocks) {
+				int first = (block - 1) * verticesPerBlock + 1;
+				writeTrap(out, first, Math.min(trap, first + verticesPerBlock - 1), trap, degree, t, minCapacity,
+						maxCapacity, random);
+			} else {
+				int first = (block - 1 - trapBlocks) * BLOCK_EDGES;
+				int last = Math.min(paths, first + BLOCK_EDGES);
+				for (int j = first; j < last; j++) {
+					out.add(hub, hub + 1 + j, 1);
+					out.add(hub + 1 + j, t, 1);
+				}
+			}
+		}, sink);
+	}
+
+	/**
+	 * Returns the format of the vertices: s, x1 to xn for the trap, h for the
+	 * hub, u1 to uk for the unit paths and t.
+	 *
+	 * @param paths Number of unit paths from the hub to the sink.
+	 * @param trap  Number of vertices in the trap.
+	 * @return The format.
+	 */
+	public static EdgeFormat format(int paths, int trap) {
+		return new EdgeFormat() {
+			@Override
+			public int getVertexCount() {
+				return trap + paths + 3;
+			}
+
+			@Override
+			public void appendName(int vertex, LineBuffer out) {
+				if (vertex == 0) {
+					out.append('s');
+				} else if (vertex <= trap) {
+					out.append('x').append(vertex);
+				} else if (vertex == trap + 1) {
+					out.append('h');
+				} else if (vertex <= trap + paths + 1) {
+					out.append('u').append(vertex - trap - 1);
+				} else {
+					out.append('t');
+				}
+			}
+		};
+	}
+
+	/**
+	 * Adds the edges leaving a range of trap vertices. The heads of a vertex are
+	 * drawn from the other trap vertices, numbered as if the vertex itself were
+	 * left out, and the last vertex also gets the exit to the sink.
+	 *
+	 * @param out         Where the edges are added.
+	 * @param from        The first vertex of the range.
+	 * @param to          The last vertex of the range.
+	 * @param trap        Number of vertices in the trap.
+	 * @param degree      Number of edges from a vertex of the trap.
+	 * @param t           The number of the sink.
+	 * @param minCapacity Lower bound on the capacities in the trap.
+	 * @param maxCapacity Upper bound on the capacities in the trap.
+	 * @param random      The random numbers of the block.
+	 */
+	private static void writeTrap(EdgeList out, int from, int to, int trap, int degree, int t, int minCapacity,
+			int maxCapacity, SplittableRandom random) {
+		DistinctSampler sampler = new DistinctSampler();
+		int[] heads = new int[degree];
+		for (int vertex = from; vertex <= to; vertex++) {
+			sampler.sample(degree, trap - 1, random, heads);
+			for (int e = 0; e < degree; e++) {
+				int head = heads[e] + 1;
+				if (head >= vertex) {
+					head++;
+				}
+				out.add(vertex, head, random.nextInt(minCapacity, maxCapacity + 1));
+			}
+			if (vertex == trap) {
+				out.add(vertex, t, 1);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		String path = null;
+		int paths = 100;
+		int trap = 100;
+		int degree = 3;
+		int minCapacity = 1000;
+		int maxCapacity = 1000;
+		long seed = System.nanoTime();
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				path = args[i];
+			} else if (i + 1 >= args.length) {
+				throw new Exception("Option " + args[i] + " needs a value");
+			} else if (args[i].equals("-paths")) {
+				paths = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-trap")) {
+				trap = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-degree")) {
+				degree = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-mincap")) {
+				minCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-maxcap")) {
+				maxCapacity = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = BlockWriter.parseThreads(args[++i]);
+			} else {
+				throw new Exception("Unknown option " + args[i]);
+			}
+		}
+		if (path == null) {
+			throw new Exception("Usage: java Trap.TrapGraph output.txt [-paths k] [-trap n] [-degree n]"
+					+ " [-mincap c] [-maxcap c] [-seed n] [-threads n]");
+		}
+		if (maxCapacity < minCapacity) {
+			throw new Exception("Max capacity " + maxCapacity + " is below min capacity " + minCapacity);
+		}
+
+		long startTime = System.currentTimeMillis();
+		long edges;
+		try (OutputStream output = BlockWriter.open(path)) {
+			edges = buildGraph(new TextSink(output, format(paths, trap)), paths, trap, degree, minCapacity,
+					maxCapacity, seed, threads);
+		}
+		System.out.println("Wrote " + edges + " edges on " + (trap + paths + 3) + " vertices to " + path
+				+ " (seed " + seed + ") in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+}
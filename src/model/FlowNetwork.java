@@ -0,0 +1,226 @@
+package model;
+
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.util.Hashtable;
+import java.util.Iterator;
+
+/**
+ * Immutable topology of a flow network in compressed sparse row form. Every
+ * edge of the network is stored as a forward arc with its capacity and a
+ * reverse arc with capacity 0, grouped by tail vertex. Vertices and edges are
+ * numbered from 0 in the order of the {@link SimpleGraph} the network is built
+ * from, and parallel edges are kept as separate arcs.
+ * <p>
+ * Nothing in a FlowNetwork changes after construction, so one instance can be
+ * shared by any number of concurrent max flow queries, each of which keeps its
+ * flows in its own arrays.
+ */
+public class FlowNetwork {
+	private String[] names;
+	private Hashtable<String, Integer> ids;
+	private int[] first;
+	private int[] heads;
+	private int[] mates;
+	private double[] capacities;
+	private boolean[] forward;
+	private int[] edgeArcs;
+
+	/**
+	 * Constructor to create a flow network with the topology and capacities of
+	 * the given graph.
+	 *
+	 * @param graph The graph to copy.
+	 */
+	public FlowNetwork(SimpleGraph graph) {
+		int n = graph.numVertices();
+		int m = graph.numEdges();
+		this.names = new String[n];
+		this.ids = new Hashtable<>();
+		Hashtable<Vertex, Integer> positions = new Hashtable<>();
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			Vertex vertex = (Vertex) vertexIterator.next();
+			this.names[i] = (String) vertex.getName();
+			this.ids.put(this.names[i], i);
+			positions.put(vertex, i);
+		}
+
+		int[] tails = new int[m];
+		int[] edgeHeads = new int[m];
+		double[] edgeCapacities = new double[m];
+		this.first = new int[n + 1];
+		Iterator edgeIterator = graph.edges();
+		for (int e = 0; edgeIterator.hasNext(); e++) {
+			Edge edge = (Edge) edgeIterator.next();
+			tails[e] = positions.get(edge.getFirstEndpoint());
+			edgeHeads[e] = positions.get(edge.getSecondEndpoint());
+			edgeCapacities[e] = (double) edge.getData();
+			this.first[tails[e] + 1]++;
+			this.first[edgeHeads[e] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			this.first[v + 1] += this.first[v];
+		}
+
+		this.heads = new int[2 * m];
+		this.mates = new int[2 * m];
+		this.capacities = new double[2 * m];
+		this.forward = new boolean[2 * m];
+		this.edgeArcs = new int[m];
+		int[] fill = this.first.clone();
+		for (int e = 0; e < m; e++) {
+			int forwardArc = fill[tails[e]]++;
+			int reverseArc = fill[edgeHeads[e]]++;
+			this.heads[forwardArc] = edgeHeads[e];
+			this.heads[reverseArc] = tails[e];
+			this.mates[forwardArc] = reverseArc;
+			this.mates[reverseArc] = forwardArc;
+			this.capacities[forwardArc] = edgeCapacities[e];
+			this.forward[forwardArc] = true;
+			this.edgeArcs[e] = forwardArc;
+		}
+	}
+
+	/**
+	 * Get the number of vertices.
+	 *
+	 * @return Number of vertices.
+	 */
+	public int numberOfVertices() {
+		return this.names.length;
+	}
+
+	/**
+	 * Get the number of edges of the original graph.
+	 *
+	 * @return Number of edges.
+	 */
+	public int numberOfEdges() {
+		return this.edgeArcs.length;
+	}
+
+	/**
+	 * Get the number of arcs, forward and reverse.
+	 *
+	 * @return Number of arcs, twice the number of edges.
+	 */
+	public int numberOfArcs() {
+		return this.heads.length;
+	}
+
+	/**
+	 * Get the id of the vertex with the given name.
+	 *
+	 * @param name The name of the vertex.
+	 * @return The id of the vertex.
+	 * @throws Exception If no vertex has the given name.
+	 */
+	public int getVertexId(String name) throws Exception {
+		Integer id = this.ids.get(name);
+		if (id == null) {
+			throw new Exception("Vertex " + name + " is not in the flow network");
+		}
+		return id;
+	}
+
+	/**
+	 * Get the name of the vertex with the given id.
+	 *
+	 * @param id The id of the vertex.
+	 * @return The name of the vertex.
+	 */
+	public String getVertexName(int id) {
+		return this.names[id];
+	}
+
+	/**
+	 * Get the first arc leaving a vertex. The arcs of vertex v are the ones from
+	 * getFirstArc(v) up to, but not including, getFirstArc(v + 1).
+	 *
+	 * @param vertex The id of the vertex, or the number of vertices for the end of
+	 *               the last vertex.
+	 * @return The position of the first arc of the vertex.
+	 */
+	public int getFirstArc(int vertex) {
+		return this.first[vertex];
+	}
+
+	/**
+	 * Get the vertex an arc points to.
+	 *
+	 * @param arc The position of the arc.
+	 * @return The id of the head of the arc.
+	 */
+	public int getHead(int arc) {
+		return this.heads[arc];
+	}
+
+	/**
+	 * Get the arc going the opposite way: the reverse arc of a forward arc and the
+	 * other way around.
+	 *
+	 * @param arc The position of the arc.
+	 * @return The position of the opposite arc.
+	 */
+	public int getMate(int arc) {
+		return this.mates[arc];
+	}
+
+	/**
+	 * Whether an arc is the forward arc of an edge rather than a reverse arc.
+	 *
+	 * @param arc The position of the arc.
+	 * @return True if the arc is a forward arc.
+	 */
+	public boolean isForwardArc(int arc) {
+		return this.forward[arc];
+	}
+
+	/**
+	 * Get the capacity of an arc; reverse arcs have capacity 0.
+	 *
+	 * @param arc The position of the arc.
+	 * @return The capacity of the arc.
+	 */
+	public double getCapacity(int arc) {
+		return this.capacities[arc];
+	}
+
+	/**
+	 * Get the forward arc of an edge of the original graph.
+	 *
+	 * @param edge The number of the edge in the order of the original graph.
+	 * @return The position of the forward arc of the edge.
+	 */
+	public int getEdgeArc(int edge) {
+		return this.edgeArcs[edge];
+	}
+
+	/**
+	 * Get a new array of residual capacities for one query: the capacities of the
+	 * network, or the given capacities of the edges when they are overridden.
+	 *
+	 * @param edgeCapacities Capacity of every edge of the original graph, or null
+	 *                       to use the capacities of the network.
+	 * @return Residual capacity of every arc before any flow is sent.
+	 * @throws Exception If the number of capacities does not match the number of
+	 *                   edges.
+	 */
+	public double[] createResidualCapacities(double[] edgeCapacities) throws Exception {
+		if (edgeCapacities == null) {
+			return this.capacities.clone();
+		}
+		if (edgeCapacities.length != this.edgeArcs.length) {
+			throw new Exception("Expected " + this.edgeArcs.length + " edge capacities but got "
+					+ edgeCapacities.length);
+		}
+		double[] residual = new double[this.heads.length];
+		for (int e = 0; e < this.edgeArcs.length; e++) {
+			residual[this.edgeArcs[e]] = edgeCapacities[e];
+		}
+		return residual;
+	}
+}
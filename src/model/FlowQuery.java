@@ -0,0 +1,64 @@
+package model;
+
+/**
+ * One max flow query against a shared {@link FlowNetwork}: a source, a sink and
+ * optionally a capacity for every edge that replaces the capacities of the
+ * network for this query only.
+ */
+public class FlowQuery {
+	private final int source;
+	private final int sink;
+	private final double[] edgeCapacities;
+
+	/**
+	 * Constructor to create a query with the capacities of the network.
+	 *
+	 * @param source The id of the source vertex.
+	 * @param sink   The id of the sink vertex.
+	 */
+	public FlowQuery(int source, int sink) {
+		this(source, sink, null);
+	}
+
+	/**
+	 * Constructor to create a query with its own edge capacities.
+	 *
+	 * @param source         The id of the source vertex.
+	 * @param sink           The id of the sink vertex.
+	 * @param edgeCapacities Capacity of every edge in the order of the original
+	 *                       graph, or null to use the capacities of the network.
+	 */
+	public FlowQuery(int source, int sink, double[] edgeCapacities) {
+		this.source = source;
+		this.sink = sink;
+		this.edgeCapacities = edgeCapacities;
+	}
+
+	/**
+	 * Get the id of the source vertex.
+	 *
+	 * @return The id of the source vertex.
+	 */
+	public int getSource() {
+		return this.source;
+	}
+
+	/**
+	 * Get the id of the sink vertex.
+	 *
+	 * @return The id of the sink vertex.
+	 */
+	public int getSink() {
+		return this.sink;
+	}
+
+	/**
+	 * Get the capacities that replace those of the network.
+	 *
+	 * @return Capacity of every edge, or null to use the capacities of the
+	 *         network.
+	 */
+	public double[] getEdgeCapacities() {
+		return this.edgeCapacities;
+	}
+}
@@ -0,0 +1,116 @@
+package model;
+
+/**
+ * The outcome of a max flow computation that may have been stopped early. The
+ * flow value is the value of a feasible flow and so a lower bound on the
+ * maximum flow; the upper bound is the capacity of the best cut known. When the
+ * computation ran to the end both are the maximum flow value.
+ */
+public class FlowResult {
+	private double flow;
+	private double upperBound;
+	private long work;
+	private SolverStatistics statistics;
+	private double[] edgeFlows;
+	private boolean preflow;
+
+	/**
+	 * Constructor to create a result.
+	 *
+	 * @param flow       Value of the feasible flow found.
+	 * @param upperBound Capacity of the best cut found.
+	 * @param work       Number of steps the computation took.
+	 * @param statistics Counters and timings of the computation.
+	 */
+	public FlowResult(double flow, double upperBound, long work, SolverStatistics statistics) {
+		this.flow = flow;
+		this.upperBound = upperBound;
+		this.work = work;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Get the value of the feasible flow found, a lower bound on the maximum flow.
+	 *
+	 * @return Flow value.
+	 */
+	public double getFlow() {
+		return this.flow;
+	}
+
+	/**
+	 * Get the capacity of the best cut found, an upper bound on the maximum flow.
+	 *
+	 * @return Upper bound on the maximum flow value.
+	 */
+	public double getUpperBound() {
+		return this.upperBound;
+	}
+
+	/**
+	 * Get the number of steps the computation took.
+	 *
+	 * @return Number of augmentations, or of pushes and relabels.
+	 */
+	public long getWork() {
+		return this.work;
+	}
+
+	/**
+	 * Get the counters and timings of the computation.
+	 *
+	 * @return Statistics of the computation.
+	 */
+	public SolverStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Get the flow on every edge of the graph, if the algorithm was asked to
+	 * record it.
+	 *
+	 * @return The flow of every edge in the order of the graph, or null.
+	 */
+	public double[] getEdgeFlows() {
+		return this.edgeFlows;
+	}
+
+	/**
+	 * Whether the edge flows are a preflow, in which vertices may keep excess,
+	 * rather than a flow.
+	 *
+	 * @return True if the edge flows are a preflow.
+	 */
+	public boolean isPreflow() {
+		return this.preflow;
+	}
+
+	/**
+	 * Set the flow on every edge of the graph.
+	 *
+	 * @param edgeFlows The flow of every edge in the order of the graph.
+	 * @param preflow   Whether vertices may keep excess.
+	 */
+	public void setEdgeFlows(double[] edgeFlows, boolean preflow) {
+		this.edgeFlows = edgeFlows;
+		this.preflow = preflow;
+	}
+
+	/**
+	 * Whether the flow is known to be maximum, because a cut of the same capacity
+	 * was found.
+	 *
+	 * @return True if the flow value is the maximum flow value.
+	 */
+	public boolean isOptimal() {
+		return this.flow >= this.upperBound;
+	}
+
+	@Override
+	public String toString() {
+		if (isOptimal()) {
+			return String.valueOf(this.flow);
+		}
+		return "between " + this.flow + " and " + this.upperBound + " after " + this.work + " steps";
+	}
+}
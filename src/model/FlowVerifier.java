@@ -0,0 +1,247 @@
+package model;
+
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.util.Hashtable;
+import java.util.Iterator;
+
+/**
+ * Checks the flow an algorithm claims to have found, in time linear in the
+ * size of the network, so results can be checked on every run at a fraction
+ * of the cost of computing them. The network is kept in primitive arrays with
+ * one entry per edge, and one verifier checks any number of flows on it.
+ * <p>
+ * A flow is accepted if the flow on every edge lies between 0 and its
+ * capacity, every vertex but the source and the sink receives as much as it
+ * sends, and the sink receives the claimed value. A maximum flow is also
+ * checked against a cut: its sink side holds the vertices that can still reach
+ * the sink in the residual network, and its source side the rest. The source
+ * must be on the source side, and the capacity of the cut must equal the flow
+ * value, which proves no larger flow exists.
+ * <p>
+ * Push-relabel algorithms may stop with a preflow, where vertices keep excess
+ * they could not send on. In a preflow every vertex may receive more than it
+ * sends; the flow reaching the sink is still the value of a flow. For a
+ * maximum preflow the cut also proves no vertex on the sink side keeps excess,
+ * since the capacity of the cut is what the sink side receives together.
+ * <p>
+ * Flows are compared with a tolerance relative to the total capacity, so the
+ * rounding of fractional capacities is not reported as a violation.
+ */
+public class FlowVerifier {
+	/** Tolerance of the comparisons as a fraction of the total capacity. */
+	private static final double RELATIVE_TOLERANCE = 1e-9;
+
+	private String[] names;
+	private int[] tails;
+	private int[] heads;
+	private double[] capacities;
+	private int source;
+	private int sink;
+	private int[] first;
+	private int[] incident;
+	private double tolerance;
+
+	/**
+	 * Constructor to create a verifier for a network given as arrays with one
+	 * entry per edge.
+	 *
+	 * @param names      The names of the vertices, used in the messages.
+	 * @param tails      The vertex every edge leaves.
+	 * @param heads      The vertex every edge enters.
+	 * @param capacities The capacity of every edge.
+	 * @param source     The source vertex.
+	 * @param sink       The sink vertex.
+	 * @throws Exception If the arrays differ in length or the source is the sink.
+	 */
+	public FlowVerifier(String[] names, int[] tails, int[] heads, double[] capacities, int source, int sink)
+			throws Exception {
+		if (tails.length != heads.length || tails.length != capacities.length) {
+			throw new Exception("Expected as many tails, heads and capacities but got " + tails.length + ", "
+					+ heads.length + " and " + capacities.length);
+		}
+		if (source == sink) {
+			throw new Exception("Source and sink are the same vertex " + names[source]);
+		}
+		this.names = names;
+		this.tails = tails;
+		this.heads = heads;
+		this.capacities = capacities;
+		this.source = source;
+		this.sink = sink;
+
+		// Group the edges by the vertices they touch, so the residual network can
+		// be searched from any vertex
+		int n = names.length;
+		this.first = new int[n + 1];
+		double totalCapacity = 0;
+		for (int e = 0; e < tails.length; e++) {
+			this.first[tails[e] + 1]++;
+			this.first[heads[e] + 1]++;
+			totalCapacity += Math.abs(capacities[e]);
+		}
+		for (int v = 0; v < n; v++) {
+			this.first[v + 1] += this.first[v];
+		}
+		this.incident = new int[2 * tails.length];
+		int[] fill = this.first.clone();
+		for (int e = 0; e < tails.length; e++) {
+			this.incident[fill[tails[e]]++] = e;
+			this.incident[fill[heads[e]]++] = e;
+		}
+		this.tolerance = RELATIVE_TOLERANCE * Math.max(1, totalCapacity);
+	}
+
+	/**
+	 * Creates a verifier for a graph, with the vertices named "s" and "t" as
+	 * source and sink. The edges are numbered in the order of the graph, the
+	 * order in which algorithms report the flow of every edge.
+	 *
+	 * @param graph The graph.
+	 * @return The verifier.
+	 * @throws Exception If the source or sink is missing.
+	 */
+	public static FlowVerifier create(SimpleGraph graph) throws Exception {
+		String[] names = new String[graph.numVertices()];
+		Hashtable<Vertex, Integer> positions = new Hashtable<>();
+		int source = -1;
+		int sink = -1;
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			Vertex vertex = (Vertex) vertexIterator.next();
+			names[i] = (String) vertex.getName();
+			positions.put(vertex, i);
+			if (names[i].equals("s")) {
+				source = i;
+			} else if (names[i].equals("t")) {
+				sink = i;
+			}
+		}
+		if (source < 0 || sink < 0) {
+			throw new Exception("Source s or sink t is not in the graph");
+		}
+
+		int m = graph.numEdges();
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		double[] capacities = new double[m];
+		Iterator edgeIterator = graph.edges();
+		for (int e = 0; edgeIterator.hasNext(); e++) {
+			Edge edge = (Edge) edgeIterator.next();
+			tails[e] = positions.get(edge.getFirstEndpoint());
+			heads[e] = positions.get(edge.getSecondEndpoint());
+			capacities[e] = (double) edge.getData();
+		}
+		return new FlowVerifier(names, tails, heads, capacities, source, sink);
+	}
+
+	/**
+	 * Checks a flow, and if it is claimed to be maximum, the cut that proves it.
+	 *
+	 * @param flows   The flow on every edge.
+	 * @param value   The claimed flow value.
+	 * @param preflow Whether vertices may receive more than they send.
+	 * @param maximum Whether the flow is claimed to be maximum.
+	 * @return The capacity of the cut in front of the vertices that reach the
+	 *         sink in the residual network, an upper bound on the maximum flow
+	 *         value; infinite if the source is among them.
+	 * @throws Exception If the flow breaks a capacity, is not conserved, does not
+	 *                   have the claimed value or, if claimed to be maximum, the
+	 *                   cut does not prove it.
+	 */
+	public double verify(double[] flows, double value, boolean preflow, boolean maximum) throws Exception {
+		if (flows.length != this.tails.length) {
+			throw new Exception("Expected the flow of " + this.tails.length + " edges but got " + flows.length);
+		}
+
+		// Capacity constraints, and the excess every vertex is left with
+		double[] excess = new double[this.names.length];
+		for (int e = 0; e < flows.length; e++) {
+			if (flows[e] < -this.tolerance || flows[e] > this.capacities[e] + this.tolerance) {
+				throw new Exception("Flow " + flows[e] + " on edge " + describeEdge(e) + " of capacity "
+						+ this.capacities[e]);
+			}
+			excess[this.tails[e]] -= flows[e];
+			excess[this.heads[e]] += flows[e];
+		}
+
+		for (int v = 0; v < excess.length; v++) {
+			if (v == this.source || v == this.sink) {
+				continue;
+			}
+			if (excess[v] < -this.tolerance || (!preflow && excess[v] > this.tolerance)) {
+				throw new Exception("Flow is not conserved at vertex " + this.names[v] + ", which keeps "
+						+ excess[v]);
+			}
+		}
+		if (Math.abs(excess[this.sink] - value) > this.tolerance) {
+			throw new Exception("Sink receives " + excess[this.sink] + " but the flow value is " + value);
+		}
+
+		boolean[] sinkSide = findSinkSide(flows);
+		if (sinkSide[this.source]) {
+			if (maximum) {
+				throw new Exception("Flow of " + value + " is not maximum: an augmenting path leaves the source");
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+		double cut = 0;
+		for (int e = 0; e < this.tails.length; e++) {
+			if (!sinkSide[this.tails[e]] && sinkSide[this.heads[e]]) {
+				cut += this.capacities[e];
+			}
+		}
+		if (maximum && Math.abs(cut - value) > this.tolerance) {
+			throw new Exception("Flow of " + value + " does not match the capacity " + cut + " of its cut");
+		}
+		return cut;
+	}
+
+	/**
+	 * Finds the vertices that reach the sink in the residual network of a flow,
+	 * over edges with capacity left and against edges carrying flow, by searching
+	 * backwards from the sink.
+	 *
+	 * @param flows The flow on every edge.
+	 * @return Whether every vertex reaches the sink.
+	 */
+	private boolean[] findSinkSide(double[] flows) {
+		boolean[] reached = new boolean[this.names.length];
+		int[] queue = new int[this.names.length];
+		int head = 0;
+		int size = 0;
+		reached[this.sink] = true;
+		queue[size++] = this.sink;
+		while (head < size) {
+			int vertex = queue[head++];
+			for (int i = this.first[vertex]; i < this.first[vertex + 1]; i++) {
+				int e = this.incident[i];
+				int next;
+				if (this.heads[e] == vertex && flows[e] < this.capacities[e] - this.tolerance) {
+					next = this.tails[e];
+				} else if (this.tails[e] == vertex && flows[e] > this.tolerance) {
+					next = this.heads[e];
+				} else {
+					continue;
+				}
+				if (!reached[next]) {
+					reached[next] = true;
+					queue[size++] = next;
+				}
+			}
+		}
+		return reached;
+	}
+
+	/**
+	 * Describes an edge for the messages.
+	 *
+	 * @param edge The number of the edge.
+	 * @return The names of its tail and head.
+	 */
+	private String describeEdge(int edge) {
+		return this.names[this.tails[edge]] + " -> " + this.names[this.heads[edge]];
+	}
+}
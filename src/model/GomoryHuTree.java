@@ -0,0 +1,182 @@
+package model;
+
+import graph.Edge;
+import graph.GraphInput;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Hashtable;
+import java.util.Iterator;
+
+/**
+ * A cut tree of a network: a tree on the vertices of the network in which the
+ * minimum cut between any two vertices is the smallest weight on the tree path
+ * between them. The tree is stored as a parent pointer and the weight of the
+ * edge to the parent for every vertex but the root.
+ */
+public class GomoryHuTree {
+	private String[] names;
+	private int[] parent;
+	private double[] weight;
+	private int[] depth;
+	private Hashtable<String, Integer> index;
+
+	/**
+	 * Constructor to create a tree from parent pointers. The root is the vertex
+	 * that is its own parent.
+	 *
+	 * @param names  The names of the vertices.
+	 * @param parent The parent of every vertex.
+	 * @param weight The minimum cut between every vertex and its parent.
+	 * @throws Exception If the parent pointers do not form a tree.
+	 */
+	public GomoryHuTree(String[] names, int[] parent, double[] weight) throws Exception {
+		this.names = names;
+		this.parent = parent;
+		this.weight = weight;
+		this.index = new Hashtable<>();
+		for (int v = 0; v < names.length; v++) {
+			this.index.put(names[v], v);
+		}
+		this.depth = new int[names.length];
+		for (int v = 0; v < names.length; v++) {
+			calculateDepth(v);
+		}
+	}
+
+	/**
+	 * Calculates the depth of a vertex and of the vertices above it that have no
+	 * depth yet, walking up the parent pointers without recursion.
+	 *
+	 * @param vertex The vertex whose depth is calculated.
+	 * @throws Exception If the parent pointers contain a cycle.
+	 */
+	private void calculateDepth(int vertex) throws Exception {
+		int top = vertex;
+		int steps = 0;
+		while (this.parent[top] != top && this.depth[top] == 0) {
+			top = this.parent[top];
+			if (++steps > this.names.length) {
+				throw new Exception("Parent pointers of the cut tree contain a cycle at " + this.names[vertex]);
+			}
+		}
+		int known = this.depth[top];
+		for (int v = vertex; v != top; v = this.parent[v]) {
+			this.depth[v] = known + steps--;
+		}
+	}
+
+	/**
+	 * Get the number of vertices in the tree.
+	 *
+	 * @return Number of vertices in the tree.
+	 */
+	public int numberOfVertices() {
+		return this.names.length;
+	}
+
+	/**
+	 * Get the minimum cut between the given vertices, in time linear in the length
+	 * of the tree path between them. Vertices in different trees of a forest read
+	 * from a file have a cut of 0.
+	 *
+	 * @param first  The name of the first vertex.
+	 * @param second The name of the second vertex.
+	 * @return Value of the minimum cut between the two vertices.
+	 * @throws Exception If a vertex is not in the tree.
+	 */
+	public double getMinCut(String first, String second) throws Exception {
+		Integer u = this.index.get(first);
+		Integer v = this.index.get(second);
+		if (u == null || v == null) {
+			throw new Exception("Vertex " + (u == null ? first : second) + " is not in the cut tree");
+		}
+		return getMinCut(u, v);
+	}
+
+	/**
+	 * Get the minimum cut between the vertices with the given positions.
+	 *
+	 * @param u Position of the first vertex.
+	 * @param v Position of the second vertex.
+	 * @return Value of the minimum cut between the two vertices.
+	 */
+	public double getMinCut(int u, int v) {
+		if (u == v) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double cut = Double.POSITIVE_INFINITY;
+		while (u != v) {
+			if (this.depth[u] == 0 && this.depth[v] == 0) {
+				// Two roots of a forest: the vertices are not connected at all
+				return 0;
+			}
+			if (this.depth[u] >= this.depth[v]) {
+				cut = Math.min(cut, this.weight[u]);
+				u = this.parent[u];
+			} else {
+				cut = Math.min(cut, this.weight[v]);
+				v = this.parent[v];
+			}
+		}
+		return cut;
+	}
+
+	/**
+	 * Writes the tree to a file in the graph input format, one line "vertex parent
+	 * cut" per vertex other than the root, so it can be read back with
+	 * {@link #load(String)} or {@link GraphInput}.
+	 *
+	 * @param path The file to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void save(String path) throws IOException {
+		try (FileWriter writer = new FileWriter(path)) {
+			for (int v = 0; v < this.names.length; v++) {
+				if (this.parent[v] != v) {
+					writer.write(this.names[v] + " " + this.names[this.parent[v]] + " " + this.weight[v] + "\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a tree written by {@link #save(String)}.
+	 *
+	 * @param path The file to read.
+	 * @return The tree in the file.
+	 * @throws Exception If the file does not describe a tree.
+	 */
+	public static GomoryHuTree load(String path) throws Exception {
+		SimpleGraph graph = new SimpleGraph();
+		GraphInput.LoadSimpleGraph(graph, path);
+
+		Hashtable<Vertex, Integer> positions = new Hashtable<>();
+		String[] names = new String[graph.numVertices()];
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			Vertex vertex = (Vertex) vertexIterator.next();
+			positions.put(vertex, i);
+			names[i] = (String) vertex.getName();
+		}
+
+		int[] parent = new int[names.length];
+		double[] weight = new double[names.length];
+		for (int v = 0; v < names.length; v++) {
+			parent[v] = v;
+		}
+		Iterator edgeIterator = graph.edges();
+		while (edgeIterator.hasNext()) {
+			Edge edge = (Edge) edgeIterator.next();
+			int child = positions.get(edge.getFirstEndpoint());
+			if (parent[child] != child) {
+				throw new Exception("Vertex " + names[child] + " has two parents in " + path);
+			}
+			parent[child] = positions.get(edge.getSecondEndpoint());
+			weight[child] = (double) edge.getData();
+		}
+		return new GomoryHuTree(names, parent, weight);
+	}
+}
@@ -11,15 +11,33 @@ import java.util.Iterator;
 public class ResidualGraph {
 	private Hashtable<String, ResidualVertex> vertices;
 	private Hashtable<String, ResidualEdge> edges;
+	private ResidualEdge[] graphEdges;
+	private ResidualVertex source;
+	private ResidualVertex sink;
 
 	/**
-	 * Constructor to create a residual graph from a given SimpleGraph.
+	 * Constructor to create a residual graph from a given SimpleGraph, with the
+	 * vertices named "s" and "t" as source and sink.
 	 *
 	 * @param graph The SimpleGraph used to create the residual graph.
 	 * @throws Exception If an error occurs during the creation of the residual
 	 *                   graph.
 	 */
 	public ResidualGraph(SimpleGraph graph) throws Exception {
+		this(graph, "s", "t");
+	}
+
+	/**
+	 * Constructor to create a residual graph from a given SimpleGraph with the
+	 * given vertices as source and sink.
+	 *
+	 * @param graph      The SimpleGraph used to create the residual graph.
+	 * @param sourceName The name of the source vertex.
+	 * @param sinkName   The name of the sink vertex.
+	 * @throws Exception If the source or sink is missing, or an error occurs
+	 *                   during the creation of the residual graph.
+	 */
+	public ResidualGraph(SimpleGraph graph, String sourceName, String sinkName) throws Exception {
 		this.vertices = new Hashtable<>();
 		this.edges = new Hashtable<>();
 
@@ -33,16 +51,28 @@ public class ResidualGraph {
 		}
 
 		// Iterate through the edges of the original graph and create residual edges
+		this.graphEdges = new ResidualEdge[graph.numEdges()];
 		Iterator edgeIterator = graph.edges();
-		while (edgeIterator.hasNext()) {
+		for (int e = 0; edgeIterator.hasNext(); e++) {
 			Edge edge = (Edge) edgeIterator.next();
 
 			ResidualVertex origin = this.vertices.get(edge.getFirstEndpoint().getName());
 			ResidualVertex dest = this.vertices.get(edge.getSecondEndpoint().getName());
 			double capacity = (double) edge.getData();
 
-			this.addEdge(origin, dest, capacity);
+			this.graphEdges[e] = this.addEdge(origin, dest, capacity);
 		}
+
+		this.source = this.vertices.get(sourceName);
+		this.sink = this.vertices.get(sinkName);
+		if (this.source == null || this.sink == null) {
+			throw new Exception("Source " + sourceName + " or sink " + sinkName + " is not in the graph");
+		}
+		if (this.source == this.sink) {
+			throw new Exception("Source and sink are the same vertex " + sourceName);
+		}
+		this.source.markSource();
+		this.sink.markSink();
 	}
 
 	/**
@@ -54,6 +84,17 @@ public class ResidualGraph {
 		return this.vertices.values();
 	}
 
+	/**
+	 * Getter for retrieving a collection of the forward edges in the residual
+	 * graph. Backward edges are created on demand and are not part of this
+	 * collection.
+	 *
+	 * @return Collection of forward ResidualEdge objects in the residual graph.
+	 */
+	public Collection<ResidualEdge> getEdges() {
+		return this.edges.values();
+	}
+
 	/**
 	 * Method to add a residual vertex to the graph.
 	 *
@@ -70,13 +111,29 @@ public class ResidualGraph {
 	 * @param origin   The ResidualVertex representing the origin of the edge.
 	 * @param dest     The ResidualVertex representing the destination of the edge.
 	 * @param capacity The capacity of the residual edge.
+	 * @return The new residual edge.
 	 * @throws Exception If an error occurs during the addition of the residual
 	 *                   edge.
 	 */
-	public void addEdge(ResidualVertex origin, ResidualVertex dest, double capacity) throws Exception {
+	public ResidualEdge addEdge(ResidualVertex origin, ResidualVertex dest, double capacity) throws Exception {
 		ResidualEdge edge = new ResidualEdge(origin, dest, capacity);
 		origin.addEdge(edge);
 		this.edges.put(edge.getIdentifier(), edge);
+		return edge;
+	}
+
+	/**
+	 * Get the flow on every edge of the graph the residual graph was created
+	 * from.
+	 *
+	 * @return The flow of every edge in the order of the original graph.
+	 */
+	public double[] getEdgeFlows() {
+		double[] flows = new double[this.graphEdges.length];
+		for (int e = 0; e < flows.length; e++) {
+			flows[e] = this.graphEdges[e].getFlow();
+		}
+		return flows;
 	}
 
 	/**
@@ -85,7 +142,7 @@ public class ResidualGraph {
 	 * @return The ResidualVertex representing the source vertex of the graph.
 	 */
 	public ResidualVertex getSource() {
-		return this.getVertex("s");
+		return this.source;
 	}
 
 	/**
@@ -94,7 +151,7 @@ public class ResidualGraph {
 	 * @return The ResidualVertex representing the sink vertex of the graph.
 	 */
 	public ResidualVertex getSink() {
-		return this.getVertex("t");
+		return this.sink;
 	}
 
 	/**
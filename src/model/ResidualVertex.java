@@ -10,6 +10,8 @@ public class ResidualVertex {
 	// excess flow, useful for preflow algorithm. For Ford Fulkerson type algorithm,
 	// excess = 0
 	private double excess;
+	private boolean source; // Whether this vertex is the source of its residual graph
+	private boolean sink; // Whether this vertex is the sink of its residual graph
 
 	/**
 	 * Constructor initializes a ResidualVertex with a unique identifier.
@@ -173,13 +175,33 @@ public class ResidualVertex {
 	 *         vertex; otherwise, null.
 	 */
 	public ResidualEdge getLowerHeightNeighborEdge() {
+		return getLowerHeightNeighborEdge(null);
+	}
+
+	/**
+	 * Get edge outgoing from this vertex such that the other endpoint of that edge
+	 * has height less than this vertex, counting the edges looked at.
+	 *
+	 * @param statistics The statistics in which the scanned edges are counted, or
+	 *                   null.
+	 * @return Edge if there is a neighboring vertex with height less than this
+	 *         vertex; otherwise, null.
+	 */
+	public ResidualEdge getLowerHeightNeighborEdge(SolverStatistics statistics) {
+		long scanned = 0;
+		ResidualEdge found = null;
 		for (ResidualEdge edge : this.edges.values()) {
+			scanned++;
 			if (edge.getResidualCapacity() > 0 && edge.getDestination().height < this.height) {
-				return edge;
+				found = edge;
+				break;
 			}
 		}
+		if (statistics != null) {
+			statistics.countArcsScanned(scanned);
+		}
 
-		return null;
+		return found;
 	}
 
 	/**
@@ -188,7 +210,7 @@ public class ResidualVertex {
 	 * @return True if the vertex is either a source or sink; otherwise, false.
 	 */
 	public boolean isSourceOrSink() {
-		return this.identifier.equals("s") || this.identifier.equals("t");
+		return this.source || this.sink;
 	}
 
 	/**
@@ -197,7 +219,21 @@ public class ResidualVertex {
 	 * @return True if the vertex is a source; otherwise, false.
 	 */
 	public boolean isSource() {
-		return this.identifier.equals("s");
+		return this.source;
+	}
+
+	/**
+	 * Mark the vertex as the source of its residual graph.
+	 */
+	void markSource() {
+		this.source = true;
+	}
+
+	/**
+	 * Mark the vertex as the sink of its residual graph.
+	 */
+	void markSink() {
+		this.sink = true;
 	}
 
 }
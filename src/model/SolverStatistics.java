@@ -0,0 +1,184 @@
+package model;
+
+/**
+ * Counters and timings of one max flow computation. The counters are plain
+ * fields incremented on the hot paths of the algorithms, so they are cheap
+ * enough to be always on. Counters that do not apply to an algorithm stay 0.
+ */
+public class SolverStatistics {
+	private String solver;
+	private long buildTimeNanos;
+	private long solveTimeNanos;
+	private long augmentingPaths;
+	private long arcsScanned;
+	private long pushes;
+	private long relabels;
+	private long globalRelabels;
+	private int peakActiveVertices;
+
+	/**
+	 * Constructor to create empty statistics.
+	 *
+	 * @param solver The name of the algorithm.
+	 */
+	public SolverStatistics(String solver) {
+		this.solver = solver;
+	}
+
+	/**
+	 * Get the name of the algorithm.
+	 *
+	 * @return The name of the algorithm.
+	 */
+	public String getSolver() {
+		return this.solver;
+	}
+
+	/**
+	 * Get the time spent building the representation of the graph the algorithm
+	 * works on, such as the residual graph.
+	 *
+	 * @return Build time in nanoseconds.
+	 */
+	public long getBuildTimeNanos() {
+		return this.buildTimeNanos;
+	}
+
+	/**
+	 * Set the time spent building the representation of the graph.
+	 *
+	 * @param buildTimeNanos Build time in nanoseconds.
+	 */
+	public void setBuildTimeNanos(long buildTimeNanos) {
+		this.buildTimeNanos = buildTimeNanos;
+	}
+
+	/**
+	 * Get the time spent computing the flow.
+	 *
+	 * @return Solve time in nanoseconds.
+	 */
+	public long getSolveTimeNanos() {
+		return this.solveTimeNanos;
+	}
+
+	/**
+	 * Set the time spent computing the flow.
+	 *
+	 * @param solveTimeNanos Solve time in nanoseconds.
+	 */
+	public void setSolveTimeNanos(long solveTimeNanos) {
+		this.solveTimeNanos = solveTimeNanos;
+	}
+
+	/**
+	 * Get the number of augmenting paths the flow was sent along.
+	 *
+	 * @return Number of augmenting paths.
+	 */
+	public long getAugmentingPaths() {
+		return this.augmentingPaths;
+	}
+
+	/**
+	 * Count an augmenting path.
+	 */
+	public void countAugmentingPath() {
+		this.augmentingPaths++;
+	}
+
+	/**
+	 * Get the number of arcs looked at while searching for paths, pushes or
+	 * heights.
+	 *
+	 * @return Number of arcs scanned.
+	 */
+	public long getArcsScanned() {
+		return this.arcsScanned;
+	}
+
+	/**
+	 * Count scanned arcs.
+	 *
+	 * @param arcs Number of arcs scanned.
+	 */
+	public void countArcsScanned(long arcs) {
+		this.arcsScanned += arcs;
+	}
+
+	/**
+	 * Get the number of pushes.
+	 *
+	 * @return Number of pushes.
+	 */
+	public long getPushes() {
+		return this.pushes;
+	}
+
+	/**
+	 * Count a push.
+	 */
+	public void countPush() {
+		this.pushes++;
+	}
+
+	/**
+	 * Get the number of relabels of single vertices.
+	 *
+	 * @return Number of relabels.
+	 */
+	public long getRelabels() {
+		return this.relabels;
+	}
+
+	/**
+	 * Count a relabel.
+	 */
+	public void countRelabel() {
+		this.relabels++;
+	}
+
+	/**
+	 * Get the number of times all heights were recomputed at once.
+	 *
+	 * @return Number of global relabels.
+	 */
+	public long getGlobalRelabels() {
+		return this.globalRelabels;
+	}
+
+	/**
+	 * Count a global relabel.
+	 */
+	public void countGlobalRelabel() {
+		this.globalRelabels++;
+	}
+
+	/**
+	 * Get the largest number of vertices waiting to be processed at the same time.
+	 *
+	 * @return Peak number of active vertices.
+	 */
+	public int getPeakActiveVertices() {
+		return this.peakActiveVertices;
+	}
+
+	/**
+	 * Record the current number of vertices waiting to be processed.
+	 *
+	 * @param activeVertices Number of active vertices.
+	 */
+	public void recordActiveVertices(int activeVertices) {
+		if (activeVertices > this.peakActiveVertices) {
+			this.peakActiveVertices = activeVertices;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return this.solver + " build=" + this.buildTimeNanos / 1000000 + "ms solve=" + this.solveTimeNanos / 1000000
+				+ "ms augmentingPaths=" + this.augmentingPaths + " arcsScanned=" + this.arcsScanned + " pushes="
+				+ this.pushes + " relabels=" + this.relabels + " globalRelabels=" + this.globalRelabels
+				+ " peakActiveVertices=" + this.peakActiveVertices;
+	}
+}
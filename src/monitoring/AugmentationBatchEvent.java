@@ -0,0 +1,74 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event summarizing a batch of augmenting paths of the
+ * Ford-Fulkerson algorithms. One event per path would cost more than many
+ * augmentations themselves, so an event covers up to
+ * {@link AugmentationRecorder#BATCH_SIZE} paths, and its duration is the time
+ * they took together. The algorithms create the events through an
+ * {@link AugmentationRecorder}.
+ */
+@Name("maxflow.AugmentationBatch")
+@Label("Augmentation Batch")
+@Category("Max Flow")
+@Description("A batch of augmenting paths of a Ford-Fulkerson algorithm")
+@StackTrace(false)
+public class AugmentationBatchEvent extends Event {
+	/** Instance that is only asked whether the event is recorded. */
+	private static final AugmentationBatchEvent PROBE = new AugmentationBatchEvent();
+
+	@Label("Solver")
+	private String solver;
+
+	@Label("Vertices")
+	private int vertices;
+
+	@Label("Edges")
+	private int edges;
+
+	@Label("Augmenting Paths")
+	private long augmentingPaths;
+
+	@Label("Arcs Scanned")
+	private long arcsScanned;
+
+	@Label("Flow Added")
+	private double flowAdded;
+
+	/**
+	 * Tells whether a recording that is running takes the event, so that no
+	 * event has to be created otherwise.
+	 *
+	 * @return True if the event is recorded.
+	 */
+	public static boolean isRecorded() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Set the work of the batch, before the event is committed.
+	 *
+	 * @param solver          The name of the algorithm.
+	 * @param vertices        Number of vertices of the graph.
+	 * @param edges           Number of edges of the graph.
+	 * @param augmentingPaths Number of paths augmented in the batch.
+	 * @param arcsScanned     Number of arcs scanned in the batch.
+	 * @param flowAdded       Flow added in the batch.
+	 */
+	public void setBatch(String solver, int vertices, int edges, long augmentingPaths, long arcsScanned,
+			double flowAdded) {
+		this.solver = solver;
+		this.vertices = vertices;
+		this.edges = edges;
+		this.augmentingPaths = augmentingPaths;
+		this.arcsScanned = arcsScanned;
+		this.flowAdded = flowAdded;
+	}
+}
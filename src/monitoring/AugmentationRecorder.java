@@ -0,0 +1,87 @@
+package monitoring;
+
+import model.SolverStatistics;
+
+/**
+ * Cuts the augmenting paths of a Ford-Fulkerson computation into batches of
+ * {@link #BATCH_SIZE} paths and records each batch as an
+ * {@link AugmentationBatchEvent}. An algorithm creates the recorder when it
+ * starts, calls {@link #augment(SolverStatistics, double)} after every
+ * augmentation, which only adds up the flow and compares counters until the
+ * batch is full, and {@link #end(SolverStatistics)} when it stops. A batch only
+ * gets an event when a recording takes it, so no event is created while the
+ * flight recorder is off.
+ */
+public class AugmentationRecorder {
+	/** Largest number of augmenting paths summarized by one event. */
+	public static final int BATCH_SIZE = 1000;
+
+	private final String solver;
+	private final int vertices;
+	private final int edges;
+	private AugmentationBatchEvent event; // event of the current batch, or null if it is not recorded
+	private long startPaths; // counters at the start of the batch
+	private long startArcs;
+	private double flowAdded;
+
+	/**
+	 * Constructor to start the first batch at the current counters of an
+	 * algorithm.
+	 *
+	 * @param solver     The name of the algorithm.
+	 * @param vertices   Number of vertices of the graph.
+	 * @param edges      Number of edges of the graph.
+	 * @param statistics The counters of the computation.
+	 */
+	public AugmentationRecorder(String solver, int vertices, int edges, SolverStatistics statistics) {
+		this.solver = solver;
+		this.vertices = vertices;
+		this.edges = edges;
+		startBatch(statistics);
+	}
+
+	/**
+	 * Continues the batch after an augmentation, or ends it and starts the next
+	 * one once it holds {@link #BATCH_SIZE} paths.
+	 *
+	 * @param statistics The counters of the computation.
+	 * @param bottleneck The flow added by the augmentation.
+	 */
+	public void augment(SolverStatistics statistics, double bottleneck) {
+		this.flowAdded += bottleneck;
+		if (statistics.getAugmentingPaths() - this.startPaths >= BATCH_SIZE) {
+			end(statistics);
+			startBatch(statistics);
+		}
+	}
+
+	/**
+	 * Ends the batch and records it if it holds any paths.
+	 *
+	 * @param statistics The counters of the computation.
+	 */
+	public void end(SolverStatistics statistics) {
+		if (this.event != null && statistics.getAugmentingPaths() > this.startPaths && this.event.shouldCommit()) {
+			this.event.setBatch(this.solver, this.vertices, this.edges,
+					statistics.getAugmentingPaths() - this.startPaths, statistics.getArcsScanned() - this.startArcs,
+					this.flowAdded);
+			this.event.commit();
+		}
+		this.event = null;
+	}
+
+	/**
+	 * Starts a batch at the current counters, with an event if it is recorded.
+	 *
+	 * @param statistics The counters of the computation.
+	 */
+	private void startBatch(SolverStatistics statistics) {
+		this.startPaths = statistics.getAugmentingPaths();
+		this.startArcs = statistics.getArcsScanned();
+		this.flowAdded = 0;
+		this.event = AugmentationBatchEvent.isRecorded() ? new AugmentationBatchEvent() : null;
+		if (this.event != null) {
+			this.event.begin();
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the gap heuristic of push-relabel: a height no
+ * vertex has any more, above which every vertex is cut off from the sink. Only
+ * NetworkPreFlowPush keeps count of the heights to find gaps; PreFlowPush does
+ * not use the heuristic.
+ */
+@Name("maxflow.Gap")
+@Label("Gap")
+@Category("Max Flow")
+@Description("Lifting the vertices above an empty height out of reach of the sink")
+@StackTrace(false)
+public class GapEvent extends Event {
+	/** Instance that is only asked whether the event is recorded. */
+	private static final GapEvent PROBE = new GapEvent();
+
+	@Label("Height")
+	private int height;
+
+	@Label("Vertices")
+	private int vertices;
+
+	@Label("Lifted Vertices")
+	private int liftedVertices;
+
+	/**
+	 * Tells whether a recording that is running takes the event, so that no
+	 * event has to be created otherwise.
+	 *
+	 * @return True if the event is recorded.
+	 */
+	public static boolean isRecorded() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Set the gap and its effect, before the event is committed.
+	 *
+	 * @param height         The height left empty.
+	 * @param vertices       Number of vertices of the network.
+	 * @param liftedVertices Number of vertices lifted above the gap.
+	 */
+	public void setGap(int height, int vertices, int liftedVertices) {
+		this.height = height;
+		this.vertices = vertices;
+		this.liftedVertices = liftedVertices;
+	}
+}
@@ -0,0 +1,63 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a global relabel of push-relabel, which sets every
+ * height to the residual distance to the sink. Only NetworkPreFlowPush relabels
+ * globally; PreFlowPush lifts one vertex at a time and has none to report.
+ */
+@Name("maxflow.GlobalRelabel")
+@Label("Global Relabel")
+@Category("Max Flow")
+@Description("Recomputing all heights of push-relabel with a search from the sink")
+@StackTrace(false)
+public class GlobalRelabelEvent extends Event {
+	/** Instance that is only asked whether the event is recorded. */
+	private static final GlobalRelabelEvent PROBE = new GlobalRelabelEvent();
+
+	@Label("Vertices")
+	private int vertices;
+
+	@Label("Edges")
+	private int edges;
+
+	@Label("Reaching Vertices")
+	@Description("Vertices that can still reach the sink")
+	private int reachingVertices;
+
+	@Label("Relabels")
+	@Description("Relabels since the previous global relabel")
+	private int relabels;
+
+	/**
+	 * Tells whether a recording that is running takes the event, so that no
+	 * event has to be created otherwise.
+	 *
+	 * @return True if the event is recorded.
+	 */
+	public static boolean isRecorded() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Set the outcome of the global relabel, before the event is committed.
+	 *
+	 * @param vertices         Number of vertices of the network.
+	 * @param edges            Number of edges of the network.
+	 * @param reachingVertices Number of vertices that can reach the sink.
+	 * @param relabels         Number of relabels since the previous global
+	 *                         relabel.
+	 */
+	public void setRelabel(int vertices, int edges, int reachingVertices, int relabels) {
+		this.vertices = vertices;
+		this.edges = edges;
+		this.reachingVertices = reachingVertices;
+		this.relabels = relabels;
+	}
+}
@@ -0,0 +1,53 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for reading a graph file.
+ */
+@Name("maxflow.GraphLoad")
+@Label("Graph Load")
+@Category("Max Flow")
+@Description("Reading a graph file into a SimpleGraph")
+@StackTrace(false)
+public class GraphLoadEvent extends Event {
+	/** Instance that is only asked whether the event is recorded. */
+	private static final GraphLoadEvent PROBE = new GraphLoadEvent();
+
+	@Label("Path")
+	private String path;
+
+	@Label("Vertices")
+	private int vertices;
+
+	@Label("Edges")
+	private int edges;
+
+	/**
+	 * Tells whether a recording that is running takes the event, so that no
+	 * event has to be created otherwise.
+	 *
+	 * @return True if the event is recorded.
+	 */
+	public static boolean isRecorded() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Set what was loaded, before the event is committed.
+	 *
+	 * @param path     The graph file.
+	 * @param vertices Number of vertices read.
+	 * @param edges    Number of edges read.
+	 */
+	public void setGraph(String path, int vertices, int edges) {
+		this.path = path;
+		this.vertices = vertices;
+		this.edges = edges;
+	}
+}
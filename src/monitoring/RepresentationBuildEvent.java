@@ -0,0 +1,54 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for building the residual graph or flow network an
+ * algorithm works on.
+ */
+@Name("maxflow.RepresentationBuild")
+@Label("Representation Build")
+@Category("Max Flow")
+@Description("Building the graph representation of a max flow algorithm")
+@StackTrace(false)
+public class RepresentationBuildEvent extends Event {
+	/** Instance that is only asked whether the event is recorded. */
+	private static final RepresentationBuildEvent PROBE = new RepresentationBuildEvent();
+
+	@Label("Solver")
+	private String solver;
+
+	@Label("Vertices")
+	private int vertices;
+
+	@Label("Edges")
+	private int edges;
+
+	/**
+	 * Tells whether a recording that is running takes the event, so that no
+	 * event has to be created otherwise.
+	 *
+	 * @return True if the event is recorded.
+	 */
+	public static boolean isRecorded() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Set what was built, before the event is committed.
+	 *
+	 * @param solver   The name of the algorithm.
+	 * @param vertices Number of vertices of the graph.
+	 * @param edges    Number of edges of the graph.
+	 */
+	public void setGraph(String solver, int vertices, int edges) {
+		this.solver = solver;
+		this.vertices = vertices;
+		this.edges = edges;
+	}
+}
@@ -0,0 +1,70 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one delta phase of Scaling Ford-Fulkerson.
+ */
+@Name("maxflow.ScalingPhase")
+@Label("Scaling Phase")
+@Category("Max Flow")
+@Description("One delta phase of Scaling Ford-Fulkerson")
+@StackTrace(false)
+public class ScalingPhaseEvent extends Event {
+	/** Instance that is only asked whether the event is recorded. */
+	private static final ScalingPhaseEvent PROBE = new ScalingPhaseEvent();
+
+	@Label("Delta")
+	@Description("Smallest residual capacity of the augmenting paths of the phase")
+	private double delta;
+
+	@Label("Vertices")
+	private int vertices;
+
+	@Label("Edges")
+	private int edges;
+
+	@Label("Augmenting Paths")
+	private long augmentingPaths;
+
+	@Label("Arcs Scanned")
+	private long arcsScanned;
+
+	@Label("Flow Added")
+	private double flowAdded;
+
+	/**
+	 * Tells whether a recording that is running takes the event, so that no
+	 * event has to be created otherwise.
+	 *
+	 * @return True if the event is recorded.
+	 */
+	public static boolean isRecorded() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Set the work of the phase, before the event is committed.
+	 *
+	 * @param delta           The delta of the phase.
+	 * @param vertices        Number of vertices of the graph.
+	 * @param edges           Number of edges of the residual graph.
+	 * @param augmentingPaths Number of paths augmented in the phase.
+	 * @param arcsScanned     Number of arcs scanned in the phase.
+	 * @param flowAdded       Flow added in the phase.
+	 */
+	public void setPhase(double delta, int vertices, int edges, long augmentingPaths, long arcsScanned,
+			double flowAdded) {
+		this.delta = delta;
+		this.vertices = vertices;
+		this.edges = edges;
+		this.augmentingPaths = augmentingPaths;
+		this.arcsScanned = arcsScanned;
+		this.flowAdded = flowAdded;
+	}
+}
@@ -0,0 +1,123 @@
+package monitoring;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+/**
+ * Keeps track of the max flow computations running in the JVM so their
+ * progress can be followed while they run: through JMX, or through a line per
+ * computation printed periodically. The monitor registers itself with the
+ * platform MBean server the first time a computation starts. Algorithms call
+ * {@link #start(String, int, int)} when they begin and
+ * {@link #finish(SolveProgress)} when they end, and publish their counters to
+ * the returned {@link SolveProgress} while they run.
+ */
+public class SolveMonitor implements SolveMonitorMXBean {
+	/** The name the monitor is registered under. */
+	public static final String OBJECT_NAME = "maxflow:type=SolveMonitor";
+
+	private static final SolveMonitor INSTANCE = register(new SolveMonitor());
+
+	private Map<Long, SolveProgress> activeSolves = new ConcurrentSkipListMap<>();
+	private AtomicLong nextId = new AtomicLong();
+	private AtomicLong completedSolves = new AtomicLong();
+
+	/**
+	 * Registers the monitor with the platform MBean server. A JVM without JMX
+	 * still runs the computations, only without the MBean.
+	 *
+	 * @param monitor The monitor.
+	 * @return The monitor.
+	 */
+	private static SolveMonitor register(SolveMonitor monitor) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, new ObjectName(OBJECT_NAME));
+		} catch (Exception | LinkageError e) {
+			// Monitoring is optional
+		}
+		return monitor;
+	}
+
+	public static SolveMonitor getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts following a computation that begins now on the current thread.
+	 *
+	 * @param solver   The name of the algorithm.
+	 * @param vertices Number of vertices of the graph.
+	 * @param edges    Number of edges of the graph.
+	 * @return The progress the algorithm publishes to.
+	 */
+	public static SolveProgress start(String solver, int vertices, int edges) {
+		SolveProgress progress = new SolveProgress(INSTANCE.nextId.incrementAndGet(), solver, vertices, edges);
+		INSTANCE.activeSolves.put(progress.getId(), progress);
+		return progress;
+	}
+
+	/**
+	 * Stops following a computation, whether it completed or failed.
+	 *
+	 * @param progress The progress returned by {@link #start(String, int, int)}.
+	 */
+	public static void finish(SolveProgress progress) {
+		if (INSTANCE.activeSolves.remove(progress.getId()) != null) {
+			INSTANCE.completedSolves.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Prints the progress of every running computation periodically from a
+	 * daemon thread, until the JVM exits.
+	 *
+	 * @param periodMillis Time between two reports in milliseconds.
+	 * @param out          Where the reports are printed.
+	 */
+	public static void startLogging(long periodMillis, PrintStream out) {
+		ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "solve-progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+		logger.scheduleAtFixedRate(() -> {
+			for (String line : INSTANCE.getProgressLines()) {
+				out.println(" Progress " + line);
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public int getActiveSolveCount() {
+		return this.activeSolves.size();
+	}
+
+	@Override
+	public long getCompletedSolveCount() {
+		return this.completedSolves.get();
+	}
+
+	@Override
+	public List<SolveProgress> getActiveSolves() {
+		return new ArrayList<>(this.activeSolves.values());
+	}
+
+	@Override
+	public List<String> getProgressLines() {
+		List<String> lines = new ArrayList<>();
+		for (SolveProgress progress : this.activeSolves.values()) {
+			lines.add(progress.toString());
+		}
+		return lines;
+	}
+}
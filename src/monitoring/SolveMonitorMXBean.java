@@ -0,0 +1,39 @@
+package monitoring;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link SolveMonitor}, visible in JConsole, VisualVM
+ * or any other JMX client under {@link SolveMonitor#OBJECT_NAME}.
+ */
+public interface SolveMonitorMXBean {
+
+	/**
+	 * Get the number of computations running now.
+	 *
+	 * @return Number of running computations.
+	 */
+	int getActiveSolveCount();
+
+	/**
+	 * Get the number of computations that have finished since the JVM started.
+	 *
+	 * @return Number of finished computations.
+	 */
+	long getCompletedSolveCount();
+
+	/**
+	 * Get the progress of the computations running now, oldest first.
+	 *
+	 * @return The progress of every running computation.
+	 */
+	List<SolveProgress> getActiveSolves();
+
+	/**
+	 * Get the progress of the computations running now as one line each, the
+	 * same lines the periodic log prints.
+	 *
+	 * @return One line per running computation.
+	 */
+	List<String> getProgressLines();
+}
@@ -0,0 +1,260 @@
+package monitoring;
+
+import model.SolverStatistics;
+
+/**
+ * The live state of one max flow computation, written by the thread running it
+ * and read by {@link SolveMonitor} from other threads. Only the computing
+ * thread writes, so the volatile fields need no locking; algorithms publish
+ * after every augmentation, or every few thousand pushes and relabels, so
+ * readers see recent values without slowing the inner loops down.
+ */
+public class SolveProgress {
+	/** Number of pushes and relabels between two updates of push-relabel algorithms. */
+	public static final int STEP_INTERVAL = 1024;
+
+	private long id;
+	private String solver;
+	private String thread;
+	private int vertices;
+	private int edges;
+	private long startNanos;
+	private volatile double upperBound = Double.POSITIVE_INFINITY;
+	private volatile double flow;
+	private volatile long augmentingPaths;
+	private volatile long pushes;
+	private volatile long relabels;
+	private volatile int activeVertices;
+
+	/**
+	 * Constructor to create the progress of a computation starting now on the
+	 * current thread.
+	 *
+	 * @param id       Number of the computation, unique within the JVM.
+	 * @param solver   The name of the algorithm.
+	 * @param vertices Number of vertices of the graph.
+	 * @param edges    Number of edges of the graph.
+	 */
+	SolveProgress(long id, String solver, int vertices, int edges) {
+		this.id = id;
+		this.solver = solver;
+		this.thread = Thread.currentThread().getName();
+		this.vertices = vertices;
+		this.edges = edges;
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Set the upper bound the flow cannot exceed, used to estimate the remaining
+	 * time.
+	 *
+	 * @param upperBound The upper bound on the maximum flow value.
+	 */
+	public void setUpperBound(double upperBound) {
+		this.upperBound = upperBound;
+	}
+
+	/**
+	 * Publishes an augmentation of the Ford-Fulkerson algorithms.
+	 *
+	 * @param bottleneck The flow added by the augmentation.
+	 * @param statistics The counters of the computation.
+	 */
+	public void augment(double bottleneck, SolverStatistics statistics) {
+		this.flow += bottleneck;
+		this.augmentingPaths = statistics.getAugmentingPaths();
+	}
+
+	/**
+	 * Publishes the state of a push-relabel computation.
+	 *
+	 * @param flow           The excess that has reached the sink.
+	 * @param statistics     The counters of the computation.
+	 * @param activeVertices Number of vertices with excess waiting to be
+	 *                       discharged.
+	 */
+	public void update(double flow, SolverStatistics statistics, int activeVertices) {
+		this.flow = flow;
+		this.pushes = statistics.getPushes();
+		this.relabels = statistics.getRelabels();
+		this.activeVertices = activeVertices;
+	}
+
+	/**
+	 * Get the number of the computation, unique within the JVM.
+	 *
+	 * @return Number of the computation.
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Get the name of the algorithm.
+	 *
+	 * @return The name of the algorithm.
+	 */
+	public String getSolver() {
+		return this.solver;
+	}
+
+	/**
+	 * Get the name of the thread running the computation.
+	 *
+	 * @return The name of the thread.
+	 */
+	public String getThread() {
+		return this.thread;
+	}
+
+	/**
+	 * Get the number of vertices of the graph.
+	 *
+	 * @return Number of vertices.
+	 */
+	public int getVertices() {
+		return this.vertices;
+	}
+
+	/**
+	 * Get the number of edges of the graph.
+	 *
+	 * @return Number of edges.
+	 */
+	public int getEdges() {
+		return this.edges;
+	}
+
+	/**
+	 * Get the flow that has reached the sink so far.
+	 *
+	 * @return The flow value.
+	 */
+	public double getFlow() {
+		return this.flow;
+	}
+
+	/**
+	 * Get the upper bound the flow cannot exceed.
+	 *
+	 * @return The upper bound, infinite until it is known.
+	 */
+	public double getUpperBound() {
+		return this.upperBound;
+	}
+
+	/**
+	 * Get the number of augmenting paths so far.
+	 *
+	 * @return Number of augmenting paths.
+	 */
+	public long getAugmentingPaths() {
+		return this.augmentingPaths;
+	}
+
+	/**
+	 * Get the number of pushes so far.
+	 *
+	 * @return Number of pushes.
+	 */
+	public long getPushes() {
+		return this.pushes;
+	}
+
+	/**
+	 * Get the number of relabels so far.
+	 *
+	 * @return Number of relabels.
+	 */
+	public long getRelabels() {
+		return this.relabels;
+	}
+
+	/**
+	 * Get the number of vertices with excess waiting to be discharged at the last update.
+	 *
+	 * @return Number of active vertices.
+	 */
+	public int getActiveVertices() {
+		return this.activeVertices;
+	}
+
+	/**
+	 * Get the time since the computation started.
+	 *
+	 * @return Elapsed time in milliseconds.
+	 */
+	public long getElapsedMillis() {
+		return (System.nanoTime() - this.startNanos) / 1000000;
+	}
+
+	/**
+	 * Get the average number of augmenting paths per second so far.
+	 *
+	 * @return Augmenting paths per second.
+	 */
+	public double getAugmentationsPerSecond() {
+		return perSecond(this.augmentingPaths);
+	}
+
+	/**
+	 * Get the average number of pushes per second so far.
+	 *
+	 * @return Pushes per second.
+	 */
+	public double getPushesPerSecond() {
+		return perSecond(this.pushes);
+	}
+
+	/**
+	 * Get the average number of relabels per second so far.
+	 *
+	 * @return Relabels per second.
+	 */
+	public double getRelabelsPerSecond() {
+		return perSecond(this.relabels);
+	}
+
+	/**
+	 * Estimates the time left if the flow keeps growing at its average rate so
+	 * far until it reaches the upper bound. The maximum flow may be below the
+	 * bound, so the computation can finish sooner.
+	 *
+	 * @return Estimated remaining time in milliseconds, or -1 while no flow or
+	 *         no finite bound is known.
+	 */
+	public long getEstimatedRemainingMillis() {
+		double currentFlow = this.flow;
+		double bound = this.upperBound;
+		if (currentFlow <= 0 || Double.isInfinite(bound)) {
+			return -1;
+		}
+		return (long) (getElapsedMillis() * Math.max(0, bound - currentFlow) / currentFlow);
+	}
+
+	/**
+	 * Get the average rate of a counter since the computation started.
+	 *
+	 * @param count The counter.
+	 * @return The counter per second.
+	 */
+	private double perSecond(long count) {
+		long elapsed = getElapsedMillis();
+		return elapsed == 0 ? 0 : count * 1000.0 / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		String line = String.format("#%d %s on %s (%d vertices, %d edges): flow %s of at most %s after %d ms", this.id,
+				this.solver, this.thread, this.vertices, this.edges, this.flow, this.upperBound, getElapsedMillis());
+		if (this.augmentingPaths > 0) {
+			line += String.format(", %d paths (%.1f/s)", this.augmentingPaths, getAugmentationsPerSecond());
+		}
+		if (this.pushes > 0) {
+			line += String.format(", %d pushes (%.1f/s), %d relabels (%.1f/s), %d active", this.pushes,
+					getPushesPerSecond(), this.relabels, getRelabelsPerSecond(), this.activeVertices);
+		}
+		long remaining = getEstimatedRemainingMillis();
+		return remaining < 0 ? line : line + ", about " + remaining + " ms left";
+	}
+}
@@ -0,0 +1,121 @@
+package preprocess;
+
+import graph.Edge;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * An arc of a reduced graph together with the original edges it stands for. A
+ * group is either a single original edge, a series of groups (a contracted
+ * chain) or a set of parallel groups (merged arcs). The structure is used to
+ * carry a flow found on the reduced graph back to the original edges.
+ */
+class ArcGroup {
+	private final Edge edge;
+	private final boolean series;
+	private final List<ArcGroup> children;
+	private final double capacity;
+
+	/**
+	 * Creates a group for a single original edge.
+	 *
+	 * @param edge     The original edge.
+	 * @param capacity The capacity of the original edge.
+	 */
+	ArcGroup(Edge edge, double capacity) {
+		this.edge = edge;
+		this.series = false;
+		this.children = null;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Creates a group combining two groups either in series or in parallel.
+	 *
+	 * @param first  The first group.
+	 * @param second The second group.
+	 * @param series True to combine the groups in series, false for parallel.
+	 */
+	private ArcGroup(ArcGroup first, ArcGroup second, boolean series) {
+		this.edge = null;
+		this.series = series;
+		this.children = new ArrayList<>();
+		addChildren(first, series);
+		addChildren(second, series);
+		this.capacity = series ? Math.min(first.capacity, second.capacity) : first.capacity + second.capacity;
+	}
+
+	/**
+	 * Combines two groups that form a chain through a contracted vertex.
+	 *
+	 * @param in  The group entering the contracted vertex.
+	 * @param out The group leaving the contracted vertex.
+	 * @return The combined group whose capacity is the bottleneck of both.
+	 */
+	static ArcGroup series(ArcGroup in, ArcGroup out) {
+		return new ArcGroup(in, out, true);
+	}
+
+	/**
+	 * Combines two groups that connect the same pair of vertices.
+	 *
+	 * @param first  The first group.
+	 * @param second The second group.
+	 * @return The combined group whose capacity is the sum of both.
+	 */
+	static ArcGroup parallel(ArcGroup first, ArcGroup second) {
+		return new ArcGroup(first, second, false);
+	}
+
+	/**
+	 * Get the capacity of the group.
+	 *
+	 * @return The capacity of the group.
+	 */
+	double getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Distributes the given flow over the original edges of this group. A series
+	 * passes the whole flow through every member, while parallel members are
+	 * filled one after the other up to their capacity.
+	 *
+	 * @param flow  The flow carried by this group.
+	 * @param flows Flow per original edge, updated in place.
+	 */
+	void distribute(double flow, Hashtable<Edge, Double> flows) {
+		if (this.edge != null) {
+			flows.put(this.edge, flows.getOrDefault(this.edge, 0.0) + flow);
+			return;
+		}
+
+		double remaining = flow;
+		for (ArcGroup child : this.children) {
+			if (this.series) {
+				child.distribute(flow, flows);
+			} else if (remaining > 0) {
+				double share = Math.min(child.capacity, remaining);
+				child.distribute(share, flows);
+				remaining -= share;
+			}
+		}
+	}
+
+	/**
+	 * Adds a group as a child, flattening it if it is of the same kind so that
+	 * long chains and wide bundles do not nest deeply.
+	 *
+	 * @param group  The group to add.
+	 * @param series Kind of the group being built.
+	 */
+	private void addChildren(ArcGroup group, boolean series) {
+		if (group.edge == null && group.series == series) {
+			this.children.addAll(group.children);
+		} else {
+			this.children.add(group);
+		}
+	}
+}
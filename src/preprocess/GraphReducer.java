@@ -0,0 +1,255 @@
+package preprocess;
+
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Shrinks a flow network before it is handed to a max flow algorithm. The
+ * reduction keeps the max flow value unchanged and is done in three steps:
+ * <ul>
+ * <li>vertices that are not on any path from the source to the sink are
+ * removed together with their edges,</li>
+ * <li>parallel edges are merged into a single edge with the summed
+ * capacity,</li>
+ * <li>vertices with exactly one incoming and one outgoing edge are contracted,
+ * replacing the chain by a single edge with the bottleneck capacity.</li>
+ * </ul>
+ * The returned {@link ReducedGraph} keeps track of the original edges so that a
+ * flow on the reduced graph can be mapped back.
+ */
+public class GraphReducer {
+
+	/**
+	 * Reduces the given flow network. The input graph is left untouched.
+	 *
+	 * @param graph The flow network to reduce, with source "s" and sink "t".
+	 * @return The reduced graph and the mapping back to the original edges.
+	 * @throws Exception If the graph has no source or sink vertex.
+	 */
+	public ReducedGraph reduce(SimpleGraph graph) throws Exception {
+		// Number the vertices in the order of the vertex list
+		Vertex[] vertices = new Vertex[graph.numVertices()];
+		Hashtable<Vertex, Integer> index = new Hashtable<>();
+		int source = -1;
+		int sink = -1;
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			vertices[i] = (Vertex) vertexIterator.next();
+			index.put(vertices[i], i);
+			if ("s".equals(vertices[i].getName())) {
+				source = i;
+			} else if ("t".equals(vertices[i].getName())) {
+				sink = i;
+			}
+		}
+		if (source < 0 || sink < 0) {
+			throw new Exception("Graph must contain a source vertex s and a sink vertex t");
+		}
+
+		// Edges without capacity, self loops, edges into the source and edges out of
+		// the sink can never carry flow
+		ArrayList<Edge> edges = new ArrayList<>();
+		ArrayList<int[]> ends = new ArrayList<>();
+		Iterator edgeIterator = graph.edges();
+		while (edgeIterator.hasNext()) {
+			Edge edge = (Edge) edgeIterator.next();
+			int tail = index.get(edge.getFirstEndpoint());
+			int head = index.get(edge.getSecondEndpoint());
+			if ((double) edge.getData() > 0 && tail != head && head != source && tail != sink) {
+				edges.add(edge);
+				ends.add(new int[] { tail, head });
+			}
+		}
+
+		int m = edges.size();
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		for (int i = 0; i < m; i++) {
+			tails[i] = ends.get(i)[0];
+			heads[i] = ends.get(i)[1];
+		}
+
+		// Only edges leaving a vertex reachable from the source and entering a vertex
+		// that reaches the sink can carry flow
+		boolean[] reachable = search(vertices.length, tails, heads, source);
+		boolean[] reachesSink = search(vertices.length, heads, tails, sink);
+
+		Reduction reduction = new Reduction(vertices.length);
+		for (int i = 0; i < m; i++) {
+			if (reachable[tails[i]] && reachesSink[heads[i]]) {
+				Edge edge = edges.get(i);
+				reduction.insertArc(tails[i], heads[i], new ArcGroup(edge, (double) edge.getData()));
+			}
+		}
+
+		// Contract vertices with one incoming and one outgoing arc until none is left
+		Deque<Integer> worklist = new ArrayDeque<>();
+		for (int v = 0; v < vertices.length; v++) {
+			worklist.add(v);
+		}
+		while (!worklist.isEmpty()) {
+			int v = worklist.poll();
+			if (v == source || v == sink || reduction.inArcs.get(v).size() != 1
+					|| reduction.outArcs.get(v).size() != 1) {
+				continue;
+			}
+
+			Arc in = reduction.inArcs.get(v).iterator().next();
+			Arc out = reduction.outArcs.get(v).iterator().next();
+			reduction.removeArc(in);
+			reduction.removeArc(out);
+			reduction.contractedVertices++;
+
+			// A chain that leads back to where it started cannot carry source to sink
+			// flow and is dropped
+			if (in.tail != out.head) {
+				reduction.insertArc(in.tail, out.head, ArcGroup.series(in.group, out.group));
+			}
+			worklist.add(in.tail);
+			worklist.add(out.head);
+		}
+
+		// Build the reduced graph from the remaining vertices and arcs
+		SimpleGraph reducedGraph = new SimpleGraph();
+		Vertex[] reducedVertices = new Vertex[vertices.length];
+		int removedVertices = 0;
+		for (int v = 0; v < vertices.length; v++) {
+			if (v == source || v == sink || !reduction.inArcs.get(v).isEmpty()
+					|| !reduction.outArcs.get(v).isEmpty()) {
+				reducedVertices[v] = reducedGraph.insertVertex(null, vertices[v].getName());
+			} else {
+				removedVertices++;
+			}
+		}
+
+		Hashtable<String, ArcGroup> groups = new Hashtable<>();
+		for (Arc arc : reduction.arcs) {
+			if (!arc.removed) {
+				Vertex tail = reducedVertices[arc.tail];
+				Vertex head = reducedVertices[arc.head];
+				reducedGraph.insertEdge(tail, head, arc.group.getCapacity(), null);
+				groups.put(tail.getName() + "-" + head.getName(), arc.group);
+			}
+		}
+
+		return new ReducedGraph(graph, reducedGraph, groups, removedVertices - reduction.contractedVertices,
+				reduction.mergedArcs, reduction.contractedVertices);
+	}
+
+	/**
+	 * Marks the vertices reachable from the start vertex following the given arcs.
+	 *
+	 * @param n     Number of vertices.
+	 * @param from  Vertex each arc leaves.
+	 * @param to    Vertex each arc enters.
+	 * @param start Vertex the search starts from.
+	 * @return For each vertex, whether it is reachable from the start vertex.
+	 */
+	private static boolean[] search(int n, int[] from, int[] to, int start) {
+		// Group the arcs by the vertex they leave
+		int[] first = new int[n + 1];
+		for (int v : from) {
+			first[v + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			first[v + 1] += first[v];
+		}
+		int[] next = new int[from.length];
+		int[] fill = first.clone();
+		for (int i = 0; i < from.length; i++) {
+			next[fill[from[i]]++] = to[i];
+		}
+
+		boolean[] visited = new boolean[n];
+		int[] stack = new int[n];
+		int size = 0;
+		visited[start] = true;
+		stack[size++] = start;
+		while (size > 0) {
+			int v = stack[--size];
+			for (int i = first[v]; i < first[v + 1]; i++) {
+				if (!visited[next[i]]) {
+					visited[next[i]] = true;
+					stack[size++] = next[i];
+				}
+			}
+		}
+		return visited;
+	}
+
+	/**
+	 * An arc of the graph being reduced.
+	 */
+	private static class Arc {
+		private final int tail;
+		private final int head;
+		private ArcGroup group;
+		private boolean removed;
+
+		private Arc(int tail, int head, ArcGroup group) {
+			this.tail = tail;
+			this.head = head;
+			this.group = group;
+		}
+	}
+
+	/**
+	 * The working state of a reduction: the live arcs and their incidence.
+	 */
+	private static class Reduction {
+		private final List<Arc> arcs = new ArrayList<>();
+		private final List<LinkedHashSet<Arc>> inArcs = new ArrayList<>();
+		private final List<LinkedHashSet<Arc>> outArcs = new ArrayList<>();
+		private final HashMap<Long, Arc> arcsByEnds = new HashMap<>();
+		private final int n;
+		private int mergedArcs;
+		private int contractedVertices;
+
+		private Reduction(int n) {
+			this.n = n;
+			for (int v = 0; v < n; v++) {
+				this.inArcs.add(new LinkedHashSet<>());
+				this.outArcs.add(new LinkedHashSet<>());
+			}
+		}
+
+		/**
+		 * Adds an arc, merging it into an existing arc between the same vertices.
+		 */
+		private void insertArc(int tail, int head, ArcGroup group) {
+			long key = (long) tail * this.n + head;
+			Arc existing = this.arcsByEnds.get(key);
+			if (existing != null) {
+				existing.group = ArcGroup.parallel(existing.group, group);
+				this.mergedArcs++;
+				return;
+			}
+
+			Arc arc = new Arc(tail, head, group);
+			this.arcs.add(arc);
+			this.outArcs.get(tail).add(arc);
+			this.inArcs.get(head).add(arc);
+			this.arcsByEnds.put(key, arc);
+		}
+
+		/**
+		 * Removes a live arc.
+		 */
+		private void removeArc(Arc arc) {
+			arc.removed = true;
+			this.outArcs.get(arc.tail).remove(arc);
+			this.inArcs.get(arc.head).remove(arc);
+			this.arcsByEnds.remove((long) arc.tail * this.n + arc.head);
+		}
+	}
+}
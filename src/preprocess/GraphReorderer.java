@@ -0,0 +1,315 @@
+package preprocess;
+
+import graph.Edge;
+import graph.SimpleGraph;
+import graph.Vertex;
+
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.Iterator;
+
+/**
+ * Renumbers the vertices of a flow network so that vertices that are close in
+ * the graph get close numbers. The vertices of the returned graph are inserted
+ * in the new order and its edges are sorted by tail and then by head.
+ * <p>
+ * The order only carries over to representations that number the vertices
+ * and arcs in the order of the graph, which is the {@link model.FlowNetwork}
+ * of NetworkPreFlowPush. The residual graph of the other algorithms keys its
+ * vertices and edges by hash, so they see no difference in memory layout. For
+ * NetworkPreFlowPush the new numbering also changes the order of the pushes,
+ * and measured times went up as often as down, so no speed-up is implied.
+ * <p>
+ * Two orderings are supported:
+ * <ul>
+ * <li>{@link #BFS}: breadth first order from the source, ignoring edge
+ * directions,</li>
+ * <li>{@link #RCM}: reverse Cuthill-McKee order, which keeps the bandwidth of
+ * the adjacency matrix small.</li>
+ * </ul>
+ */
+public class GraphReorderer {
+	/** Breadth first order starting from the source. */
+	public static final String BFS = "bfs";
+
+	/** Reverse Cuthill-McKee order. */
+	public static final String RCM = "rcm";
+
+	/**
+	 * Reorders the given flow network. The input graph is left untouched.
+	 *
+	 * @param graph    The flow network to reorder, with source "s".
+	 * @param ordering The ordering to use, either {@link #BFS} or {@link #RCM}.
+	 * @return The reordered graph and its average edge span before and after.
+	 * @throws Exception If the ordering is unknown.
+	 */
+	public ReorderedGraph reorder(SimpleGraph graph, String ordering) throws Exception {
+		int n = graph.numVertices();
+		Vertex[] vertices = new Vertex[n];
+		Hashtable<Vertex, Integer> index = new Hashtable<>();
+		int source = 0;
+		Iterator vertexIterator = graph.vertices();
+		for (int i = 0; vertexIterator.hasNext(); i++) {
+			vertices[i] = (Vertex) vertexIterator.next();
+			index.put(vertices[i], i);
+			if ("s".equals(vertices[i].getName())) {
+				source = i;
+			}
+		}
+
+		int m = graph.numEdges();
+		Edge[] edges = new Edge[m];
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		Iterator edgeIterator = graph.edges();
+		for (int i = 0; edgeIterator.hasNext(); i++) {
+			edges[i] = (Edge) edgeIterator.next();
+			tails[i] = index.get(edges[i].getFirstEndpoint());
+			heads[i] = index.get(edges[i].getSecondEndpoint());
+		}
+
+		// Undirected adjacency in compressed form, neighbors of v are
+		// neighbors[first[v]] .. neighbors[first[v + 1] - 1]
+		int[] first = new int[n + 1];
+		for (int i = 0; i < m; i++) {
+			first[tails[i] + 1]++;
+			first[heads[i] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			first[v + 1] += first[v];
+		}
+		int[] neighbors = new int[2 * m];
+		int[] fill = first.clone();
+		for (int i = 0; i < m; i++) {
+			neighbors[fill[tails[i]]++] = heads[i];
+			neighbors[fill[heads[i]]++] = tails[i];
+		}
+
+		int[] order;
+		if (BFS.equals(ordering)) {
+			order = breadthFirstOrder(n, first, neighbors, source);
+		} else if (RCM.equals(ordering)) {
+			order = reverseCuthillMcKeeOrder(n, first, neighbors, source);
+		} else {
+			throw new Exception("Unknown vertex ordering " + ordering);
+		}
+
+		int[] rank = new int[n];
+		for (int i = 0; i < n; i++) {
+			rank[order[i]] = i;
+		}
+
+		// Insert the vertices in the new order, then the edges sorted by the new number
+		// of their tail and head
+		SimpleGraph reorderedGraph = new SimpleGraph();
+		Vertex[] reorderedVertices = new Vertex[n];
+		for (int i = 0; i < n; i++) {
+			Vertex vertex = vertices[order[i]];
+			reorderedVertices[i] = reorderedGraph.insertVertex(vertex.getData(), vertex.getName());
+		}
+
+		int[] byHead = sortByKey(m, heads, rank, identity(m), n);
+		int[] sorted = sortByKey(m, tails, rank, byHead, n);
+		for (int i : sorted) {
+			reorderedGraph.insertEdge(reorderedVertices[rank[tails[i]]], reorderedVertices[rank[heads[i]]],
+					edges[i].getData(), edges[i].getName());
+		}
+
+		return new ReorderedGraph(reorderedGraph, averageEdgeSpan(tails, heads, identity(n)),
+				averageEdgeSpan(tails, heads, rank));
+	}
+
+	/**
+	 * Orders the vertices breadth first from the source. Vertices not connected
+	 * to the source follow in input order, each starting a new search.
+	 *
+	 * @param n         Number of vertices.
+	 * @param first     Start of the neighbors of each vertex.
+	 * @param neighbors Neighbors of all vertices.
+	 * @param source    Vertex to start from.
+	 * @return The vertices in their new order.
+	 */
+	private static int[] breadthFirstOrder(int n, int[] first, int[] neighbors, int source) {
+		int[] order = new int[n];
+		boolean[] visited = new boolean[n];
+		int size = 0;
+		for (int start = -1; start < n; start++) {
+			int root = start < 0 ? source : start;
+			if (n == 0 || visited[root]) {
+				continue;
+			}
+			visited[root] = true;
+			order[size++] = root;
+			for (int head = size - 1; head < size; head++) {
+				int v = order[head];
+				for (int i = first[v]; i < first[v + 1]; i++) {
+					if (!visited[neighbors[i]]) {
+						visited[neighbors[i]] = true;
+						order[size++] = neighbors[i];
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Orders the vertices in reverse Cuthill-McKee order. Each connected
+	 * component starts from a pseudo-peripheral vertex, found by repeated breadth
+	 * first searches from the source (or the first unvisited vertex), and visits
+	 * the neighbors of each vertex by increasing degree.
+	 *
+	 * @param n         Number of vertices.
+	 * @param first     Start of the neighbors of each vertex.
+	 * @param neighbors Neighbors of all vertices.
+	 * @param source    Vertex whose component is ordered first.
+	 * @return The vertices in their new order.
+	 */
+	private static int[] reverseCuthillMcKeeOrder(int n, int[] first, int[] neighbors, int source) {
+		int[] order = new int[n];
+		boolean[] visited = new boolean[n];
+		int[] level = new int[n];
+		int[] queue = new int[n];
+		long[] keys = new long[n];
+		Arrays.fill(level, -1);
+		int size = 0;
+		for (int start = -1; start < n; start++) {
+			int root = start < 0 ? source : start;
+			if (n == 0 || visited[root]) {
+				continue;
+			}
+			root = peripheralVertex(root, first, neighbors, level, queue);
+
+			visited[root] = true;
+			order[size++] = root;
+			for (int head = size - 1; head < size; head++) {
+				int v = order[head];
+				int added = size;
+				for (int i = first[v]; i < first[v + 1]; i++) {
+					if (!visited[neighbors[i]]) {
+						visited[neighbors[i]] = true;
+						order[size++] = neighbors[i];
+					}
+				}
+				// Visit the newly added neighbors by increasing degree
+				for (int i = added; i < size; i++) {
+					keys[i - added] = (long) degree(order[i], first) << 32 | order[i];
+				}
+				Arrays.sort(keys, 0, size - added);
+				for (int i = added; i < size; i++) {
+					order[i] = (int) keys[i - added];
+				}
+			}
+		}
+
+		for (int i = 0, j = n - 1; i < j; i++, j--) {
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+		return order;
+	}
+
+	/**
+	 * Finds a pseudo-peripheral vertex of the component containing the given
+	 * vertex: the search is repeated from the farthest vertex of smallest degree
+	 * as long as the eccentricity keeps growing.
+	 *
+	 * @param root      Vertex to start from.
+	 * @param first     Start of the neighbors of each vertex.
+	 * @param neighbors Neighbors of all vertices.
+	 * @param level     Scratch space holding the distance of each vertex.
+	 * @param queue     Scratch space for the search queue.
+	 * @return A vertex far away from the rest of the component.
+	 */
+	private static int peripheralVertex(int root, int[] first, int[] neighbors, int[] level, int[] queue) {
+		int eccentricity = -1;
+		while (true) {
+			int size = 0;
+			queue[size++] = root;
+			level[root] = 0;
+			for (int head = 0; head < size; head++) {
+				int v = queue[head];
+				for (int i = first[v]; i < first[v + 1]; i++) {
+					if (level[neighbors[i]] < 0) {
+						level[neighbors[i]] = level[v] + 1;
+						queue[size++] = neighbors[i];
+					}
+				}
+			}
+
+			// Pick the vertex of smallest degree on the last level
+			int depth = level[queue[size - 1]];
+			int candidate = queue[size - 1];
+			for (int i = size - 1; i >= 0 && level[queue[i]] == depth; i--) {
+				if (degree(queue[i], first) < degree(candidate, first)) {
+					candidate = queue[i];
+				}
+			}
+			for (int i = 0; i < size; i++) {
+				level[queue[i]] = -1;
+			}
+
+			if (depth <= eccentricity) {
+				return root;
+			}
+			eccentricity = depth;
+			root = candidate;
+		}
+	}
+
+	/**
+	 * Degree of a vertex in the undirected adjacency.
+	 */
+	private static int degree(int v, int[] first) {
+		return first[v + 1] - first[v];
+	}
+
+	/**
+	 * Stable counting sort of the given edge positions by the new number of one
+	 * of their endpoints.
+	 *
+	 * @param m         Number of edges.
+	 * @param endpoints Endpoint of each edge the sort is based on.
+	 * @param rank      New number of each vertex.
+	 * @param positions Edge positions to sort.
+	 * @param n         Number of vertices.
+	 * @return The sorted edge positions.
+	 */
+	private static int[] sortByKey(int m, int[] endpoints, int[] rank, int[] positions, int n) {
+		int[] start = new int[n + 1];
+		for (int i = 0; i < m; i++) {
+			start[rank[endpoints[i]] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			start[v + 1] += start[v];
+		}
+		int[] sorted = new int[m];
+		for (int i : positions) {
+			sorted[start[rank[endpoints[i]]]++] = i;
+		}
+		return sorted;
+	}
+
+	/**
+	 * Average distance between the numbers of the endpoints of the edges.
+	 */
+	private static double averageEdgeSpan(int[] tails, int[] heads, int[] rank) {
+		long span = 0;
+		for (int i = 0; i < tails.length; i++) {
+			span += Math.abs(rank[tails[i]] - rank[heads[i]]);
+		}
+		return tails.length == 0 ? 0 : (double) span / tails.length;
+	}
+
+	/**
+	 * The identity permutation of the given size.
+	 */
+	private static int[] identity(int size) {
+		int[] positions = new int[size];
+		for (int i = 0; i < size; i++) {
+			positions[i] = i;
+		}
+		return positions;
+	}
+}
@@ -0,0 +1,122 @@
+package preprocess;
+
+import graph.Edge;
+import graph.SimpleGraph;
+
+import java.util.Hashtable;
+import java.util.Iterator;
+
+/**
+ * The result of a {@link GraphReducer} run. Holds the reduced flow network that
+ * is handed to the max flow algorithms and the information needed to map a flow
+ * on the reduced network back to the edges of the original one.
+ */
+public class ReducedGraph {
+	private SimpleGraph originalGraph;
+	private SimpleGraph graph;
+	private Hashtable<String, ArcGroup> groups; // original edges behind each reduced edge
+	private int prunedVertices;
+	private int mergedEdges;
+	private int contractedVertices;
+
+	/**
+	 * Constructor to create a reduced graph.
+	 *
+	 * @param originalGraph      The graph that was reduced.
+	 * @param graph              The reduced graph.
+	 * @param groups             Original edges behind each reduced edge, keyed by
+	 *                           the residual edge identifier.
+	 * @param prunedVertices     Number of vertices not on any source to sink path.
+	 * @param mergedEdges        Number of edges merged into a parallel edge.
+	 * @param contractedVertices Number of vertices removed by chain contraction.
+	 */
+	ReducedGraph(SimpleGraph originalGraph, SimpleGraph graph, Hashtable<String, ArcGroup> groups,
+			int prunedVertices, int mergedEdges, int contractedVertices) {
+		this.originalGraph = originalGraph;
+		this.graph = graph;
+		this.groups = groups;
+		this.prunedVertices = prunedVertices;
+		this.mergedEdges = mergedEdges;
+		this.contractedVertices = contractedVertices;
+	}
+
+	/**
+	 * Get the reduced graph to be solved.
+	 *
+	 * @return The reduced graph.
+	 */
+	public SimpleGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Get the graph the reduction started from.
+	 *
+	 * @return The original graph.
+	 */
+	public SimpleGraph getOriginalGraph() {
+		return this.originalGraph;
+	}
+
+	/**
+	 * Get the number of vertices removed because they are not on any path from
+	 * the source to the sink.
+	 *
+	 * @return Number of pruned vertices.
+	 */
+	public int getPrunedVertices() {
+		return this.prunedVertices;
+	}
+
+	/**
+	 * Get the number of edges that were merged into a parallel edge.
+	 *
+	 * @return Number of merged edges.
+	 */
+	public int getMergedEdges() {
+		return this.mergedEdges;
+	}
+
+	/**
+	 * Get the number of vertices removed by contracting chains.
+	 *
+	 * @return Number of contracted vertices.
+	 */
+	public int getContractedVertices() {
+		return this.contractedVertices;
+	}
+
+	/**
+	 * Maps the flow found on the reduced graph back to the original graph. The
+	 * reduced edges are matched by the names of their endpoints, so the flow may
+	 * also come from a reordered copy of the reduced graph. Edges that were
+	 * pruned carry no flow.
+	 *
+	 * @param solvedGraph The reduced graph the algorithm ran on.
+	 * @param edgeFlows   The flow on every edge of the solved graph, in its order.
+	 * @return The flow on every edge of the original graph, in its order.
+	 * @throws Exception If an edge of the solved graph is not in the reduced graph.
+	 */
+	public double[] expandFlow(SimpleGraph solvedGraph, double[] edgeFlows) throws Exception {
+		Hashtable<Edge, Double> flows = new Hashtable<>();
+		Iterator edgeIterator = solvedGraph.edges();
+		for (int e = 0; edgeIterator.hasNext(); e++) {
+			Edge edge = (Edge) edgeIterator.next();
+			String identifier = edge.getFirstEndpoint().getName() + "-" + edge.getSecondEndpoint().getName();
+			ArcGroup group = this.groups.get(identifier);
+			if (group == null) {
+				throw new Exception("Edge " + identifier + " is not in the reduced graph");
+			}
+			if (edgeFlows[e] > 0) {
+				group.distribute(edgeFlows[e], flows);
+			}
+		}
+
+		double[] originalFlows = new double[this.originalGraph.numEdges()];
+		edgeIterator = this.originalGraph.edges();
+		for (int e = 0; edgeIterator.hasNext(); e++) {
+			originalFlows[e] = flows.getOrDefault(edgeIterator.next(), 0.0);
+		}
+		return originalFlows;
+	}
+}
@@ -0,0 +1,57 @@
+package preprocess;
+
+import graph.SimpleGraph;
+
+/**
+ * The result of a {@link GraphReorderer} run. Holds the reordered flow network
+ * and its average edge span before and after the reordering. Vertex names are
+ * not changed by the reordering, so flows found on the reordered graph already
+ * refer to the original vertices.
+ */
+public class ReorderedGraph {
+	private SimpleGraph graph;
+	private double originalEdgeSpan;
+	private double edgeSpan;
+
+	/**
+	 * Constructor to create a reordered graph.
+	 *
+	 * @param graph            The reordered graph.
+	 * @param originalEdgeSpan Average edge span in input order.
+	 * @param edgeSpan         Average edge span in the new order.
+	 */
+	ReorderedGraph(SimpleGraph graph, double originalEdgeSpan, double edgeSpan) {
+		this.graph = graph;
+		this.originalEdgeSpan = originalEdgeSpan;
+		this.edgeSpan = edgeSpan;
+	}
+
+	/**
+	 * Get the reordered graph to be solved.
+	 *
+	 * @return The reordered graph.
+	 */
+	public SimpleGraph getGraph() {
+		return this.graph;
+	}
+
+	/**
+	 * Get the average distance between the numbers of the endpoints of an edge
+	 * in input order.
+	 *
+	 * @return The average edge span before reordering.
+	 */
+	public double getOriginalEdgeSpan() {
+		return this.originalEdgeSpan;
+	}
+
+	/**
+	 * Get the average distance between the numbers of the endpoints of an edge
+	 * in the new order.
+	 *
+	 * @return The average edge span after reordering.
+	 */
+	public double getEdgeSpan() {
+		return this.edgeSpan;
+	}
+}